@@ -0,0 +1,74 @@
+package IIS.wis2_backend.Utils;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
+import IIS.wis2_backend.Enum.Roles;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Tokens verified per second by the JWT filter path. "legacy" is how tokens
+ * were verified before: key decoded and parser built on every call, the token
+ * parsed twice (validate, then subject). Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JWTUtilsBenchmark {
+    private static final String ISSUER = "wis2";
+
+    private String secret;
+    private String token;
+    private JWTUtils uncached;
+    private JWTUtils cached;
+
+    @Setup
+    public void Setup() {
+        secret = Base64.getEncoder().encodeToString(new byte[32]);
+        JWTKeyStore keyStore = new JWTKeyStore(secret, "", "");
+        uncached = new JWTUtils(keyStore, 3_600_000, ISSUER, 0);
+        cached = new JWTUtils(keyStore, 3_600_000, ISSUER, 10_000);
+        token = uncached.generateToken(new Wis2Principal(1L, "xuser00", "", Roles.USER, true, 0));
+    }
+
+    @Benchmark
+    public String legacy() {
+        Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        if (claims.getExpiration().getTime() < System.currentTimeMillis() || !ISSUER.equals(claims.getIssuer())) {
+            return null;
+        }
+
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String reusedParser() {
+        return uncached.ValidClaims(token).getSubject();
+    }
+
+    @Benchmark
+    public String verifiedCache() {
+        return cached.ValidClaims(token).getSubject();
+    }
+}
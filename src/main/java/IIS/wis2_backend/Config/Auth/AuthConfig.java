@@ -16,8 +16,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import IIS.wis2_backend.Controllers.CourseController;
 import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Account.TokenRevocationService;
 import IIS.wis2_backend.Services.Account.Wis2UserDetailsService;
+import IIS.wis2_backend.Services.Cache.PrincipalCache;
 import IIS.wis2_backend.Utils.JWTUtils;
 
 /**
@@ -36,11 +39,13 @@ public class AuthConfig {
             "/activate",
             "/courses",
             "/courses/statistics",
+            "/courses/search",
             "/user/public/{id}",
             "/courses/{id}",
             "/password-reset",
             "/password-reset/generate",
             "/schedules/courses/**",
+            "/schedules/feed/**",
             "/swagger-ui/**",
             "/swagger-ui.html",
             "/v8/api-docs/**",
@@ -62,16 +67,29 @@ public class AuthConfig {
      */
     private final JWTUtils jwtUtils;
 
+    /**
+     * Cached principals for the filter.
+     */
+    private final PrincipalCache principalCache;
+
+    /**
+     * Revocation check for the JWT filter.
+     */
+    private final TokenRevocationService tokenRevocationService;
+
     /**
      * Constructor for AuthConfig.
      * 
      * @param authService The authentication service.
      */
     public AuthConfig(Wis2UserDetailsService wis2UserDetailsService, AuthenticationEntryPoint unauthorizedHandler,
-            UserRepository userRepository, JWTUtils jwtUtils) {
+            UserRepository userRepository, JWTUtils jwtUtils, PrincipalCache principalCache,
+            TokenRevocationService tokenRevocationService) {
         this.wis2UserDetailsService = wis2UserDetailsService;
         this.unauthorizedHandler = unauthorizedHandler;
         this.jwtUtils = jwtUtils;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -97,6 +115,7 @@ public class AuthConfig {
                     corsConfig.setAllowedOrigins(List.of("http://localhost:5173", "https://iis-wis2.netlify.app"));
                     corsConfig.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
                     corsConfig.setAllowedHeaders(List.of("*"));
+                    corsConfig.setExposedHeaders(List.of(CourseController.TOTAL_COUNT_HEADER));
                     corsConfig.setAllowCredentials(true);
                     return corsConfig;
                 }))
@@ -123,7 +142,7 @@ public class AuthConfig {
      */
     @Bean
     public OncePerRequestFilter authenticationJwtTokenFilter() {
-        return new JWTFilter(jwtUtils, wis2UserDetailsService);
+        return new JWTFilter(jwtUtils, principalCache, tokenRevocationService);
     }
 
     /**
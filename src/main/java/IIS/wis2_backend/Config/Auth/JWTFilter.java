@@ -4,9 +4,12 @@ import java.io.IOException;
 
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import IIS.wis2_backend.Services.Account.Wis2UserDetailsService;
+import IIS.wis2_backend.Services.Account.TokenRevocationService;
+import IIS.wis2_backend.Services.Cache.PrincipalCache;
 import IIS.wis2_backend.Utils.JWTUtils;
 
+import io.jsonwebtoken.Claims;
+
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -29,19 +32,27 @@ public class JWTFilter extends OncePerRequestFilter {
     private final JWTUtils jwtUtils;
 
     /**
-     * Service to load user details.
+     * Cached user details for tokens issued without the user claims.
      */
-    private final Wis2UserDetailsService wis2UserDetailsService;
+    private final PrincipalCache principalCache;
+
+    /**
+     * Checks the token epoch against revocations.
+     */
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Constructor for JWTFilter.
      *
-     * @param jwtUtils    the JWTUtils instance
-     * @param authService the AuthService instance
+     * @param jwtUtils               the JWTUtils instance
+     * @param principalCache         the PrincipalCache instance
+     * @param tokenRevocationService the TokenRevocationService instance
      */
-    public JWTFilter(JWTUtils jwtUtils, Wis2UserDetailsService wis2UserDetailsService) {
+    public JWTFilter(JWTUtils jwtUtils, PrincipalCache principalCache,
+            TokenRevocationService tokenRevocationService) {
         this.jwtUtils = jwtUtils;
-        this.wis2UserDetailsService = wis2UserDetailsService;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -72,14 +83,25 @@ public class JWTFilter extends OncePerRequestFilter {
             return;
         }
 
-        if (!jwtUtils.validateToken(token)) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        // Invalid and revoked tokens leave the request unauthenticated, public
+        // endpoints (login, refresh, logout) must still work, protected ones
+        // answer 401 through the entry point
+        Claims claims = jwtUtils.ValidClaims(token);
+        if (claims == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // The principal comes from the token, only the revocation epoch is checked
+        Wis2Principal principal = jwtUtils.Principal(claims);
+        if (principal != null && !tokenRevocationService.IsValid(principal.getId(), principal.getTokenEpoch())) {
+            filterChain.doFilter(request, response);
             return;
         }
 
-        String username = jwtUtils.Subject(token);
         try {
-            UserDetails userDetails = wis2UserDetailsService.loadUserByUsername(username);
+            // Older tokens without the user claims go through the cache
+            UserDetails userDetails = principal != null ? principal : principalCache.Get(claims.getSubject());
 
             UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                     userDetails,
@@ -89,8 +111,7 @@ public class JWTFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (UsernameNotFoundException e) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            return;
+            // Deleted user, same as a revoked token
         }
 
         filterChain.doFilter(request, response);
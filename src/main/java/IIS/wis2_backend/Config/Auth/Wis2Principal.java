@@ -0,0 +1,61 @@
+package IIS.wis2_backend.Config.Auth;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+import IIS.wis2_backend.Enum.Roles;
+import lombok.Getter;
+
+/**
+ * Principal of an authenticated user. Besides the username it carries the id,
+ * role and token epoch, so they don't have to be looked up again.
+ */
+@Getter
+public class Wis2Principal extends User {
+    /**
+     * ID of the user.
+     */
+    private final Long id;
+
+    /**
+     * Role of the user.
+     */
+    private final Roles role;
+
+    /**
+     * Token epoch of the user.
+     */
+    private final long tokenEpoch;
+
+    /**
+     * Constructor for Wis2Principal.
+     * 
+     * @param id         ID of the user.
+     * @param username   Username of the user.
+     * @param password   Password hash, empty when built from a token.
+     * @param role       Role of the user.
+     * @param activated  If the account is activated.
+     * @param tokenEpoch Token epoch of the user.
+     */
+    public Wis2Principal(Long id, String username, String password, Roles role, boolean activated,
+            long tokenEpoch) {
+        super(username, password, activated, true, true, true, Authorities(role));
+        this.id = id;
+        this.role = role;
+        this.tokenEpoch = tokenEpoch;
+    }
+
+    /**
+     * Maps a role to granted authorities. Admins are users too.
+     * 
+     * @param role Role of the user.
+     * @return The authorities.
+     */
+    public static Collection<GrantedAuthority> Authorities(Roles role) {
+        return role == Roles.ADMIN ? AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER")
+                : AuthorityUtils.createAuthorityList("ROLE_USER");
+    }
+}
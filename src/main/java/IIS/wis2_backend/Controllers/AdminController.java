@@ -11,6 +11,8 @@ import org.springframework.web.bind.annotation.RestController;
 import IIS.wis2_backend.DTO.Request.Admin.SupervisorAssignmentDTO;
 import IIS.wis2_backend.DTO.Request.Admin.ToggleAccountDTO;
 import IIS.wis2_backend.DTO.Response.Admin.AdminStatsDTO;
+import IIS.wis2_backend.DTO.Response.Admin.CacheStatsDTO;
+import IIS.wis2_backend.DTO.Response.Admin.TokenReaperStatsDTO;
 import IIS.wis2_backend.DTO.Response.Course.AdminCourseDTO;
 import IIS.wis2_backend.Services.AdminService;
 import jakarta.validation.Valid;
@@ -36,6 +38,24 @@ public class AdminController {
         return adminService.getAdminStats();
     }
 
+    /**
+     * Returns hit/miss/eviction statistics of the course catalog cache.
+     */
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(adminService.getCacheStats());
+    }
+
+    /**
+     * Returns rows purged and expired rows left by the expired token reaper.
+     */
+    @GetMapping("/token-reaper-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TokenReaperStatsDTO> getTokenReaperStats() {
+        return ResponseEntity.ok(adminService.getTokenReaperStats());
+    }
+
     /**
      * Returns a list of all courses for admin view.
      */
@@ -16,7 +16,6 @@ import IIS.wis2_backend.DTO.Request.Auth.LoginDTO;
 import IIS.wis2_backend.DTO.Request.Auth.RegisterDTO;
 import IIS.wis2_backend.DTO.Response.Auth.SuccesfulLoginDTO;
 import IIS.wis2_backend.DTO.Response.User.RegisterResponseDTO;
-import IIS.wis2_backend.Services.UserService;
 import IIS.wis2_backend.Services.Account.AuthService;
 import jakarta.validation.Valid;
 
@@ -31,19 +30,13 @@ public class AuthController {
      */
     private final AuthService authService;
 
-    /**
-     * This is here to get user ID and role.
-     */
-    private final UserService userService;
-
     /**
      * Constructor for AuthController.
      * 
      * @param authService Service for authentication related operations.
      */
-    public AuthController(AuthService authService, UserService userService) {
+    public AuthController(AuthService authService) {
         this.authService = authService;
-        this.userService = userService;
     }
 
     /**
@@ -66,20 +59,13 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<SuccesfulLoginDTO> Login(@Valid @RequestBody LoginDTO loginDTO) {
         // Authenticate user
-        Pair<ResponseCookie, ResponseCookie> tokens = authService.LoginUser(loginDTO);
-        ResponseCookie jwtCookie = tokens.getFirst();
-        ResponseCookie refreshCookie = tokens.getSecond();
+        AuthService.LoginResult result = authService.LoginUser(loginDTO);
 
         // Return these to the client
-        String username = loginDTO.getUsername();
-        Pair<Long, String> idAndRole = userService.GetUserIdAndRole(username);
-        Long id = idAndRole.getFirst();
-        String role = idAndRole.getSecond();
-
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, jwtCookie.toString())
-                .header(HttpHeaders.SET_COOKIE, refreshCookie.toString())
-                .body(new SuccesfulLoginDTO(id, username, role));
+                .header(HttpHeaders.SET_COOKIE, result.jwtCookie().toString())
+                .header(HttpHeaders.SET_COOKIE, result.refreshCookie().toString())
+                .body(result.user());
     }
 
     /**
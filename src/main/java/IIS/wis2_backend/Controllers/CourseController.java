@@ -8,9 +8,14 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 
@@ -30,15 +35,26 @@ import IIS.wis2_backend.DTO.Response.Course.TermListDTO;
 import IIS.wis2_backend.DTO.Response.Term.FullTermDTO;
 import IIS.wis2_backend.DTO.Response.User.VerySmallUserDTO;
 import IIS.wis2_backend.DTO.Response.Course.GradebookEntryDTO;
+import IIS.wis2_backend.DTO.Response.Course.BulkGrantResultDTO;
+import IIS.wis2_backend.DTO.Response.Course.BulkRegistrationResultDTO;
+import IIS.wis2_backend.DTO.Response.Course.GradingRowResultDTO;
+import IIS.wis2_backend.DTO.Request.Course.BulkGrantDTO;
+import IIS.wis2_backend.DTO.Request.Course.BulkRegistrationDTO;
+import IIS.wis2_backend.DTO.Request.Course.TermPointsEntryDTO;
 import IIS.wis2_backend.DTO.Request.Course.TermPointsUpdateDTO;
 import IIS.wis2_backend.DTO.Request.Course.GradeUpdateDTO;
 import IIS.wis2_backend.Enum.CourseRoleType;
 import IIS.wis2_backend.Enum.TermType;
 import IIS.wis2_backend.Services.CourseService;
+import IIS.wis2_backend.Services.Education.EnrollmentService;
+import IIS.wis2_backend.Services.Cache.CourseCatalogCache.CourseDetail;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+import IIS.wis2_backend.Services.Education.GradingService;
 import IIS.wis2_backend.Services.Education.TermService;
 import jakarta.validation.Valid;
 
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.WebRequest;
 
 
 /**
@@ -47,6 +63,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 @RestController
 @RequestMapping("/courses")
 public class CourseController {
+	/**
+	 * Header carrying the total number of items for paginated responses.
+	 */
+	public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
 	/**
 	 * Course service.
 	 */
@@ -57,26 +78,75 @@ public class CourseController {
 	 */
 	private final TermService termService;
 
+	/**
+	 * Grading service (bulk grading).
+	 */
+	private final GradingService gradingService;
+
+	/**
+	 * Enrollment service.
+	 */
+	private final EnrollmentService enrollmentService;
+
+	/**
+	 * Version counters for ETags.
+	 */
+	private final ResourceVersions resourceVersions;
+
 	/**
 	 * Constructor for CourseController.
 	 * 
-	 * @param courseService Course service.
-	 * @param termService   Term service.
+	 * @param courseService     Course service.
+	 * @param termService       Term service.
+	 * @param gradingService    Grading service.
+	 * @param enrollmentService Enrollment service.
+	 * @param resourceVersions  Resource version counters.
 	 */
-	public CourseController(CourseService courseService, TermService termService) {
+	public CourseController(CourseService courseService, TermService termService, GradingService gradingService,
+			EnrollmentService enrollmentService, ResourceVersions resourceVersions) {
 		this.courseService = courseService;
 		this.termService = termService;
+		this.gradingService = gradingService;
+		this.enrollmentService = enrollmentService;
+		this.resourceVersions = resourceVersions;
 	}
 
 	/**
-	 * Getter for all courses.
+	 * Getter for all courses. The total number of matching courses is sent in the
+	 * X-Total-Count header, the body only contains the requested page.
 	 * 
-	 * @param filter Course filter attributes.
-	 * @return list of all courses matching the criteria.
+	 * @param filter  Course filter attributes.
+	 * @param request The web request (If-None-Match).
+	 * @return list of courses matching the criteria (one page if size is set).
 	 */
 	@GetMapping
-	public List<LightweightCourseDTO> GetAllCourses(@ModelAttribute CourseFilter filter) {
-		return courseService.GetAllCourses(filter);
+	public ResponseEntity<List<LightweightCourseDTO>> GetAllCourses(@Valid @ModelAttribute CourseFilter filter,
+			WebRequest request) {
+		String etag = resourceVersions.ETag(ResourceVersions.CATALOG);
+		if (request.checkNotModified(etag)) {
+			return NotModified(etag);
+		}
+
+		Page<LightweightCourseDTO> courses = courseService.GetAllCourses(filter);
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.cacheControl(CacheControl.noCache())
+				.header(TOTAL_COUNT_HEADER, String.valueOf(courses.getTotalElements()))
+				.body(courses.getContent());
+	}
+
+	/**
+	 * Full-text search over approved courses (name, shortcut, description). Results
+	 * are ranked by relevance and tolerate prefixes and small typos.
+	 * 
+	 * @param query The search query.
+	 * @param limit Maximum number of results.
+	 * @return list of matching courses, best match first.
+	 */
+	@GetMapping("/search")
+	public ResponseEntity<List<LightweightCourseDTO>> SearchCourses(@RequestParam String query,
+			@RequestParam(defaultValue = "20") int limit) {
+		return ResponseEntity.ok(courseService.SearchCourses(query, limit));
 	}
 
 	/**
@@ -90,13 +160,25 @@ public class CourseController {
 	}
 
 	/**
-	 * Getter for a course by id.
+	 * Getter for a course by id. Supports If-None-Match, repeat views get a 304
+	 * without any lookup.
 	 * 
-	 * @param id Course id.
+	 * @param id      Course id.
+	 * @param request The web request (If-None-Match).
 	 */
 	@GetMapping("/{shortcut}")
-	public FullCourseDTO GetCourseByShortcut(@PathVariable String shortcut) {
-		return courseService.GetCourseByShortcut(shortcut);
+	public ResponseEntity<FullCourseDTO> GetCourseByShortcut(@PathVariable String shortcut, WebRequest request) {
+		String etag = resourceVersions.ETag(ResourceVersions.CourseKey(shortcut));
+		if (request.checkNotModified(etag)) {
+			return NotModified(etag);
+		}
+
+		CourseDetail detail = courseService.GetCourseDetail(shortcut);
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.lastModified(detail.lastModified())
+				.cacheControl(CacheControl.noCache())
+				.body(detail.course());
 	}
 
 	@GetMapping("/pending")
@@ -186,16 +268,31 @@ public class CourseController {
 	/**
 	 * Returns the terms for a specific course.
 	 * 
-	 * @param shortcut The course shortcut.
+	 * @param shortcut       The course shortcut.
+	 * @param authentication The authentication object of the current user.
+	 * @param request        The web request (If-None-Match).
 	 * @return List of lightweight term DTOs.
 	 */
 	@GetMapping("/{shortcut}/terms")
 	@PreAuthorize("isAuthenticated()")
 	public ResponseEntity<List<TermListDTO>> GetCourseTerms(
 			@PathVariable String shortcut,
-			Authentication authentication) {
+			Authentication authentication,
+			WebRequest request) {
+		// Authorize first, a 304 would tell a stranger the terms exist and haven't changed
+		courseService.AuthorizeCourseTerms(shortcut, authentication.getName());
+
+		// The list says which terms the user is registered for, so the ETag is per user
+		String etag = resourceVersions.ETag(ResourceVersions.CourseTermsKey(shortcut), authentication.getName());
+		if (request.checkNotModified(etag)) {
+			return NotModified(etag);
+		}
+
 		List<TermListDTO> terms = courseService.GetCourseTerms(shortcut, authentication.getName());
-		return ResponseEntity.ok(terms);
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.cacheControl(CacheControl.noCache().cachePrivate())
+				.body(terms);
 	}
 
 	@GetMapping("/{shortcut}/students")
@@ -217,9 +314,23 @@ public class CourseController {
 		return ResponseEntity.ok().build();
 	}
 
+	/**
+	 * Returns the gradebook of a course. Large courses can be fetched page by
+	 * page, the total number of students is in the X-Total-Count header.
+	 * 
+	 * @param courseId ID of the course.
+	 * @param page     Zero-based page index (optional).
+	 * @param size     Page size (optional, all students if missing).
+	 * @return List of gradebook entries.
+	 */
 	@GetMapping("/{courseId}/gradebook")
-	public ResponseEntity<List<GradebookEntryDTO>> getCourseGradebook(@PathVariable Long courseId) {
-		return ResponseEntity.ok(courseService.getCourseGradebook(courseId));
+	public ResponseEntity<List<GradebookEntryDTO>> getCourseGradebook(@PathVariable Long courseId,
+			@RequestParam(required = false) Integer page,
+			@RequestParam(required = false) Integer size) {
+		Page<GradebookEntryDTO> gradebook = courseService.GetCourseGradebookPage(courseId, page, size);
+		return ResponseEntity.ok()
+				.header(TOTAL_COUNT_HEADER, String.valueOf(gradebook.getTotalElements()))
+				.body(gradebook.getContent());
 	}
 
 	@PostMapping("/{courseId}/terms/{termId}/students/{studentId}/grade")
@@ -232,6 +343,81 @@ public class CourseController {
 		return ResponseEntity.ok().build();
 	}
 
+	/**
+	 * Sets term points for many students in one request.
+	 * 
+	 * @param courseId       The ID of the course.
+	 * @param termId         The ID of the term.
+	 * @param entries        Student IDs and their points.
+	 * @param authentication The authentication object of the current user.
+	 * @return Per-row results in the order of the request.
+	 */
+	@PostMapping(value = "/{courseId}/terms/{termId}/grades", consumes = MediaType.APPLICATION_JSON_VALUE)
+	@PreAuthorize("isAuthenticated()")
+	public ResponseEntity<List<GradingRowResultDTO>> GradeTerm(
+			@PathVariable Long courseId,
+			@PathVariable Long termId,
+			@RequestBody List<TermPointsEntryDTO> entries,
+			Authentication authentication) {
+		return ResponseEntity.ok(gradingService.GradeTerm(courseId, termId, entries, authentication.getName()));
+	}
+
+	/**
+	 * Same as above, but takes a CSV sheet with "studentId,points" lines.
+	 * 
+	 * @param courseId       The ID of the course.
+	 * @param termId         The ID of the term.
+	 * @param csv            The CSV content.
+	 * @param authentication The authentication object of the current user.
+	 * @return Per-row results in the order of the sheet.
+	 */
+	@PostMapping(value = "/{courseId}/terms/{termId}/grades", consumes = "text/csv")
+	@PreAuthorize("isAuthenticated()")
+	public ResponseEntity<List<GradingRowResultDTO>> GradeTermCsv(
+			@PathVariable Long courseId,
+			@PathVariable Long termId,
+			@RequestBody String csv,
+			Authentication authentication) {
+		return ResponseEntity.ok(gradingService.GradeTerm(courseId, termId, gradingService.ParseCsv(csv),
+				authentication.getName()));
+	}
+
+	/**
+	 * Grants unit credit to many students at once (by IDs and/or a points
+	 * threshold).
+	 * 
+	 * @param courseId       The ID of the course.
+	 * @param selection      Which students to grant the credit to.
+	 * @param authentication The authentication object of the current user.
+	 * @return Which students changed and which were skipped.
+	 */
+	@PostMapping("/{courseId}/students/credit")
+	@PreAuthorize("isAuthenticated()")
+	public ResponseEntity<BulkGrantResultDTO> GrantCreditBulk(
+			@PathVariable Long courseId,
+			@RequestBody BulkGrantDTO selection,
+			Authentication authentication) {
+		return ResponseEntity.ok(gradingService.GrantCredit(courseId, selection, authentication.getName()));
+	}
+
+	/**
+	 * Grants the exam to many students at once (by IDs and/or a points
+	 * threshold) and calculates their final grades.
+	 * 
+	 * @param courseId       The ID of the course.
+	 * @param selection      Which students to grant the exam to.
+	 * @param authentication The authentication object of the current user.
+	 * @return Which students changed and which were skipped.
+	 */
+	@PostMapping("/{courseId}/students/exam")
+	@PreAuthorize("isAuthenticated()")
+	public ResponseEntity<BulkGrantResultDTO> GrantExamBulk(
+			@PathVariable Long courseId,
+			@RequestBody BulkGrantDTO selection,
+			Authentication authentication) {
+		return ResponseEntity.ok(gradingService.GrantExam(courseId, selection, authentication.getName()));
+	}
+
 	/**
 	 * Grants unit credit (zápočet) to a student in a course.
 	 * 
@@ -340,6 +526,42 @@ public class CourseController {
 		return ResponseEntity.ok().build();
 	}
 
+	/**
+	 * Approves many registration requests at once (by usernames or the oldest
+	 * K requests).
+	 * 
+	 * @param shortcut       The course shortcut.
+	 * @param selection      Which requests to approve.
+	 * @param authentication The authentication object of the current user.
+	 * @return Which students were approved and which were skipped.
+	 */
+	@PostMapping("/{shortcut}/requests/approve")
+	@PreAuthorize("isAuthenticated()")
+	public ResponseEntity<BulkRegistrationResultDTO> ApproveRegistrationRequests(
+			@PathVariable String shortcut,
+			@RequestBody BulkRegistrationDTO selection,
+			Authentication authentication) {
+		return ResponseEntity.ok(enrollmentService.ApproveRequests(shortcut, selection, authentication.getName()));
+	}
+
+	/**
+	 * Rejects many registration requests at once (by usernames or the oldest K
+	 * requests).
+	 * 
+	 * @param shortcut       The course shortcut.
+	 * @param selection      Which requests to reject.
+	 * @param authentication The authentication object of the current user.
+	 * @return Which students were rejected and which were skipped.
+	 */
+	@PostMapping("/{shortcut}/requests/reject")
+	@PreAuthorize("isAuthenticated()")
+	public ResponseEntity<BulkRegistrationResultDTO> RejectRegistrationRequests(
+			@PathVariable String shortcut,
+			@RequestBody BulkRegistrationDTO selection,
+			Authentication authentication) {
+		return ResponseEntity.ok(enrollmentService.RejectRequests(shortcut, selection, authentication.getName()));
+	}
+
 	/**
 	 * Removes a teacher from a course.
 	 * 
@@ -389,16 +611,25 @@ public class CourseController {
 	}
 
 	/**
-	 * Gets courses not associated with a specific user.
+	 * Gets all courses with the authenticated user's relation to each of them.
+	 * The total number of courses is sent in the X-Total-Count header.
 	 * 
-	 * @param username The username of the user.
-	 * @return List of lightweight course DTOs.
+	 * @param page           Zero-based page index.
+	 * @param size           Page size, leave empty for all courses.
+	 * @param authentication The authentication object of the current user.
+	 * @return List of registered course DTOs.
 	 */
 	@GetMapping("/registered-view")
 	@PreAuthorize("isAuthenticated()")
-	public ResponseEntity<List<RegisteredCourseListItemDTO>> GetRegisteredCourseDTOs(Authentication authentication) {
-		List<RegisteredCourseListItemDTO> courses = courseService.GetRegisteredCourseDTOs(authentication.getName());
-		return ResponseEntity.ok(courses);
+	public ResponseEntity<List<RegisteredCourseListItemDTO>> GetRegisteredCourseDTOs(
+			@RequestParam(required = false) Integer page,
+			@RequestParam(required = false) Integer size,
+			Authentication authentication) {
+		Page<RegisteredCourseListItemDTO> courses = courseService.GetRegisteredCourseDTOs(authentication.getName(),
+				page, size);
+		return ResponseEntity.ok()
+				.header(TOTAL_COUNT_HEADER, String.valueOf(courses.getTotalElements()))
+				.body(courses.getContent());
 	}
 
 	/**
@@ -411,7 +642,7 @@ public class CourseController {
 	@PostMapping("/{shortcut}/enroll")
 	@PreAuthorize("isAuthenticated()")
 	public ResponseEntity<String> EnrollInCourse(@PathVariable String shortcut, Authentication authentication) {
-		String result = courseService.EnrollInCourse(shortcut, authentication.getName());
+		String result = enrollmentService.Enroll(shortcut, authentication.getName());
 		return ResponseEntity.ok(result);
 	}
 
@@ -484,4 +715,17 @@ public class CourseController {
 		FullTermDTO term = termService.GetFullTermDTO(termId, authentication.getName());
 		return ResponseEntity.ok(term);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Builds a 304 response for a conditional GET.
+	 * 
+	 * @param etag The current ETag.
+	 * @return Empty 304 response.
+	 */
+	private <T> ResponseEntity<T> NotModified(String etag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+				.eTag(etag)
+				.cacheControl(CacheControl.noCache())
+				.build();
+	}
+}
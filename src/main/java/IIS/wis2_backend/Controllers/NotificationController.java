@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
 import IIS.wis2_backend.DTO.Request.SendCourseNotificationRequestDTO;
 import IIS.wis2_backend.DTO.Request.SendNotificationRequestDTO;
 import IIS.wis2_backend.DTO.Response.NotificationResponseDTO;
@@ -32,33 +33,35 @@ public class NotificationController {
 
     @GetMapping
     public ResponseEntity<List<NotificationResponseDTO>> getUserNotifications(Authentication authentication) {
-        Wis2User user = getUserByAuth(authentication);
-        return ResponseEntity.ok(notificationService.getUserNotifications(user.getId()));
+        return ResponseEntity.ok(notificationService.getUserNotifications(getUserId(authentication)));
     }
 
     @PostMapping("/send")
     public ResponseEntity<Void> sendNotification(Authentication authentication, @Valid @RequestBody SendNotificationRequestDTO request) {
-        Wis2User user = getUserByAuth(authentication);
-        notificationService.sendNotification(user.getId(), request);
+        notificationService.sendNotification(getUserId(authentication), request);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/course/{courseId}")
     public ResponseEntity<Void> sendCourseNotification(Authentication authentication, @PathVariable Long courseId, @Valid @RequestBody SendCourseNotificationRequestDTO request) {
-        Wis2User user = getUserByAuth(authentication);
-        notificationService.sendCourseNotification(user.getId(), courseId, request);
+        notificationService.sendCourseNotification(getUserId(authentication), courseId, request);
         return ResponseEntity.ok().build();
     }
 
     @PutMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(Authentication authentication, @PathVariable Long id) {
-        Wis2User user = getUserByAuth(authentication);
-        notificationService.markAsRead(user.getId(), id);
+        notificationService.markAsRead(getUserId(authentication), id);
         return ResponseEntity.ok().build();
     }
 
-    private Wis2User getUserByAuth(Authentication authentication) {
+    private Long getUserId(Authentication authentication) {
+        // Tokens carry the id, only older ones need a lookup
+        if (authentication.getPrincipal() instanceof Wis2Principal principal) {
+            return principal.getId();
+        }
+
         return userRepository.findByUsername(authentication.getName())
+                .map(Wis2User::getId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
     }
 }
@@ -3,17 +3,30 @@ package IIS.wis2_backend.Controllers;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import IIS.wis2_backend.DTO.Request.Schedule.ScheduleRangeRequestDTO;
 import IIS.wis2_backend.DTO.Request.Schedule.ScheduleRequestDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.FeedTokenDTO;
 import IIS.wis2_backend.DTO.Response.Schedule.ScheduleWeekDTO;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.UnauthorizedException;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+import IIS.wis2_backend.Services.Education.ScheduleFeedService;
+import IIS.wis2_backend.Services.Education.ScheduleRangeService;
 import IIS.wis2_backend.Services.Education.ScheduleService;
 import jakarta.validation.Valid;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller for returning personal (only viewable by the user himself) and
@@ -22,18 +35,45 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 @RequestMapping("/schedules")
 @RestController
 public class ScheduleController {
+    /**
+     * Content type of the calendar feeds.
+     */
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
     /**
      * ScheduleService to retreive schedules.
      */
     private final ScheduleService scheduleService;
 
+    /**
+     * Schedule versions for ETags.
+     */
+    private final ResourceVersions resourceVersions;
+
+    /**
+     * Calendar feeds of the schedules.
+     */
+    private final ScheduleFeedService scheduleFeedService;
+
+    /**
+     * Schedules of any range.
+     */
+    private final ScheduleRangeService scheduleRangeService;
+
     /**
      * ScheduleController constructor.
      * 
-     * @param scheduleService Schedule service to retreive schedules.
+     * @param scheduleService      Schedule service to retreive schedules.
+     * @param resourceVersions     Resource version counters.
+     * @param scheduleFeedService  Calendar feeds of the schedules.
+     * @param scheduleRangeService Schedules of any range.
      */
-    public ScheduleController(ScheduleService scheduleService) {
+    public ScheduleController(ScheduleService scheduleService, ResourceVersions resourceVersions,
+            ScheduleFeedService scheduleFeedService, ScheduleRangeService scheduleRangeService) {
         this.scheduleService = scheduleService;
+        this.resourceVersions = resourceVersions;
+        this.scheduleFeedService = scheduleFeedService;
+        this.scheduleRangeService = scheduleRangeService;
     }
 
     /**
@@ -41,13 +81,23 @@ public class ScheduleController {
      * 
      * @param weekStart The start date of the week.
      * @param courseId  The ID of the course.
+     * @param webRequest The web request (If-None-Match).
      * @return ScheduleWeekDTO representing the schedule for the week.
      */
     @GetMapping("/courses")
-    public ResponseEntity<ScheduleWeekDTO> GetScheduleForGivenWeek(@Valid @ModelAttribute ScheduleRequestDTO request) {
+    public ResponseEntity<ScheduleWeekDTO> GetScheduleForGivenWeek(@Valid @ModelAttribute ScheduleRequestDTO request,
+            WebRequest webRequest) {
+        String etag = resourceVersions.ETag(ResourceVersions.CourseScheduleKey(request.shortcutOrUsername()));
+        if (webRequest.checkNotModified(etag)) {
+            return NotModified(etag);
+        }
+
         ScheduleWeekDTO dto = scheduleService.GetCourseScheduleForGivenWeek(request.shortcutOrUsername(),
                 request.weekStart());
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(dto);
     }
 
     /**
@@ -55,18 +105,162 @@ public class ScheduleController {
      * 
      * @param weekStart The start date of the week.
      * @param username  The username of the user.
+     * @param webRequest The web request (If-None-Match).
      * @return ScheduleWeekDTO representing the schedule for the week.
      */
     @GetMapping("/users")
     public ResponseEntity<ScheduleWeekDTO> GetUserScheduleForGivenWeek(
             @Valid @ModelAttribute ScheduleRequestDTO request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
         if (!request.shortcutOrUsername().equals(userDetails.getUsername())) {
             throw new UnauthorizedException("You can't view other users' schedules.");
         }
 
+        String etag = scheduleService.UserScheduleETag(request.shortcutOrUsername());
+        if (webRequest.checkNotModified(etag)) {
+            return NotModified(etag);
+        }
+
         ScheduleWeekDTO dto = scheduleService.GetUserScheduleForGivenWeek(request.shortcutOrUsername(),
                 request.weekStart());
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(dto);
+    }
+
+    /**
+     * Gets any range of a course schedule (e.g. a semester), grouped by day.
+     * 
+     * @param request    The course, the range, the type filter and the format.
+     * @param webRequest The web request (If-None-Match).
+     * @return The days, streamed.
+     */
+    @GetMapping("/courses/range")
+    public ResponseEntity<StreamingResponseBody> GetCourseScheduleForRange(
+            @Valid @ModelAttribute ScheduleRangeRequestDTO request, WebRequest webRequest) {
+        scheduleRangeService.ValidateRange(request);
+        String etag = scheduleRangeService.CourseRangeETag(request);
+        if (webRequest.checkNotModified(etag)) {
+            return NotModified(etag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> scheduleRangeService.WriteCourseRange(request, out));
+    }
+
+    /**
+     * Gets any range of the user schedule (e.g. a semester), grouped by day.
+     * 
+     * @param request     The user, the range, the filters and the format.
+     * @param userDetails The logged in user.
+     * @param webRequest  The web request (If-None-Match).
+     * @return The days, streamed.
+     */
+    @GetMapping("/users/range")
+    public ResponseEntity<StreamingResponseBody> GetUserScheduleForRange(
+            @Valid @ModelAttribute ScheduleRangeRequestDTO request,
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
+        if (!request.shortcutOrUsername().equals(userDetails.getUsername())) {
+            throw new UnauthorizedException("You can't view other users' schedules.");
+        }
+
+        scheduleRangeService.ValidateRange(request);
+        String etag = scheduleRangeService.UserRangeETag(request);
+        if (webRequest.checkNotModified(etag)) {
+            return NotModified(etag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> scheduleRangeService.WriteUserRange(request, out));
+    }
+
+    /**
+     * Gets the iCalendar feed of a course schedule, for calendar subscriptions.
+     * 
+     * @param shortcut   The shortcut of the course.
+     * @param webRequest The web request (If-None-Match).
+     * @return The feed, streamed.
+     */
+    @GetMapping("/courses/{shortcut}/feed.ics")
+    public ResponseEntity<StreamingResponseBody> GetCourseFeed(@PathVariable String shortcut, WebRequest webRequest) {
+        String etag = scheduleFeedService.CourseFeedETag(shortcut);
+        if (webRequest.checkNotModified(etag)) {
+            return NotModified(etag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(TEXT_CALENDAR)
+                .body(out -> scheduleFeedService.WriteCourseFeed(shortcut, out));
+    }
+
+    /**
+     * Gets the iCalendar feed of a user schedule. Calendar clients can't log
+     * in, the feed token in the URL says whose schedule it is.
+     * 
+     * @param token      The feed token.
+     * @param webRequest The web request (If-None-Match).
+     * @return The feed, streamed.
+     */
+    @GetMapping("/feed/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> GetUserFeed(@PathVariable String token, WebRequest webRequest) {
+        String username = scheduleFeedService.ResolveFeedToken(token);
+        String etag = scheduleFeedService.UserFeedETag(username);
+        if (webRequest.checkNotModified(etag)) {
+            return NotModified(etag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(TEXT_CALENDAR)
+                .body(out -> scheduleFeedService.WriteUserFeed(username, out));
+    }
+
+    /**
+     * Generates a new feed token for the logged in user, the old one stops
+     * working.
+     * 
+     * @param userDetails The logged in user.
+     * @return The token and the path of the feed.
+     */
+    @PostMapping("/users/feed-token")
+    public ResponseEntity<FeedTokenDTO> GenerateFeedToken(@AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(scheduleFeedService.GenerateFeedToken(userDetails.getUsername()));
+    }
+
+    /**
+     * Revokes the feed token of the logged in user.
+     * 
+     * @param userDetails The logged in user.
+     * @return Empty response.
+     */
+    @DeleteMapping("/users/feed-token")
+    public ResponseEntity<Void> RevokeFeedToken(@AuthenticationPrincipal UserDetails userDetails) {
+        scheduleFeedService.RevokeFeedToken(userDetails.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Builds a 304 response for a conditional GET.
+     * 
+     * @param etag The current ETag.
+     * @return Empty 304 response.
+     */
+    private <T> ResponseEntity<T> NotModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
     }
 }
\ No newline at end of file
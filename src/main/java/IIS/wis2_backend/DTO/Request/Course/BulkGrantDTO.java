@@ -0,0 +1,19 @@
+package IIS.wis2_backend.DTO.Request.Course;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Selects the students for a bulk credit/exam grant. Either a list of student
+ * IDs, a points threshold, or both (then both must hold).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkGrantDTO {
+    private List<Long> studentIds;
+    private Integer minPoints; // e.g. 50 for "all students with at least 50 points"
+}
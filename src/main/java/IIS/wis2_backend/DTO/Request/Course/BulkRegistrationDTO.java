@@ -0,0 +1,19 @@
+package IIS.wis2_backend.DTO.Request.Course;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Selects the pending registration requests for a bulk approve/reject. Either
+ * a list of usernames or the number of the oldest requests to take.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRegistrationDTO {
+    private List<String> usernames;
+    private Integer first; // e.g. 30 for "the first 30 requests by request time"
+}
@@ -0,0 +1,16 @@
+package IIS.wis2_backend.DTO.Request.Course;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of a bulk grading request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TermPointsEntryDTO {
+    private Long studentId;
+    private Integer points;
+}
@@ -1,6 +1,8 @@
 package IIS.wis2_backend.DTO.Request.ModelAttributes;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.Data;
 
 /**
@@ -8,13 +10,19 @@ import lombok.Data;
  */
 @Data
 public class CourseFilter {
+    /**
+     * Largest allowed page size.
+     */
+    public static final int MAX_SIZE = 200;
+
     /**
      * Whether to reverse the sorting order.
      */
     private boolean reverse = false;
 
     /**
-     * Attribute to sort by. Defaults to "name", also supports "price".
+     * Attribute to sort by. Defaults to "name", also supports "price" and
+     * "relevance" (only meaningful together with a query).
      */
     private String sortBy = "name";
 
@@ -39,7 +47,9 @@ public class CourseFilter {
     private boolean endedByBoth = true;
 
     /**
-     * Search query to filter courses by name or description.
+     * Search query to filter courses by name, shortcut or description. Matched
+     * through the course search index: every course whose name or shortcut
+     * contains the query, plus fuzzy (trigram) matches.
      */
     private String query;
 
@@ -48,4 +58,17 @@ public class CourseFilter {
 
     @DecimalMin(value = "0.0", inclusive = true, message = "maxPrice must be non-negative")
     private Double maxPrice;
+
+    /**
+     * Zero-based page index. If size is not set, all matching courses are returned.
+     */
+    @Min(value = 0, message = "page must be non-negative")
+    private Integer page;
+
+    /**
+     * Page size. Leave empty to disable pagination.
+     */
+    @Min(value = 1, message = "size must be positive")
+    @Max(value = MAX_SIZE, message = "size must be at most " + MAX_SIZE)
+    private Integer size;
 }
\ No newline at end of file
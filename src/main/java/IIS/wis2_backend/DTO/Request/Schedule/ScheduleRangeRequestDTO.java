@@ -0,0 +1,22 @@
+package IIS.wis2_backend.DTO.Request.Schedule;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import IIS.wis2_backend.Enum.TermType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO for requesting any range of a schedule (e.g. a whole semester), from and
+ * to inclusive. Empty type and course filters mean all of them, compact asks
+ * for column-oriented days.
+ */
+public record ScheduleRangeRequestDTO(
+        @NotBlank String shortcutOrUsername,
+        @NotNull LocalDate from,
+        @NotNull LocalDate to,
+        Set<TermType> types,
+        Set<String> courses,
+        Boolean compact) {
+}
@@ -0,0 +1,26 @@
+package IIS.wis2_backend.DTO.Response.Admin;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistics of one in-memory cache.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    private String name;
+    private Long hits;
+    private Long misses;
+    private Long puts; // Only for second-level cache regions
+    private Long evictions;
+    private Long size;
+    private Long maxSize;
+    private Instant loadedAt;
+}
@@ -0,0 +1,23 @@
+package IIS.wis2_backend.DTO.Response.Admin;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistics of the expired token reaper.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TokenReaperStatsDTO {
+    private Long refreshTokensPurged;
+    private Long linkTokensPurged;
+    private Long refreshTokenBacklog; // Expired rows left after the last run
+    private Long linkTokenBacklog;
+    private Instant lastRunAt;
+}
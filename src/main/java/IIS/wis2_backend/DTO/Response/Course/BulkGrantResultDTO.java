@@ -0,0 +1,20 @@
+package IIS.wis2_backend.DTO.Response.Course;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a bulk credit/exam grant.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkGrantResultDTO {
+    private List<Long> changed; // Students whose record was updated
+    private List<Long> skipped; // Requested students that were not eligible (already granted, not enrolled, ...)
+}
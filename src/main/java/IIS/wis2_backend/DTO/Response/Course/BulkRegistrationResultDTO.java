@@ -0,0 +1,20 @@
+package IIS.wis2_backend.DTO.Response.Course;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a bulk approve/reject of registration requests.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkRegistrationResultDTO {
+    private List<String> changed; // Students whose request was approved/rejected
+    private List<String> skipped; // Requested usernames without a pending request
+}
@@ -0,0 +1,21 @@
+package IIS.wis2_backend.DTO.Response.Course;
+
+import IIS.wis2_backend.Enum.GradingRowStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one row of a bulk grading request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class GradingRowResultDTO {
+    private Long studentId;
+    private Integer points;
+    private GradingRowStatus status;
+    private String message; // Why the row was rejected, null otherwise
+}
@@ -0,0 +1,23 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+import IIS.wis2_backend.Enum.CourseEndType;
+
+/**
+ * Projection for the course detail page. One row per teacher of the course
+ * (teacher columns are null when there are none), the course and supervisor
+ * columns repeat on every row.
+ */
+public interface CourseDetailRowProjection {
+    Long getId();
+    String getName();
+    Double getPrice();
+    String getDescription();
+    String getShortcut();
+    CourseEndType getCompletedBy();
+    String getSupervisorUsername();
+    String getSupervisorFirstName();
+    String getSupervisorLastName();
+    String getTeacherUsername();
+    String getTeacherFirstName();
+    String getTeacherLastName();
+}
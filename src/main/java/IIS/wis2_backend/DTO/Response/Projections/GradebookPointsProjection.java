@@ -0,0 +1,10 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+/**
+ * Interface for projecting one gradebook cell (student x term x points).
+ */
+public interface GradebookPointsProjection {
+    Long getStudentId();
+    Long getTermId();
+    Integer getPoints();
+}
@@ -0,0 +1,17 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+/**
+ * Interface for projecting one gradebook row (an approved enrollment with its
+ * student).
+ */
+public interface GradebookStudentProjection {
+    Long getStudentId();
+    String getUsername();
+    String getFirstName();
+    String getLastName();
+    Integer getPoints();
+    Boolean getUnitCredit();
+    Boolean getExamPassed();
+    Double getFinalGrade();
+    Boolean getCompleted();
+}
@@ -0,0 +1,10 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+/**
+ * Interface for projecting a gradebook column (a term of the course).
+ */
+public interface GradebookTermProjection {
+    Long getId();
+    String getName();
+    Integer getMaxPoints();
+}
@@ -0,0 +1,11 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+/**
+ * Interface for projecting a StudentCourse whose stored total points do not
+ * match the sum of its term points.
+ */
+public interface PointsMismatchProjection {
+    Long getId();
+    Integer getStoredPoints();
+    Long getActualPoints();
+}
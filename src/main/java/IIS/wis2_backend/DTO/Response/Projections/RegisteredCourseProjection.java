@@ -0,0 +1,18 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+import IIS.wis2_backend.Enum.CourseEndType;
+
+/**
+ * Projection of a course together with the requesting user's role flags.
+ */
+public interface RegisteredCourseProjection {
+    Long getId();
+    String getName();
+    Double getPrice();
+    String getShortcut();
+    CourseEndType getCompletedBy();
+    Boolean getIsSupervisor();
+    Boolean getIsTeacher();
+    Boolean getIsStudent();
+    Boolean getHasRequested();
+}
@@ -0,0 +1,12 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+/**
+ * Interface for projecting a course whose seat counter doesn't match the
+ * number of approved enrollments.
+ */
+public interface SeatCountMismatchProjection {
+    Long getId();
+    String getShortcut();
+    Integer getStoredCount();
+    Long getActualCount();
+}
@@ -0,0 +1,10 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+/**
+ * Interface for projecting a student's registration for a term (for grading).
+ */
+public interface TermRegistrationProjection {
+    Long getStudentId();
+    Integer getPoints();
+    Long getVersion();
+}
@@ -0,0 +1,12 @@
+package IIS.wis2_backend.DTO.Response.Projections;
+
+import java.time.Instant;
+
+/**
+ * Interface for projecting the token epoch of a user.
+ */
+public interface TokenEpochProjection {
+    Long getId();
+    long getTokenEpoch();
+    Instant getTokenEpochChangedAt();
+}
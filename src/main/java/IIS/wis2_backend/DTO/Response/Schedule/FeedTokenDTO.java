@@ -0,0 +1,10 @@
+package IIS.wis2_backend.DTO.Response.Schedule;
+
+/**
+ * Data Transfer Object for a newly generated calendar feed token. The token
+ * is only shown once, just its hash is stored.
+ */
+public record FeedTokenDTO(
+    String token,
+    String path
+) {}
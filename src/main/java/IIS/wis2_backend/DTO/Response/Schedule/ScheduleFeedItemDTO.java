@@ -0,0 +1,21 @@
+package IIS.wis2_backend.DTO.Response.Schedule;
+
+import java.time.LocalDateTime;
+
+import IIS.wis2_backend.Enum.TermType;
+
+/**
+ * Data Transfer Object for one event of a calendar feed. Has the ID (for a
+ * stable UID) and the details a calendar shows, which the week view doesn't
+ * need.
+ */
+public record ScheduleFeedItemDTO(
+    Long id,
+    LocalDateTime startDate,
+    LocalDateTime endDate,
+    String course,
+    String courseName,
+    TermType termType,
+    String name,
+    String room
+) {}
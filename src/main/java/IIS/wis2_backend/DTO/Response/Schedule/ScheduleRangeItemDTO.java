@@ -0,0 +1,17 @@
+package IIS.wis2_backend.DTO.Response.Schedule;
+
+import java.time.LocalDateTime;
+
+import IIS.wis2_backend.Enum.TermType;
+
+/**
+ * Data Transfer Object for a schedule item of a range. Like ScheduleItemDTO,
+ * with the ID (the same item can come from two sources in derived schedules).
+ */
+public record ScheduleRangeItemDTO(
+    Long id,
+    LocalDateTime startDate,
+    LocalDateTime endDate,
+    String course,
+    TermType termType
+) {}
@@ -0,0 +1,11 @@
+package IIS.wis2_backend.Enum;
+
+/**
+ * Outcome of one row of a bulk grading request.
+ */
+public enum GradingRowStatus {
+    UPDATED,
+    UNCHANGED,
+    REJECTED,
+    CONFLICT
+}
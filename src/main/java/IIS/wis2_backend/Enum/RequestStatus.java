@@ -3,5 +3,6 @@ package IIS.wis2_backend.Enum;
 public enum RequestStatus {
     PENDING,
     APPROVED,
-    REJECTED
+    REJECTED,
+    WAITLISTED
 }
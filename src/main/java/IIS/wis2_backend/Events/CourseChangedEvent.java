@@ -0,0 +1,11 @@
+package IIS.wis2_backend.Events;
+
+/**
+ * Application event published whenever a course (or data shown on its public
+ * pages) is created or modified.
+ * 
+ * @param courseId ID of the changed course.
+ * @param shortcut Shortcut of the changed course.
+ */
+public record CourseChangedEvent(Long courseId, String shortcut) {
+}
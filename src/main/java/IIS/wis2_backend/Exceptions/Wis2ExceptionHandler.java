@@ -1,6 +1,7 @@
 package IIS.wis2_backend.Exceptions;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.mail.MailException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.AuthenticationException;
@@ -34,6 +35,20 @@ public class Wis2ExceptionHandler {
         return new ExceptionResponseType(e.getMessage());
     }
 
+    /**
+     * Handler for ObjectOptimisticLockingFailureException.
+     * 
+     * @param e the ObjectOptimisticLockingFailureException. Thrown when two
+     *          requests modify the same row at once (e.g. grading the same
+     *          student).
+     */
+    @ExceptionHandler(value = ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public @ResponseBody ExceptionResponseType handleOptimisticLockingFailure(
+            ObjectOptimisticLockingFailureException e) {
+        return new ExceptionResponseType("The data was modified concurrently, please try again.");
+    }
+
     /**
      * Handler for IllegalArgumentException.
      * 
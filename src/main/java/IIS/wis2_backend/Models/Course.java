@@ -11,10 +11,18 @@ import IIS.wis2_backend.Models.User.Wis2User;
 import jakarta.persistence.*;
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 /**
- * Model representing one course.
+ * Model representing one course. Kept in the second-level cache and looked up
+ * by its shortcut (natural id).
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "course")
+@NaturalIdCache(region = "course-natural-id")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,6 +56,7 @@ public class Course {
     /**
      * Course shortcut/abbreviation.
      */
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String shortcut;
 
@@ -98,6 +107,17 @@ public class Course {
     @Column(nullable = false)
     private Integer capacity;
 
+    /**
+     * Seat counter, in its own table so seat changes don't evict the cached
+     * course. Read it through CourseRepository, not through the entity.
+     */
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "seats_id", nullable = false, updatable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Builder.Default
+    private CourseSeats seats = new CourseSeats();
+
     /**
      * If the course can be autoregistered up to capacity.
      */
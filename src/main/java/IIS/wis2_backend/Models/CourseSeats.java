@@ -0,0 +1,32 @@
+package IIS.wis2_backend.Models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Seat counter of one course. Kept out of the course row, which is in the
+ * second-level cache, so taking a seat doesn't evict cached courses. Not
+ * cached itself, the counter is always read from the database.
+ */
+@Entity
+@Table(name = "course_seats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseSeats {
+    /**
+     * Seat counter ID.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Number of approved students (seats taken). Only changed by atomic
+     * conditional updates in CourseRepository, never written by the entity.
+     */
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private Integer enrolledCount = 0;
+}
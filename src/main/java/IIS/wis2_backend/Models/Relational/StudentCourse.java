@@ -1,5 +1,7 @@
 package IIS.wis2_backend.Models.Relational;
 
+import java.time.LocalDateTime;
+
 import IIS.wis2_backend.Enum.RequestStatus;
 import IIS.wis2_backend.Models.Course;
 import IIS.wis2_backend.Models.User.Wis2User;
@@ -10,6 +12,8 @@ import lombok.*;
  * Model representing a relation student --> studentcourse <-- course
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uq_student_course_course_student", columnNames = {
+        "course_id", "student_id" }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -83,4 +87,18 @@ public class StudentCourse {
     @Enumerated(EnumType.STRING)
     @Builder.Default
     private RequestStatus status = RequestStatus.PENDING;
+
+    /**
+     * When the student asked to join the course. Orders the waitlist.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime requestedAt = LocalDateTime.now();
+
+    /**
+     * Version for optimistic locking. Points are maintained incrementally, so two
+     * concurrent gradings must not overwrite each other's delta.
+     */
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import lombok.*;
  * Model representing a relation student --> studentterm <-- term
  */
 @Entity
+@Table(indexes = @Index(name = "ix_student_term_student_term", columnList = "student_id, term_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,4 +40,11 @@ public class StudentTerm {
      * Points the student has earned for this term. Null if not graded yet or the term is an lecture.
      */
     private Integer points;
+
+    /**
+     * Version for optimistic locking. The course total is updated by the delta
+     * from the old points, so the old value must not change underneath us.
+     */
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -4,10 +4,18 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 /**
- * Abstract model representing one room on the campus.
+ * Abstract model representing one room on the campus. Rooms of all kinds share
+ * one second-level cache region, looked up by shortcut (natural id).
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room")
+@NaturalIdCache(region = "room-natural-id")
 @Inheritance(strategy = InheritanceType.JOINED)
 @Data
 @NoArgsConstructor
@@ -24,6 +32,7 @@ public abstract class Room {
     /**
      * Room "tag/shortcut"
      */
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String shortcut;
 
@@ -1,8 +1,5 @@
 package IIS.wis2_backend.Models;
 
-import java.util.Set;
-import java.util.HashSet;
-
 import IIS.wis2_backend.Models.User.Wis2User;
 import jakarta.persistence.*;
 import lombok.*;
@@ -38,16 +35,4 @@ public class Schedule {
     @EqualsAndHashCode.Exclude
     @ToString.Exclude
     private Course course;
-
-    /**
-     * Schedule items.
-     */
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(
-        name = "schedule_schedule_item",
-        joinColumns = @JoinColumn(name = "schedule_id"),
-        inverseJoinColumns = @JoinColumn(name = "schedule_item_id")
-    )
-    @Builder.Default
-    private Set<ScheduleItem> items = new HashSet<ScheduleItem>();
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package IIS.wis2_backend.Models;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Model representing one schedule item in one schedule (the link between
+ * them). The item dates are copied here, so a schedule can be queried by date
+ * range on the (schedule_id, start_date) index without touching its history.
+ */
+@Entity
+@Table(name = "schedule_schedule_item", indexes = {
+        @Index(name = "ix_schedule_entry_schedule_start", columnList = "schedule_id, start_date"),
+        @Index(name = "ix_schedule_entry_schedule_end", columnList = "schedule_id, end_date")
+})
+@IdClass(ScheduleEntry.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleEntry {
+    /**
+     * The schedule.
+     */
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "schedule_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Schedule schedule;
+
+    /**
+     * The item in it.
+     */
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "schedule_item_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private ScheduleItem item;
+
+    /**
+     * Copy of the item start date.
+     */
+    @Column(nullable = false)
+    private LocalDateTime startDate;
+
+    /**
+     * Copy of the item end date.
+     */
+    @Column(nullable = false)
+    private LocalDateTime endDate;
+
+    /**
+     * Primary key, (schedule_id, schedule_item_id).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long schedule;
+        private Long item;
+    }
+}
@@ -0,0 +1,72 @@
+package IIS.wis2_backend.Models.Tokens;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import IIS.wis2_backend.Models.User.Wis2User;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Model for a calendar feed token. Calendar clients can't log in, so the
+ * schedule feed URL carries this token instead. A user has at most one,
+ * generating a new one revokes the old one.
+ * 
+ * Cached by its hash, so polling a feed doesn't hit the database.
+ */
+@Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "feed-token")
+@NaturalIdCache(region = "feed-token-natural-id")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class FeedToken {
+    /**
+     * Token ID.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The hash of the token in the feed URL.
+     */
+    @NaturalId
+    @Column(unique = true, nullable = false)
+    private String tokenHash;
+
+    /**
+     * The user whose schedule the token opens.
+     */
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", unique = true, nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Wis2User user;
+
+    /**
+     * When the token was generated.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+}
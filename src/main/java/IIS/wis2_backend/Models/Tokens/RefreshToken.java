@@ -8,8 +8,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +22,10 @@ import lombok.ToString;
 /**
  * Model for a refresh token.
  * 
+ * Only the hash of the token is stored. One row is one login session (token
+ * family), rotation replaces the hash in place and remembers the previous one
+ * to detect reuse.
+ * 
  * Inspired by https://medium.com/@victoronu/implementing-refresh-token-logout-in-a-spring-boot-jwt-application-b9d31de953d6
  */
 @Data
@@ -27,6 +33,10 @@ import lombok.ToString;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "ix_refresh_token_previous_hash", columnList = "previous_hash"),
+        @Index(name = "ix_refresh_token_expiry_date", columnList = "expiry_date")
+})
 public class RefreshToken {
     /**
      * Refresh token ID.
@@ -45,10 +55,20 @@ public class RefreshToken {
     private Wis2User user;
 
     /**
-     * The refresh token string.
+     * The hash of the current refresh token.
      */
     @Column(unique = true, nullable = false)
-    private String token;
+    private String tokenHash;
+
+    /**
+     * The hash of the token this one replaced, presenting it again is reuse.
+     */
+    private String previousHash;
+
+    /**
+     * When the token was last rotated.
+     */
+    private Instant rotatedAt;
 
     /**
      * When the refresh token expires.
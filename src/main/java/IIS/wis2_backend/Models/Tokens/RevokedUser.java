@@ -0,0 +1,40 @@
+package IIS.wis2_backend.Models.Tokens;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tombstone of a deleted user whose access tokens may still be in use. Written
+ * in the same transaction as the delete, so every instance learns of it on its
+ * next reload. Purged by the token reaper once the tokens expired anyway.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = {
+        @Index(name = "ix_revoked_user_expires_at", columnList = "expires_at")
+})
+public class RevokedUser {
+    /**
+     * ID of the deleted user (IDs are never reused).
+     */
+    @Id
+    private Long userId;
+
+    /**
+     * When the last token of the user expires.
+     */
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
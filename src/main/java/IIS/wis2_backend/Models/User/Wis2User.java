@@ -1,6 +1,7 @@
 package IIS.wis2_backend.Models.User;
 
 import java.sql.Date;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -19,10 +20,18 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 /**
- * Model representing a registered user.
+ * Model representing a registered user. Kept in the second-level cache and
+ * looked up by username (natural id).
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,6 +48,7 @@ public class Wis2User {
     /**
      * Unique username.
      */
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -91,6 +101,18 @@ public class Wis2User {
     @Builder.Default
     private boolean activated = false;
 
+    /**
+     * Token epoch, access tokens issued with a lower epoch are revoked.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private long tokenEpoch = 0L;
+
+    /**
+     * When the token epoch was last bumped, instances reload only recent bumps.
+     */
+    private Instant tokenEpochChangedAt;
+
     /**
      * User schedule as a set of schedule items.
      */
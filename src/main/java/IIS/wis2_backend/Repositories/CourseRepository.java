@@ -3,22 +3,33 @@ package IIS.wis2_backend.Repositories;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import IIS.wis2_backend.DTO.Response.Projections.CourseDetailRowProjection;
 import IIS.wis2_backend.DTO.Response.Projections.CourseForTeacherProjection;
 import IIS.wis2_backend.DTO.Response.Projections.LightweightCourseProjection;
+import IIS.wis2_backend.DTO.Response.Projections.RegisteredCourseProjection;
+import IIS.wis2_backend.DTO.Response.Projections.SeatCountMismatchProjection;
 import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Enum.CourseEndType;
 import IIS.wis2_backend.Enum.RequestStatus;
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository for course CRUD operations.
  */
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecificationExecutor<Course> {
+public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecificationExecutor<Course>,
+        CourseRepositoryCustom {
     /**
      * Checks if a course exists by its shortcut.
      * 
@@ -27,14 +38,6 @@ public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecif
      */
     boolean existsByShortcut(String shortcut);
 
-    /**
-     * Retrieves a course by its shortcut.
-     * 
-     * @param shortcut Shortcut of the course.
-     * @return Course with the given shortcut.
-     */
-    Optional<Course> findByShortcut(String shortcut);
-
     /**
      * Retrieves a course by its shortcut and status.
      * 
@@ -142,11 +145,12 @@ public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecif
 
     /**
      * Returns the count of enrolled students for a course with the given shortcut.
+     * Reads the maintained seat counter, no COUNT over enrollments.
      * 
      * @param shortcut Shortcut of the course.
      * @return Count of enrolled students.
      */
-    @Query("SELECT COUNT(sc) FROM StudentCourse sc WHERE sc.course.shortcut = :shortcut AND sc.status = 'APPROVED'")
+    @Query("SELECT c.seats.enrolledCount FROM Course c WHERE c.shortcut = :shortcut")
     long getEnrolledCountByCourseShortcut(@Param("shortcut") String shortcut);
 
     /**
@@ -168,6 +172,28 @@ public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecif
      */
     Boolean existsByTeachers_UsernameAndShortcut(String username, String shortcut);
 
+    /**
+     * Returns true if the user with the given username supervises or teaches the
+     * course with the given ID. The supervisor doesn't have to be among the
+     * teachers (they can be removed from them).
+     * 
+     * @param id       ID of the course.
+     * @param username Username of the user.
+     * @return true if the user supervises or teaches the course, false otherwise.
+     */
+    @Query("SELECT COUNT(c) > 0 FROM Course c LEFT JOIN c.supervisor s LEFT JOIN c.teachers t "
+            + "WHERE c.id = :id AND (s.username = :username OR t.username = :username)")
+    boolean existsByIdAndSupervisorOrTeacher(@Param("id") Long id, @Param("username") String username);
+
+    /**
+     * Returns how the course with the given ID is completed.
+     * 
+     * @param id ID of the course.
+     * @return The course end type.
+     */
+    @Query("SELECT c.completedBy FROM Course c WHERE c.id = :id")
+    Optional<CourseEndType> findCompletedById(@Param("id") Long id);
+
     /**
      * Returns true if the user with the given username is enrolled in the course.
      * 
@@ -189,6 +215,141 @@ public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecif
     List<String> findShortcutsBySupervisor_UsernameAndStatus(@Param("username") String username,
             @Param("status") RequestStatus status);
 
+    /**
+     * Returns a page of all courses with the user's role flags computed in the
+     * same query (supervisor, teacher, any enrollment, pending enrollment).
+     * 
+     * @param username Username of the user.
+     * @param pageable Page request.
+     * @return Page of courses with role flags.
+     */
+    @Query(value = "SELECT c.id AS id, c.name AS name, c.price AS price, c.shortcut AS shortcut, "
+            + "c.completedBy AS completedBy, "
+            + "CASE WHEN s.username = :username THEN true ELSE false END AS isSupervisor, "
+            + "CASE WHEN EXISTS (SELECT t.id FROM Wis2User t JOIN t.taughtCourses tc "
+            + "WHERE tc.id = c.id AND t.username = :username) THEN true ELSE false END AS isTeacher, "
+            + "CASE WHEN EXISTS (SELECT sc.id FROM StudentCourse sc "
+            + "WHERE sc.course.id = c.id AND sc.student.username = :username) THEN true ELSE false END AS isStudent, "
+            + "CASE WHEN EXISTS (SELECT sc.id FROM StudentCourse sc WHERE sc.course.id = c.id "
+            + "AND sc.student.username = :username AND sc.status = 'PENDING') THEN true ELSE false END AS hasRequested "
+            + "FROM Course c LEFT JOIN c.supervisor s", countQuery = "SELECT COUNT(c) FROM Course c")
+    Page<RegisteredCourseProjection> findRegisteredCourseView(@Param("username") String username, Pageable pageable);
+
+    /**
+     * Loads everything the course detail page needs in one query: the course,
+     * its supervisor's name and one row per teacher name.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @return Detail rows, empty if the course doesn't exist.
+     */
+    @Query("SELECT c.id AS id, c.name AS name, c.price AS price, c.description AS description, "
+            + "c.shortcut AS shortcut, c.completedBy AS completedBy, "
+            + "s.username AS supervisorUsername, s.firstName AS supervisorFirstName, "
+            + "s.lastName AS supervisorLastName, t.username AS teacherUsername, "
+            + "t.firstName AS teacherFirstName, t.lastName AS teacherLastName "
+            + "FROM Course c LEFT JOIN c.supervisor s LEFT JOIN c.teachers t WHERE c.shortcut = :shortcut")
+    List<CourseDetailRowProjection> findDetailRowsByShortcut(@Param("shortcut") String shortcut);
+
+    /**
+     * Takes one seat in the course if there is a free one. Atomic, so concurrent
+     * enrollments can't overbook.
+     * 
+     * @param id ID of the course.
+     * @return 1 if a seat was taken, 0 if the course is full.
+     */
+    @Modifying
+    // The seat counter isn't cached, the native seat updates evict nothing
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "UPDATE course_seats SET enrolled_count = enrolled_count + 1 "
+            + "WHERE id = (SELECT c.seats_id FROM course c WHERE c.id = :id) "
+            + "AND enrolled_count < (SELECT c.capacity FROM course c WHERE c.id = :id)", nativeQuery = true)
+    int takeSeat(@Param("id") Long id);
+
+    /**
+     * Takes the given number of seats at once, only if all of them are free.
+     * 
+     * @param id    ID of the course.
+     * @param count Number of seats to take.
+     * @return 1 if the seats were taken, 0 if there aren't enough free seats.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "UPDATE course_seats SET enrolled_count = enrolled_count + :count "
+            + "WHERE id = (SELECT c.seats_id FROM course c WHERE c.id = :id) "
+            + "AND enrolled_count + :count <= (SELECT c.capacity FROM course c WHERE c.id = :id)", nativeQuery = true)
+    int takeSeats(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Frees one seat in the course.
+     * 
+     * @param id ID of the course.
+     * @return 1 if a seat was freed.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "UPDATE course_seats SET enrolled_count = enrolled_count - 1 "
+            + "WHERE id = (SELECT c.seats_id FROM course c WHERE c.id = :id) AND enrolled_count > 0",
+            nativeQuery = true)
+    int releaseSeat(@Param("id") Long id);
+
+    /**
+     * Returns the number of taken seats of a course.
+     * 
+     * @param id ID of the course.
+     * @return Number of approved students.
+     */
+    @Query("SELECT c.seats.enrolledCount FROM Course c WHERE c.id = :id")
+    int findEnrolledCountById(@Param("id") Long id);
+
+    /**
+     * Recounts the taken seats of all courses from the approved enrollments.
+     * Used after inserting enrollments directly (mock data).
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "UPDATE course_seats s SET enrolled_count = (SELECT COUNT(*) FROM course c "
+            + "JOIN student_course sc ON sc.course_id = c.id WHERE c.seats_id = s.id AND sc.status = 'APPROVED')",
+            nativeQuery = true)
+    void recountEnrolledStudents();
+
+    /**
+     * Finds all courses whose seat counter differs from the number of approved
+     * enrollments.
+     * 
+     * @return List of mismatching courses with the stored and actual counts.
+     */
+    @Query("SELECT c.id AS id, c.shortcut AS shortcut, c.seats.enrolledCount AS storedCount, "
+            + "(SELECT COUNT(sc) FROM StudentCourse sc WHERE sc.course = c AND sc.status = 'APPROVED') AS actualCount "
+            + "FROM Course c WHERE c.seats.enrolledCount <> "
+            + "(SELECT COUNT(sc2) FROM StudentCourse sc2 WHERE sc2.course = c AND sc2.status = 'APPROVED')")
+    List<SeatCountMismatchProjection> findSeatCountMismatches();
+
+    /**
+     * Recounts the taken seats of one course from the approved enrollments.
+     * Only for fixing mismatches, use takeSeat/releaseSeat otherwise. Lock the
+     * seats first, so no seat change commits while the count is taken.
+     * 
+     * @param id ID of the course.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "UPDATE course_seats SET enrolled_count = (SELECT COUNT(*) FROM student_course sc "
+            + "WHERE sc.course_id = :id AND sc.status = 'APPROVED') "
+            + "WHERE id = (SELECT c.seats_id FROM course c WHERE c.id = :id)", nativeQuery = true)
+    void recountEnrolledStudents(@Param("id") Long id);
+
+    /**
+     * Locks the seat counter of a course until the end of the transaction. The
+     * seat updates wait for it, so it serializes waitlist changes and recounts
+     * of one course with them.
+     * 
+     * @param id ID of the course.
+     * @return ID of the locked seat counter, empty if the course doesn't exist.
+     */
+    @Query(value = "SELECT s.id FROM course_seats s JOIN course c ON c.seats_id = s.id WHERE c.id = :id "
+            + "FOR UPDATE OF s", nativeQuery = true)
+    Optional<Long> lockSeats(@Param("id") Long id);
+
     /**
      * Returns all course shortcuts the user wants to register to.
      * 
@@ -0,0 +1,19 @@
+package IIS.wis2_backend.Repositories;
+
+import java.util.Optional;
+
+import IIS.wis2_backend.Models.Course;
+
+/**
+ * Course lookups implemented by hand instead of derived queries.
+ */
+public interface CourseRepositoryCustom {
+    /**
+     * Retrieves a course by its shortcut. Goes through the natural id and
+     * second-level caches, so repeated lookups don't hit the database.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @return Course with the given shortcut.
+     */
+    Optional<Course> findByShortcut(String shortcut);
+}
@@ -0,0 +1,27 @@
+package IIS.wis2_backend.Repositories;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+
+import IIS.wis2_backend.Models.Course;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of the hand-written course lookups.
+ */
+public class CourseRepositoryCustomImpl implements CourseRepositoryCustom {
+    /**
+     * Entity manager of the current transaction.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Course> findByShortcut(String shortcut) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Course.class)
+                .loadOptional(shortcut);
+    }
+}
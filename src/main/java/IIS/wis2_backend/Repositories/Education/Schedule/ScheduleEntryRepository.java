@@ -0,0 +1,265 @@
+package IIS.wis2_backend.Repositories.Education.Schedule;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleItemDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO;
+import IIS.wis2_backend.Enum.TermType;
+import IIS.wis2_backend.Models.ScheduleEntry;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository for the items of schedules.
+ */
+@Repository
+public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, ScheduleEntry.Key> {
+    /**
+     * Returns the items of a schedule overlapping the given range. Items starting
+     * in the range are found on the (schedule_id, start_date) index, items that
+     * started before and still run on the (schedule_id, end_date) one, so older
+     * history is never read.
+     * 
+     * @param scheduleId ID of the schedule.
+     * @param from       Start of the range.
+     * @param to         End of the range (inclusive).
+     * @return The items ordered by start date.
+     */
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleItemDTO("
+            + "i.startDate, i.endDate, i.courseShortcut, i.type) "
+            + "FROM ScheduleEntry e JOIN e.item i "
+            + "WHERE e.schedule.id = :scheduleId AND ("
+            + "(e.startDate >= :from AND e.startDate <= :to) "
+            + "OR (e.startDate < :from AND e.endDate >= :from)) "
+            + "ORDER BY e.startDate")
+    List<ScheduleItemDTO> findItemsInRange(@Param("scheduleId") Long scheduleId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Returns the items of all courses a user teaches, overlapping the given
+     * range. Read from the course schedules with the same index as above.
+     * 
+     * @param teacherId ID of the teacher.
+     * @param from      Start of the range.
+     * @param to        End of the range (inclusive).
+     * @return The items.
+     */
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleItemDTO("
+            + "i.startDate, i.endDate, i.courseShortcut, i.type) "
+            + "FROM Course c JOIN c.teachers t JOIN ScheduleEntry e ON e.schedule = c.schedule JOIN e.item i "
+            + "WHERE t.id = :teacherId AND ("
+            + "(e.startDate >= :from AND e.startDate <= :to) "
+            + "OR (e.startDate < :from AND e.endDate >= :from))")
+    List<ScheduleItemDTO> findTaughtItemsInRange(@Param("teacherId") Long teacherId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Streams the items of a schedule overlapping the given range, filtered.
+     * Same index use as findItemsInRange, for ranges of many weeks. Has to be
+     * consumed (and closed) inside a transaction.
+     * 
+     * @param scheduleId ID of the schedule.
+     * @param from       Start of the range.
+     * @param to         End of the range (inclusive).
+     * @param types      Types of the items.
+     * @param allCourses If the course filter is off.
+     * @param courses    Shortcuts of the courses (not empty).
+     * @return The items ordered by start date.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO("
+            + "i.id, i.startDate, i.endDate, i.courseShortcut, i.type) "
+            + "FROM ScheduleEntry e JOIN e.item i "
+            + "WHERE e.schedule.id = :scheduleId AND ("
+            + "(e.startDate >= :from AND e.startDate <= :to) "
+            + "OR (e.startDate < :from AND e.endDate >= :from)) "
+            + "AND i.type IN :types AND (:allCourses = true OR i.courseShortcut IN :courses) "
+            + "ORDER BY e.startDate")
+    Stream<ScheduleRangeItemDTO> streamItemsInRange(@Param("scheduleId") Long scheduleId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("types") Collection<TermType> types, @Param("allCourses") boolean allCourses,
+            @Param("courses") Collection<String> courses);
+
+    /**
+     * Same as streamItemsInRange, for all courses a user teaches.
+     * 
+     * @param teacherId  ID of the teacher.
+     * @param from       Start of the range.
+     * @param to         End of the range (inclusive).
+     * @param types      Types of the items.
+     * @param allCourses If the course filter is off.
+     * @param courses    Shortcuts of the courses (not empty).
+     * @return The items ordered by start date.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO("
+            + "i.id, i.startDate, i.endDate, i.courseShortcut, i.type) "
+            + "FROM Course c JOIN c.teachers t JOIN ScheduleEntry e ON e.schedule = c.schedule JOIN e.item i "
+            + "WHERE t.id = :teacherId AND ("
+            + "(e.startDate >= :from AND e.startDate <= :to) "
+            + "OR (e.startDate < :from AND e.endDate >= :from)) "
+            + "AND i.type IN :types AND (:allCourses = true OR i.courseShortcut IN :courses) "
+            + "ORDER BY e.startDate")
+    Stream<ScheduleRangeItemDTO> streamTaughtItemsInRange(@Param("teacherId") Long teacherId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("types") Collection<TermType> types, @Param("allCourses") boolean allCourses,
+            @Param("courses") Collection<String> courses);
+
+    /**
+     * Streams the items of a schedule that haven't ended before the given time,
+     * for calendar feeds. Read on the (schedule_id, end_date) index. Has to be
+     * consumed (and closed) inside a transaction.
+     * 
+     * @param scheduleId ID of the schedule.
+     * @param from       Items ending before this are left out.
+     * @return The items, unordered.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO("
+            + "i.id, i.startDate, i.endDate, i.courseShortcut, i.courseName, i.type, t.name, r.shortcut) "
+            + "FROM ScheduleEntry e JOIN e.item i LEFT JOIN i.term t LEFT JOIN t.room r "
+            + "WHERE e.schedule.id = :scheduleId AND e.endDate >= :from")
+    Stream<ScheduleFeedItemDTO> streamFeedItems(@Param("scheduleId") Long scheduleId,
+            @Param("from") LocalDateTime from);
+
+    /**
+     * Same as streamFeedItems, for all courses a user teaches.
+     * 
+     * @param teacherId ID of the teacher.
+     * @param from      Items ending before this are left out.
+     * @return The items, unordered.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO("
+            + "i.id, i.startDate, i.endDate, i.courseShortcut, i.courseName, i.type, t.name, r.shortcut) "
+            + "FROM Course c JOIN c.teachers tc JOIN ScheduleEntry e ON e.schedule = c.schedule JOIN e.item i "
+            + "LEFT JOIN i.term t LEFT JOIN t.room r "
+            + "WHERE tc.id = :teacherId AND e.endDate >= :from")
+    Stream<ScheduleFeedItemDTO> streamTaughtFeedItems(@Param("teacherId") Long teacherId,
+            @Param("from") LocalDateTime from);
+
+    /**
+     * Adds an item to a schedule, nothing happens if it's already there.
+     * 
+     * @param scheduleId ID of the schedule.
+     * @param itemId     ID of the schedule item.
+     * @return 1 if the item was added.
+     */
+    @Modifying
+    // Only the join table changes, the second-level cache stays
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule_schedule_item"))
+    @Query(value = "INSERT INTO schedule_schedule_item (schedule_id, schedule_item_id, start_date, end_date) "
+            + "SELECT :scheduleId, i.id, i.start_date, i.end_date FROM schedule_item i WHERE i.id = :itemId "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addItem(@Param("scheduleId") Long scheduleId, @Param("itemId") Long itemId);
+
+    /**
+     * Adds an item to the schedules of all students registered for its term, in
+     * one statement no matter how many there are.
+     * 
+     * @param itemId ID of the schedule item.
+     * @return Number of added items.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule_schedule_item"))
+    @Query(value = "INSERT INTO schedule_schedule_item (schedule_id, schedule_item_id, start_date, end_date) "
+            + "SELECT u.schedule_id, i.id, i.start_date, i.end_date FROM schedule_item i "
+            + "JOIN student_term st ON st.term_id = i.term_id JOIN users u ON u.id = st.student_id "
+            + "WHERE i.id = :itemId AND u.schedule_id IS NOT NULL "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addItemToRegistered(@Param("itemId") Long itemId);
+
+    /**
+     * Copies all items of one schedule into another one.
+     * 
+     * @param fromScheduleId ID of the source schedule.
+     * @param toScheduleId   ID of the target schedule.
+     * @return Number of added items.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule_schedule_item"))
+    @Query(value = "INSERT INTO schedule_schedule_item (schedule_id, schedule_item_id, start_date, end_date) "
+            + "SELECT :toScheduleId, e.schedule_item_id, e.start_date, e.end_date "
+            + "FROM schedule_schedule_item e WHERE e.schedule_id = :fromScheduleId "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int copyItems(@Param("fromScheduleId") Long fromScheduleId, @Param("toScheduleId") Long toScheduleId);
+
+    /**
+     * Adds the items of all registered terms to the schedules of their
+     * students, for filling user schedules that weren't kept up to date.
+     * 
+     * @return Number of added items.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule_schedule_item"))
+    @Query(value = "INSERT INTO schedule_schedule_item (schedule_id, schedule_item_id, start_date, end_date) "
+            + "SELECT u.schedule_id, i.id, i.start_date, i.end_date FROM student_term st "
+            + "JOIN users u ON u.id = st.student_id JOIN schedule_item i ON i.term_id = st.term_id "
+            + "WHERE u.schedule_id IS NOT NULL "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addAllRegisteredItems();
+
+    /**
+     * Copies the items of all course schedules into the schedules of their
+     * teachers, for filling user schedules that weren't kept up to date.
+     * 
+     * @return Number of added items.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule_schedule_item"))
+    @Query(value = "INSERT INTO schedule_schedule_item (schedule_id, schedule_item_id, start_date, end_date) "
+            + "SELECT u.schedule_id, e.schedule_item_id, e.start_date, e.end_date FROM course c "
+            + "JOIN course_teachers ct ON ct.course_id = c.id JOIN users u ON u.id = ct.teachers_id "
+            + "JOIN schedule_schedule_item e ON e.schedule_id = c.schedule_id "
+            + "WHERE u.schedule_id IS NOT NULL "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addAllTaughtItems();
+
+    /**
+     * Removes the items from user schedules whose user is neither registered
+     * for the term nor teaches the course anymore.
+     * 
+     * @return Number of removed items.
+     */
+    @Modifying
+    @Query("DELETE FROM ScheduleEntry e WHERE e.schedule.id IN (SELECT u.schedule.id FROM Wis2User u) "
+            + "AND NOT EXISTS (SELECT st.id FROM StudentTerm st JOIN st.student s, ScheduleItem i "
+            + "WHERE i.id = e.item.id AND st.term = i.term AND s.schedule.id = e.schedule.id) "
+            + "AND NOT EXISTS (SELECT c.id FROM Course c JOIN c.teachers t, ScheduleItem i "
+            + "WHERE i.id = e.item.id AND c.shortcut = i.courseShortcut AND t.schedule.id = e.schedule.id)")
+    int removeStaleUserItems();
+
+    /**
+     * Removes an item from a schedule.
+     * 
+     * @param scheduleId ID of the schedule.
+     * @param itemId     ID of the schedule item.
+     * @return Number of removed items.
+     */
+    @Modifying
+    @Query("DELETE FROM ScheduleEntry e WHERE e.schedule.id = :scheduleId AND e.item.id = :itemId")
+    int removeItem(@Param("scheduleId") Long scheduleId, @Param("itemId") Long itemId);
+
+    /**
+     * Removes all items of a course from a schedule.
+     * 
+     * @param scheduleId     ID of the schedule.
+     * @param courseShortcut Shortcut of the course.
+     * @return Number of removed items.
+     */
+    @Modifying
+    @Query("DELETE FROM ScheduleEntry e WHERE e.schedule.id = :scheduleId AND e.item.id IN "
+            + "(SELECT i.id FROM ScheduleItem i WHERE i.courseShortcut = :courseShortcut)")
+    int removeCourseItems(@Param("scheduleId") Long scheduleId, @Param("courseShortcut") String courseShortcut);
+}
@@ -1,12 +1,27 @@
 package IIS.wis2_backend.Repositories.Education.Schedule;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleItemDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO;
+import IIS.wis2_backend.Enum.TermType;
 import IIS.wis2_backend.Models.ScheduleItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository for schedule items.
  */
@@ -16,4 +31,61 @@ public interface ScheduleItemRepository
     
     Optional<ScheduleItem> findByTerm_Id(Long termId);
 
+    /**
+     * Returns the items of the terms a student is registered for, overlapping
+     * the given range.
+     * 
+     * @param studentId ID of the student.
+     * @param from      Start of the range.
+     * @param to        End of the range (inclusive).
+     * @return The items.
+     */
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleItemDTO("
+            + "i.startDate, i.endDate, i.courseShortcut, i.type) "
+            + "FROM StudentTerm st JOIN ScheduleItem i ON i.term = st.term "
+            + "WHERE st.student.id = :studentId AND i.startDate <= :to AND i.endDate >= :from")
+    List<ScheduleItemDTO> findRegisteredItemsInRange(@Param("studentId") Long studentId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Streams the items of the terms a student is registered for that haven't
+     * ended before the given time, for calendar feeds. Has to be consumed (and
+     * closed) inside a transaction.
+     * 
+     * @param studentId ID of the student.
+     * @param from      Items ending before this are left out.
+     * @return The items, unordered.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO("
+            + "i.id, i.startDate, i.endDate, i.courseShortcut, i.courseName, i.type, t.name, r.shortcut) "
+            + "FROM StudentTerm st JOIN st.term t JOIN ScheduleItem i ON i.term = t LEFT JOIN t.room r "
+            + "WHERE st.student.id = :studentId AND i.endDate >= :from")
+    Stream<ScheduleFeedItemDTO> streamRegisteredFeedItems(@Param("studentId") Long studentId,
+            @Param("from") LocalDateTime from);
+
+    /**
+     * Streams the items of the terms a student is registered for overlapping
+     * the given range, filtered and ordered. Has to be consumed (and closed)
+     * inside a transaction.
+     * 
+     * @param studentId  ID of the student.
+     * @param from       Start of the range.
+     * @param to         End of the range (inclusive).
+     * @param types      Types of the items.
+     * @param allCourses If the course filter is off.
+     * @param courses    Shortcuts of the courses (not empty).
+     * @return The items ordered by start date.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO("
+            + "i.id, i.startDate, i.endDate, i.courseShortcut, i.type) "
+            + "FROM StudentTerm st JOIN ScheduleItem i ON i.term = st.term "
+            + "WHERE st.student.id = :studentId AND i.startDate <= :to AND i.endDate >= :from "
+            + "AND i.type IN :types AND (:allCourses = true OR i.courseShortcut IN :courses) "
+            + "ORDER BY i.startDate")
+    Stream<ScheduleRangeItemDTO> streamRegisteredItemsInRange(@Param("studentId") Long studentId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("types") Collection<TermType> types, @Param("allCourses") boolean allCourses,
+            @Param("courses") Collection<String> courses);
 }
@@ -3,6 +3,8 @@ package IIS.wis2_backend.Repositories.Education.Schedule;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import IIS.wis2_backend.Models.Schedule;
@@ -27,4 +29,22 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
      * @return An optional user.
      */
     Optional<Schedule> findByUser_Username(String username);
-}
\ No newline at end of file
+
+    /**
+     * Returns the ID of the schedule of the course with this shortcut.
+     * 
+     * @param shortcut The shortcut of the course.
+     * @return An optional schedule ID.
+     */
+    @Query("SELECT c.schedule.id FROM Course c WHERE c.shortcut = :shortcut")
+    Optional<Long> findIdByCourseShortcut(@Param("shortcut") String shortcut);
+
+    /**
+     * Returns the ID of the schedule of the user with this username.
+     * 
+     * @param username The username of the user.
+     * @return An optional schedule ID.
+     */
+    @Query("SELECT u.schedule.id FROM Wis2User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+}
@@ -1,9 +1,12 @@
 package IIS.wis2_backend.Repositories.Education.Term;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import IIS.wis2_backend.DTO.Response.Projections.GradebookTermProjection;
 import IIS.wis2_backend.Models.Term.Term;
 
 /**
@@ -18,4 +21,13 @@ public interface TermRepository extends JpaRepository<Term, Long> {
      */
     @Query("SELECT t.room.capacity FROM Term t WHERE t.id = :id")
     Integer getTermCapacityById(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Gets the gradebook columns (terms) of a course in chronological order.
+     * 
+     * @param courseId the ID of the course
+     */
+    @Query("SELECT t.id AS id, t.name AS name, t.maxPoints AS maxPoints FROM Term t "
+            + "WHERE t.course.id = :courseId ORDER BY t.date, t.id")
+    List<GradebookTermProjection> findGradebookTerms(Long courseId);
+}
@@ -1,13 +1,18 @@
 package IIS.wis2_backend.Repositories.Relational;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.jdbc.repository.query.Modifying;
-import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import IIS.wis2_backend.DTO.Response.Projections.GradebookStudentProjection;
+import IIS.wis2_backend.DTO.Response.Projections.PointsMismatchProjection;
 import IIS.wis2_backend.Enum.RequestStatus;
 import IIS.wis2_backend.Models.Relational.StudentCourse;
 
@@ -32,4 +37,66 @@ public interface StudentCourseRepository extends JpaRepository<StudentCourse, Lo
      * Fetches all StudentCourse entries for a given course ID.
      */
     List<StudentCourse> findAllByCourseId(Long courseId);
-}
\ No newline at end of file
+
+    /**
+     * Fetches the oldest StudentCourse entry of a course with the given status
+     * (head of the waitlist).
+     */
+    Optional<StudentCourse> findFirstByCourseIdAndStatusOrderByRequestedAtAscIdAsc(Long courseId,
+            RequestStatus status);
+
+    /**
+     * Returns true if a course has a StudentCourse entry with the given status.
+     */
+    boolean existsByCourseIdAndStatus(Long courseId, RequestStatus status);
+
+    /**
+     * Counts StudentCourse entries of a course with the given status.
+     */
+    long countByCourseIdAndStatus(Long courseId, RequestStatus status);
+
+    /**
+     * Counts StudentCourse entries of a course with the given status requested
+     * before the given entry (position in the waitlist).
+     */
+    @Query("SELECT COUNT(sc) FROM StudentCourse sc WHERE sc.course.id = :courseId AND sc.status = :status "
+            + "AND (sc.requestedAt < :requestedAt OR (sc.requestedAt = :requestedAt AND sc.id < :id))")
+    long countQueuedBefore(@Param("courseId") Long courseId, @Param("status") RequestStatus status,
+            @Param("requestedAt") LocalDateTime requestedAt, @Param("id") Long id);
+
+    /**
+     * Fetches the StudentCourse entry of a student in a course.
+     */
+    Optional<StudentCourse> findByCourseIdAndStudentId(Long courseId, Long studentId);
+
+    /**
+     * Finds all StudentCourse entries whose stored points differ from the sum of
+     * the student's term points in the course.
+     * 
+     * @return List of mismatching entries with the stored and actual totals.
+     */
+    @Query("SELECT sc.id AS id, sc.points AS storedPoints, "
+            + "COALESCE((SELECT SUM(st.points) FROM StudentTerm st "
+            + "WHERE st.student = sc.student AND st.term.course = sc.course), 0) AS actualPoints "
+            + "FROM StudentCourse sc WHERE sc.points <> "
+            + "COALESCE((SELECT SUM(st2.points) FROM StudentTerm st2 "
+            + "WHERE st2.student = sc.student AND st2.term.course = sc.course), 0)")
+    List<PointsMismatchProjection> findPointsMismatches();
+
+    /**
+     * Fetches a page of gradebook rows (approved enrollments with the student's
+     * name) for a course, ordered by the student's last name.
+     * 
+     * @param courseId ID of the course.
+     * @param pageable Page request.
+     * @return Page of gradebook rows.
+     */
+    @Query(value = "SELECT s.id AS studentId, s.username AS username, s.firstName AS firstName, "
+            + "s.lastName AS lastName, sc.points AS points, sc.unitCredit AS unitCredit, "
+            + "sc.examPassed AS examPassed, sc.finalGrade AS finalGrade, sc.completed AS completed "
+            + "FROM StudentCourse sc JOIN sc.student s "
+            + "WHERE sc.course.id = :courseId AND sc.status = 'APPROVED' "
+            + "ORDER BY s.lastName, s.firstName, s.id", countQuery = "SELECT COUNT(sc) FROM StudentCourse sc "
+                    + "WHERE sc.course.id = :courseId AND sc.status = 'APPROVED'")
+    Page<GradebookStudentProjection> findGradebookRows(@Param("courseId") Long courseId, Pageable pageable);
+}
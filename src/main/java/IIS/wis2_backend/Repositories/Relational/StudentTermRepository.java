@@ -1,13 +1,18 @@
 package IIS.wis2_backend.Repositories.Relational;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import IIS.wis2_backend.DTO.Response.Projections.GradebookPointsProjection;
+import IIS.wis2_backend.DTO.Response.Projections.TermRegistrationProjection;
 import IIS.wis2_backend.Models.Relational.StudentTerm;
 
 @Repository
@@ -25,4 +30,34 @@ public interface StudentTermRepository extends JpaRepository<StudentTerm, Long>
      * @param termId the ID of the term
      */
     long countByTermId(Long termId);
+
+    /**
+     * Returns the term registrations (with points) of the given students in all
+     * terms of a course, as flat student x term x points rows.
+     * 
+     * @param courseId   the ID of the course
+     * @param studentIds the IDs of the students
+     */
+    @Query("SELECT st.student.id AS studentId, st.term.id AS termId, st.points AS points "
+            + "FROM StudentTerm st WHERE st.term.course.id = :courseId AND st.student.id IN :studentIds")
+    List<GradebookPointsProjection> findGradebookPoints(@Param("courseId") Long courseId,
+            @Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * Same as findGradebookPoints, but for all students of the course.
+     * 
+     * @param courseId the ID of the course
+     */
+    @Query("SELECT st.student.id AS studentId, st.term.id AS termId, st.points AS points "
+            + "FROM StudentTerm st WHERE st.term.course.id = :courseId")
+    List<GradebookPointsProjection> findGradebookPointsByCourse(@Param("courseId") Long courseId);
+
+    /**
+     * Returns all registrations for a term with their points and version.
+     * 
+     * @param termId the ID of the term
+     */
+    @Query("SELECT st.student.id AS studentId, st.points AS points, st.version AS version "
+            + "FROM StudentTerm st WHERE st.term.id = :termId")
+    List<TermRegistrationProjection> findRegistrationsByTermId(@Param("termId") Long termId);
 }
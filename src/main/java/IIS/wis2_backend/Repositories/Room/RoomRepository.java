@@ -1,22 +1,13 @@
 package IIS.wis2_backend.Repositories.Room;
 
-import java.util.Optional;
-
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import IIS.wis2_backend.Models.Room.Room;
 
 /**
- * Repository for rooms.
+ * Repository for rooms. The lookup by shortcut is in RoomRepositoryCustom.
  */
 @Repository
-public interface RoomRepository extends JpaRepository<Room, Long> {
-    /**
-     * Find a room by its shortcut.
-     * 
-     * @param shortcut the shortcut of the room
-     * @return an Optional containing the room if found, or empty if not found
-     */
-    Optional<Room> findByShortcut(String shortcut);
+public interface RoomRepository extends JpaRepository<Room, Long>, RoomRepositoryCustom {
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package IIS.wis2_backend.Repositories.Room;
+
+import java.util.Optional;
+
+import IIS.wis2_backend.Models.Room.Room;
+
+/**
+ * Room lookups implemented by hand instead of derived queries.
+ */
+public interface RoomRepositoryCustom {
+    /**
+     * Find a room by its shortcut. Goes through the natural id and second-level
+     * caches, so repeated lookups don't hit the database.
+     * 
+     * @param shortcut the shortcut of the room
+     * @return an Optional containing the room if found, or empty if not found
+     */
+    Optional<Room> findByShortcut(String shortcut);
+}
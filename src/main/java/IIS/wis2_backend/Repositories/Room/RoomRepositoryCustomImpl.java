@@ -0,0 +1,27 @@
+package IIS.wis2_backend.Repositories.Room;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+
+import IIS.wis2_backend.Models.Room.Room;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of the hand-written room lookups.
+ */
+public class RoomRepositoryCustomImpl implements RoomRepositoryCustom {
+    /**
+     * Entity manager of the current transaction.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Room> findByShortcut(String shortcut) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Room.class)
+                .loadOptional(shortcut);
+    }
+}
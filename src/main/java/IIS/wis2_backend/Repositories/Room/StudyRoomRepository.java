@@ -2,7 +2,6 @@ package IIS.wis2_backend.Repositories.Room;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,7 +15,7 @@ import IIS.wis2_backend.Models.Room.StudyRoom;
  * Repository for study room CRUD operations.
  */
 @Repository
-public interface StudyRoomRepository extends JpaRepository<StudyRoom, Long> {
+public interface StudyRoomRepository extends JpaRepository<StudyRoom, Long>, StudyRoomRepositoryCustom {
 	/**
 	 * Finds available rooms for the given interval.
 	 * 
@@ -33,8 +32,6 @@ public interface StudyRoomRepository extends JpaRepository<StudyRoom, Long> {
 
 	List<StudyRoom> findByShortcut(String shortcut);
 
-	Optional<StudyRoom> findMaybeByShortcut(String shortcut);
-
 	@Query("SELECT CASE WHEN COUNT(r) = 0 THEN TRUE ELSE FALSE END " +
 			"FROM StudyRoom r " +
 			"WHERE r.shortcut = :shortcut AND r.id IN ( " +
@@ -0,0 +1,19 @@
+package IIS.wis2_backend.Repositories.Room;
+
+import java.util.Optional;
+
+import IIS.wis2_backend.Models.Room.StudyRoom;
+
+/**
+ * Study room lookups implemented by hand instead of derived queries.
+ */
+public interface StudyRoomRepositoryCustom {
+    /**
+     * Finds a study room by its shortcut. Goes through the natural id and
+     * second-level caches of rooms.
+     * 
+     * @param shortcut the shortcut of the room
+     * @return the study room, empty if missing or if the room is not a study room
+     */
+    Optional<StudyRoom> findMaybeByShortcut(String shortcut);
+}
@@ -0,0 +1,34 @@
+package IIS.wis2_backend.Repositories.Room;
+
+import java.util.Optional;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+
+import IIS.wis2_backend.Models.Room.Room;
+import IIS.wis2_backend.Models.Room.StudyRoom;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of the hand-written study room lookups.
+ */
+public class StudyRoomRepositoryCustomImpl implements StudyRoomRepositoryCustom {
+    /**
+     * Entity manager of the current transaction.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<StudyRoom> findMaybeByShortcut(String shortcut) {
+        // The natural id is defined on the root of the room hierarchy, a lazy
+        // proxy of the root has to be unwrapped to see the subclass
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Room.class)
+                .loadOptional(shortcut)
+                .map(Hibernate::unproxy)
+                .filter(StudyRoom.class::isInstance)
+                .map(StudyRoom.class::cast);
+    }
+}
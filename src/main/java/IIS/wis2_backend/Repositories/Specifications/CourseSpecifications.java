@@ -0,0 +1,131 @@
+package IIS.wis2_backend.Repositories.Specifications;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import IIS.wis2_backend.DTO.Request.ModelAttributes.CourseFilter;
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Models.Course;
+import jakarta.persistence.criteria.CriteriaBuilder;
+
+/**
+ * Specifications used to translate a CourseFilter into a database-side query.
+ */
+public final class CourseSpecifications {
+    /**
+     * Utility class, no instances.
+     */
+    private CourseSpecifications() {
+    }
+
+    /**
+     * Builds the full specification for the public course catalog.
+     * 
+     * @param filter    Course filter attributes.
+     * @param minPrice  Lower price bound (inclusive).
+     * @param maxPrice  Upper price bound (inclusive).
+     * @param searchIds IDs of courses matching the search query, or null if
+     *                  there is no query.
+     * @return Specification matching approved courses that pass the filter.
+     */
+    public static Specification<Course> FromFilter(CourseFilter filter, double minPrice, double maxPrice,
+            Collection<Long> searchIds) {
+        return Specification.where(HasStatus(RequestStatus.APPROVED))
+                .and(IdIn(searchIds))
+                .and(PriceBetween(minPrice, maxPrice))
+                .and(EndsBy(filter));
+    }
+
+    /**
+     * Course has the given status.
+     * 
+     * @param status Status of the course.
+     */
+    public static Specification<Course> HasStatus(RequestStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Course ID is one of the given IDs (e.g. search index hits). Matches
+     * everything if no IDs are given.
+     * 
+     * @param ids Allowed course IDs, or null for no restriction.
+     */
+    public static Specification<Course> IdIn(Collection<Long> ids) {
+        if (ids == null) {
+            return null;
+        }
+
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Orders courses by their position in the given IDs (e.g. search relevance).
+     * Use it with an unsorted pageable, a sort of the pageable replaces it.
+     * 
+     * @param ids Course IDs in the wanted order.
+     */
+    public static Specification<Course> OrderedBy(List<Long> ids) {
+        return (root, query, cb) -> {
+            // The count query of a page has no order
+            if (!Long.class.equals(query.getResultType())) {
+                CriteriaBuilder.SimpleCase<Long, Integer> position = cb.selectCase(root.<Long>get("id"));
+                for (int i = 0; i < ids.size(); i++) {
+                    position.when(ids.get(i), i);
+                }
+                query.orderBy(cb.asc(position.otherwise(ids.size())), cb.asc(root.get("id")));
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Course price is in the given (inclusive) range.
+     * 
+     * @param minPrice Lower bound.
+     * @param maxPrice Upper bound.
+     */
+    public static Specification<Course> PriceBetween(double minPrice, double maxPrice) {
+        return (root, query, cb) -> cb.between(root.get("price"), minPrice, maxPrice);
+    }
+
+    /**
+     * Course end type filter. Matches everything if no single end type is
+     * selected.
+     * 
+     * @param filter Course filter attributes.
+     */
+    public static Specification<Course> EndsBy(CourseFilter filter) {
+        CourseEndType endType = SelectedEndType(filter);
+        if (endType == null) {
+            return null;
+        }
+
+        return (root, query, cb) -> cb.equal(root.get("completedBy"), endType);
+    }
+
+    /**
+     * Resolves the end type flags of the filter. Mirrors the precedence of the
+     * flags in CourseFilter: "both" shows everything, otherwise the first set
+     * flag wins.
+     * 
+     * @param filter Course filter attributes.
+     * @return The selected end type, or null for no restriction.
+     */
+    public static CourseEndType SelectedEndType(CourseFilter filter) {
+        if (filter.isEndedByBoth()) {
+            return null;
+        } else if (filter.isEndedByExam()) {
+            return CourseEndType.EXAM;
+        } else if (filter.isEndedByGradedUnitCredit()) {
+            return CourseEndType.GRADED_UNIT_CREDIT;
+        } else if (filter.isEndedByUnitCredit()) {
+            return CourseEndType.UNIT_CREDIT;
+        }
+
+        return null;
+    }
+}
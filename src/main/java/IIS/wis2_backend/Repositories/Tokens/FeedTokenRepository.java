@@ -0,0 +1,22 @@
+package IIS.wis2_backend.Repositories.Tokens;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import IIS.wis2_backend.Models.Tokens.FeedToken;
+
+/**
+ * Repository for calendar feed tokens.
+ */
+@Repository
+public interface FeedTokenRepository extends JpaRepository<FeedToken, Long>, FeedTokenRepositoryCustom {
+    /**
+     * Finds the feed token of a user.
+     * 
+     * @param userId The ID of the user.
+     * @return The user's FeedToken, or empty if they have none.
+     */
+    Optional<FeedToken> findByUser_Id(Long userId);
+}
@@ -0,0 +1,19 @@
+package IIS.wis2_backend.Repositories.Tokens;
+
+import java.util.Optional;
+
+import IIS.wis2_backend.Models.Tokens.FeedToken;
+
+/**
+ * Feed token lookups implemented by hand instead of derived queries.
+ */
+public interface FeedTokenRepositoryCustom {
+    /**
+     * Finds a feed token by its hash. Goes through the natural id and
+     * second-level caches, so a polled feed doesn't hit the database.
+     * 
+     * @param tokenHash The hash of the token.
+     * @return Optional containing the FeedToken, or empty if not found.
+     */
+    Optional<FeedToken> findByTokenHash(String tokenHash);
+}
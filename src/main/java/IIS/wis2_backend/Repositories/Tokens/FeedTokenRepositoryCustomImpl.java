@@ -0,0 +1,27 @@
+package IIS.wis2_backend.Repositories.Tokens;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+
+import IIS.wis2_backend.Models.Tokens.FeedToken;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of the hand-written feed token lookups.
+ */
+public class FeedTokenRepositoryCustomImpl implements FeedTokenRepositoryCustom {
+    /**
+     * Entity manager of the current transaction.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<FeedToken> findByTokenHash(String tokenHash) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(FeedToken.class)
+                .loadOptional(tokenHash);
+    }
+}
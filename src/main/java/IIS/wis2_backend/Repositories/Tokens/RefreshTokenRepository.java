@@ -1,8 +1,5 @@
 package IIS.wis2_backend.Repositories.Tokens;
 
-import java.time.Instant;
-import java.util.Optional;
-
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -17,19 +14,12 @@ import IIS.wis2_backend.Models.Tokens.RefreshToken;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     /**
-     * Finds a refresh token by its token string.
-     * 
-     * @param token The token string.
-     * @return The refresh token if found, otherwise null.
-     */
-    Optional<RefreshToken> findByToken(String token);
-
-    /**
-     * Deletes all expired refresh tokens before the given instant.
+     * Deletes the refresh token with the given hash.
      * 
-     * @param now The instant to compare expiration against.
+     * @param tokenHash The hash of the token.
+     * @return The number of deleted tokens.
      */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
-    void deleteAllExpiredTokens(@Param("now") Instant now);
-}
\ No newline at end of file
+    @Query("DELETE FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+}
@@ -0,0 +1,23 @@
+package IIS.wis2_backend.Repositories.Tokens;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import IIS.wis2_backend.Models.Tokens.RevokedUser;
+
+/**
+ * Repository for the tombstones of deleted users.
+ */
+@Repository
+public interface RevokedUserRepository extends JpaRepository<RevokedUser, Long> {
+    /**
+     * Finds the tombstones whose tokens haven't expired yet.
+     * 
+     * @param now The current time.
+     * @return The tombstones.
+     */
+    List<RevokedUser> findByExpiresAtAfter(Instant now);
+}
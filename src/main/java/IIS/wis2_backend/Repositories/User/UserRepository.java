@@ -1,12 +1,16 @@
 package IIS.wis2_backend.Repositories.User;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import IIS.wis2_backend.DTO.Response.Projections.TokenEpochProjection;
 import IIS.wis2_backend.Enum.RequestStatus;
 import IIS.wis2_backend.Enum.Roles;
 import IIS.wis2_backend.Models.User.Wis2User;
@@ -15,7 +19,7 @@ import IIS.wis2_backend.Models.User.Wis2User;
  * Repository for shared user CRUD operations.
  */
 @Repository
-public interface UserRepository extends JpaRepository<Wis2User, Long> {
+public interface UserRepository extends JpaRepository<Wis2User, Long>, UserRepositoryCustom {
     /**
      * Finds users by name containing the given string.
      * 
@@ -56,14 +60,6 @@ public interface UserRepository extends JpaRepository<Wis2User, Long> {
      */
     boolean existsByTelephoneNumber(String telephoneNumber);
 
-    /**
-     * Finds a user by username.
-     * 
-     * @param username Username to search for.
-     * @return Optional containing the Wis2User with the given username, or empty if not found.
-     */
-    Optional<Wis2User> findByUsername(String username);
-
     /**
      * Finds a user by email.
      * 
@@ -82,12 +78,14 @@ public interface UserRepository extends JpaRepository<Wis2User, Long> {
     Set<Wis2User> findByStudentCourses_Course_IdAndStudentCourses_Status(Long courseId, RequestStatus status);
 
     /**
-     * Finds all student registered for a given term by using StudentTerm relationship.
+     * Finds usernames of all students registered for a given term by using
+     * StudentTerm relationship.
      * 
      * @param termId the ID of the term
-     * @return list of students registered for the term
+     * @return usernames of the students registered for the term
      */
-    Set<Wis2User> findByStudentTerms_Term_Id(Long termId);
+    @Query("SELECT st.student.username FROM StudentTerm st WHERE st.term.id = :termId")
+    List<String> findRegisteredUsernamesByTermId(@Param("termId") Long termId);
 
     /**
      * Finds all users currently assigned to the given office.
@@ -148,4 +146,13 @@ public interface UserRepository extends JpaRepository<Wis2User, Long> {
      * @return list of matching users without offices
      */
     List<Wis2User> findAllByRoleAndOfficeIsNull(Roles role);
-}
\ No newline at end of file
+
+    /**
+     * Returns the token epochs of users whose tokens were revoked since the
+     * given time.
+     *
+     * @param since lower bound (exclusive)
+     * @return list of ids, epochs and when they changed
+     */
+    List<TokenEpochProjection> findByTokenEpochChangedAtAfter(Instant since);
+}
@@ -0,0 +1,19 @@
+package IIS.wis2_backend.Repositories.User;
+
+import java.util.Optional;
+
+import IIS.wis2_backend.Models.User.Wis2User;
+
+/**
+ * User lookups implemented by hand instead of derived queries.
+ */
+public interface UserRepositoryCustom {
+    /**
+     * Finds a user by username. Goes through the natural id and second-level
+     * caches, so repeated lookups don't hit the database.
+     * 
+     * @param username Username to search for.
+     * @return Optional containing the Wis2User with the given username, or empty if not found.
+     */
+    Optional<Wis2User> findByUsername(String username);
+}
@@ -0,0 +1,27 @@
+package IIS.wis2_backend.Repositories.User;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+
+import IIS.wis2_backend.Models.User.Wis2User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of the hand-written user lookups.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    /**
+     * Entity manager of the current transaction.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Wis2User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Wis2User.class)
+                .loadOptional(username);
+    }
+}
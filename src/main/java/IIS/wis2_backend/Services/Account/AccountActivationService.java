@@ -12,6 +12,7 @@ import IIS.wis2_backend.Models.User.Wis2User;
 import IIS.wis2_backend.Repositories.Tokens.LinkTokenRepository;
 import IIS.wis2_backend.Repositories.User.UserRepository;
 import IIS.wis2_backend.Utils.LinkTokenUtils;
+import IIS.wis2_backend.Services.Cache.PrincipalCache;
 
 import java.time.Instant;
 
@@ -49,16 +50,22 @@ public class AccountActivationService {
      */
     private final MailService mailService;
 
+    /**
+     * Cached principals, evicted on activation.
+     */
+    private final PrincipalCache principalCache;
+
     /**
      * Constructor for AccountActivationService.
      * 
      * @param activationTokenRepository Repository for activation tokens.
      */
     public AccountActivationService(LinkTokenRepository activationTokenRepository,
-            UserRepository userRepository, MailService mailService) {
+            UserRepository userRepository, MailService mailService, PrincipalCache principalCache) {
         this.activationTokenRepository = activationTokenRepository;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -91,6 +98,7 @@ public class AccountActivationService {
 
         user.setActivated(true);
         userRepository.save(user);
+        principalCache.Evict(user.getUsername());
 
         // Delete the token
         activationTokenRepository.delete(activationToken);
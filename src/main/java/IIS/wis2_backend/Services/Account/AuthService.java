@@ -1,28 +1,38 @@
 package IIS.wis2_backend.Services.Account;
 
+import java.sql.Timestamp;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.util.Pair;
 import org.springframework.http.ResponseCookie;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
 import IIS.wis2_backend.DTO.Request.Auth.LoginDTO;
 import IIS.wis2_backend.DTO.Request.Auth.RegisterDTO;
+import IIS.wis2_backend.DTO.Response.Auth.SuccesfulLoginDTO;
 import IIS.wis2_backend.DTO.Response.User.RegisterResponseDTO;
 import IIS.wis2_backend.DTO.Response.User.UserDTO;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.UnauthorizedException;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.UserAlreadyExistsException;
 import IIS.wis2_backend.Models.Tokens.RefreshToken;
+import IIS.wis2_backend.Models.User.Wis2User;
 import IIS.wis2_backend.Repositories.Tokens.RefreshTokenRepository;
 import IIS.wis2_backend.Repositories.User.UserRepository;
 import IIS.wis2_backend.Services.UserService;
 import IIS.wis2_backend.Utils.JWTUtils;
+import IIS.wis2_backend.Utils.LinkTokenUtils;
 import jakarta.transaction.Transactional;
 
 /**
@@ -31,6 +41,22 @@ import jakarta.transaction.Transactional;
 @Service
 @Transactional
 public class AuthService {
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+    /**
+     * Rotates a valid refresh token in one statement, the old hash is kept to
+     * detect reuse.
+     */
+    private static final String ROTATE_SQL = "UPDATE refresh_token SET previous_hash = token_hash, "
+            + "token_hash = :newHash, expiry_date = :expiryDate, rotated_at = :now "
+            + "WHERE token_hash = :tokenHash AND expiry_date > :now RETURNING user_id";
+
+    /**
+     * Deletes the family of a token presented again after it was rotated.
+     */
+    private static final String REVOKE_REUSED_SQL = "DELETE FROM refresh_token "
+            + "WHERE previous_hash = :tokenHash AND rotated_at < :graceLimit RETURNING user_id";
+
     /**
      * User repository to create users, get user details, etc.
      */
@@ -66,6 +92,23 @@ public class AuthService {
      */
     private final AccountActivationService accountActivationService;
 
+    /**
+     * JDBC template for token rotation.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Revokes access tokens when a refresh token is reused.
+     */
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * Time after a rotation in which the old token is rejected without
+     * treating it as reuse, in milliseconds.
+     */
+    @Value("${refresh.reuse-grace-ms}")
+    private long reuseGraceMs;
+
     /**
      * Refresh token expiration time in milliseconds.
      */
@@ -90,10 +133,13 @@ public class AuthService {
      * @param accountActivationService Service to handle account activations on
      *                                 registration.
      * @param refreshTokenRepository   Refresh token repository.
+     * @param jdbcTemplate             JDBC template for token rotation.
+     * @param tokenRevocationService   Service to revoke access tokens.
      */
     public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager, JWTUtils jwtUtils, UserService userService,
-            AccountActivationService accountActivationService, RefreshTokenRepository refreshTokenRepository) {
+            AccountActivationService accountActivationService, RefreshTokenRepository refreshTokenRepository,
+            NamedParameterJdbcTemplate jdbcTemplate, TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
@@ -101,6 +147,8 @@ public class AuthService {
         this.userService = userService;
         this.accountActivationService = accountActivationService;
         this.refreshTokenRepository = refreshTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -130,17 +178,30 @@ public class AuthService {
                 .build();
     }
 
+    /**
+     * Result of a successful login.
+     * 
+     * @param jwtCookie     Cookie with the JWT token.
+     * @param refreshCookie Cookie with the refresh token.
+     * @param user          ID, username and role of the user.
+     */
+    public record LoginResult(ResponseCookie jwtCookie, ResponseCookie refreshCookie, SuccesfulLoginDTO user) {
+    }
+
     /**
      * Tries to log in a user.
      * 
      * @param loginDTO DTO containing the login details.
-     * @return JWT token if login is successful.
+     * @return The cookies and the logged in user if login is successful.
      */
-    public Pair<ResponseCookie, ResponseCookie> LoginUser(LoginDTO loginDTO) {
-        authenticationManager
+    public LoginResult LoginUser(LoginDTO loginDTO) {
+        Authentication authentication = authenticationManager
                 .authenticate(new UsernamePasswordAuthenticationToken(loginDTO.getUsername(), loginDTO.getPassword()));
-        String jwt = jwtUtils.generateToken(loginDTO.getUsername());
-        String refreshToken = GenerateRefreshToken(loginDTO.getUsername());
+
+        // The principal already has everything the token and the response need
+        Wis2Principal principal = (Wis2Principal) authentication.getPrincipal();
+        String jwt = jwtUtils.generateToken(principal);
+        String refreshToken = GenerateRefreshToken(principal.getId());
 
         // Make cookies (also known as baking)
         ResponseCookie jwtCookie = ResponseCookie.from("JWT", jwt)
@@ -159,20 +220,8 @@ public class AuthService {
                 .maxAge(refreshExpirationMs / 1000)
                 .build();
 
-        return Pair.of(jwtCookie, refreshCookie);
-    }
-
-    /**
-     * Returns a user's role.
-     * 
-     * @param username the username of the user.
-     * @return the role of the user.
-     */
-    public String GetUserRole(String username) {
-        return userRepository.findByUsername(username)
-                .map(user -> user.getRole().name())
-                // This shouldn't happen since it's after authentication
-                .orElseThrow(() -> new NotFoundException("This user doesn't exist!"));
+        return new LoginResult(jwtCookie, refreshCookie,
+                new SuccesfulLoginDTO(principal.getId(), principal.getUsername(), principal.getRole().name()));
     }
 
     /**
@@ -181,22 +230,36 @@ public class AuthService {
      * @param refreshToken The refresh token.
      * @return A pair of (new JWT token cookie, new refresh token cookie).
      */
+    @Transactional(dontRollbackOn = UnauthorizedException.class)
     public Pair<ResponseCookie, ResponseCookie> RefreshJWTToken(String refreshToken) {
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
-                .orElseThrow(() -> new NotFoundException("Refresh token not found"));
-
-        if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
-            throw new IllegalArgumentException("Refresh token has expired.");
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new NotFoundException("Refresh token not found");
         }
 
-        String username = token.getUser().getUsername();
+        String tokenHash = LinkTokenUtils.HashToken(refreshToken);
+        String newRefreshToken = LinkTokenUtils.GenerateLinkToken();
+        Instant now = Instant.now();
+
+        // Rotate in place, only a valid token matches
+        List<Long> rotated = jdbcTemplate.queryForList(ROTATE_SQL, new MapSqlParameterSource()
+                .addValue("tokenHash", tokenHash)
+                .addValue("newHash", LinkTokenUtils.HashToken(newRefreshToken))
+                .addValue("expiryDate", Timestamp.from(now.plusMillis(refreshExpirationMs)))
+                .addValue("now", Timestamp.from(now)), Long.class);
 
-        // Rotate tokens
-        refreshTokenRepository.delete(token);
+        if (rotated.isEmpty()) {
+            RevokeReusedFamily(tokenHash, now);
+            throw new NotFoundException("Refresh token not found or expired");
+        }
+
+        Wis2User user = userRepository.findById(rotated.get(0))
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        if (!user.isActivated()) {
+            throw new UnauthorizedException("This account is deactivated.");
+        }
 
-        String newJwtToken = jwtUtils.generateToken(username);
-        String newRefreshToken = GenerateRefreshToken(username);
+        String newJwtToken = jwtUtils.generateToken(new Wis2Principal(user.getId(), user.getUsername(), "",
+                user.getRole(), user.isActivated(), user.getTokenEpoch()));
 
         ResponseCookie jwtCookie = ResponseCookie.from("JWT", newJwtToken)
                 .httpOnly(true)
@@ -225,32 +288,53 @@ public class AuthService {
             return;
         }
 
-        refreshTokenRepository.findByToken(refreshToken).ifPresent(refreshTokenRepository::delete);
+        refreshTokenRepository.deleteByTokenHash(LinkTokenUtils.HashToken(refreshToken));
+    }
+
+    /**
+     * Checks if the given token was already rotated. Presenting it again means
+     * it leaked, so the whole family and the user's access tokens are revoked.
+     * Within the grace period it's most likely two tabs refreshing at once, so
+     * it's only rejected.
+     * 
+     * @param tokenHash The hash of the presented token.
+     * @param now       The current time.
+     * @throws UnauthorizedException if reuse was detected.
+     */
+    private void RevokeReusedFamily(String tokenHash, Instant now) {
+        List<Long> revoked = jdbcTemplate.queryForList(REVOKE_REUSED_SQL, new MapSqlParameterSource()
+                .addValue("tokenHash", tokenHash)
+                .addValue("graceLimit", Timestamp.from(now.minusMillis(reuseGraceMs))), Long.class);
+
+        if (revoked.isEmpty()) {
+            return;
+        }
+
+        Wis2User user = userRepository.findById(revoked.get(0)).orElse(null);
+        if (user != null) {
+            tokenRevocationService.RevokeTokens(user);
+            userRepository.save(user);
+            log.warn("Refresh token reuse detected for user {}, all their tokens were revoked", user.getUsername());
+        }
+
+        throw new UnauthorizedException("Refresh token was already used.");
     }
 
     /**
      * Generates a new refresh token for a user.
      * 
-     * @param username The username of the user.
-     * @return The generated refresh token.
+     * @param userId The ID of the user.
+     * @return The generated refresh token, only its hash is stored.
      */
-    private String GenerateRefreshToken(String username) {
+    private String GenerateRefreshToken(Long userId) {
+        String token = LinkTokenUtils.GenerateLinkToken();
         RefreshToken refreshToken = RefreshToken.builder()
-                .user(userRepository.findByUsername(username).orElseThrow(
-                        () -> new NotFoundException("User not found for refresh token generation")))
+                .user(userRepository.getReferenceById(userId))
                 .expiryDate(Instant.now().plusMillis(refreshExpirationMs))
-                .token(UUID.randomUUID().toString())
+                .tokenHash(LinkTokenUtils.HashToken(token))
                 .build();
 
         refreshTokenRepository.save(refreshToken);
-        return refreshToken.getToken();
-    }
-
-    /**
-     * Deletes all expired refresh tokens each midnight.
-     */
-    @Scheduled(cron = "0 0 0 * * ?")
-    public void DeleteExpiredRefreshTokens() {
-        refreshTokenRepository.deleteAllExpiredTokens(Instant.now());
+        return token;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package IIS.wis2_backend.Services.Account;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import IIS.wis2_backend.DTO.Response.Admin.TokenReaperStatsDTO;
+
+/**
+ * Deletes expired refresh and link (activation, password reset) tokens and
+ * tombstones of deleted users in the background. Every run deletes a bounded
+ * number of small batches, each in its own short transaction, so the token
+ * tables are never locked for long and dead rows are spread out for vacuum.
+ */
+@Service
+public class ExpiredTokenReaper {
+    /**
+     * Deletes one batch of expired refresh tokens.
+     */
+    private static final String PURGE_REFRESH_SQL = "DELETE FROM refresh_token WHERE id IN ("
+            + "SELECT id FROM refresh_token WHERE expiry_date < :now "
+            + "ORDER BY expiry_date LIMIT :batchSize FOR UPDATE SKIP LOCKED)";
+
+    /**
+     * Deletes one batch of expired link tokens.
+     */
+    private static final String PURGE_LINK_SQL = "DELETE FROM link_token WHERE id IN ("
+            + "SELECT id FROM link_token WHERE expiration_date < :now "
+            + "ORDER BY expiration_date LIMIT :batchSize FOR UPDATE SKIP LOCKED)";
+
+    /**
+     * Deletes one batch of tombstones of deleted users whose tokens expired.
+     */
+    private static final String PURGE_REVOKED_USER_SQL = "DELETE FROM revoked_user WHERE user_id IN ("
+            + "SELECT user_id FROM revoked_user WHERE expires_at < :now "
+            + "ORDER BY expires_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)";
+
+    private static final String REFRESH_BACKLOG_SQL = "SELECT count(*) FROM refresh_token WHERE expiry_date < :now";
+    private static final String LINK_BACKLOG_SQL = "SELECT count(*) FROM link_token WHERE expiration_date < :now";
+
+    /**
+     * JDBC template, statements run without a surrounding transaction.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Rows deleted per batch.
+     */
+    private final int batchSize;
+
+    /**
+     * Batches per run and table.
+     */
+    private final int maxBatches;
+
+    /**
+     * Metrics.
+     */
+    private final AtomicLong refreshTokensPurged = new AtomicLong();
+    private final AtomicLong linkTokensPurged = new AtomicLong();
+    private volatile long refreshTokenBacklog;
+    private volatile long linkTokenBacklog;
+    private volatile Instant lastRunAt;
+
+    /**
+     * Constructor for ExpiredTokenReaper.
+     * 
+     * @param jdbcTemplate JDBC template.
+     * @param batchSize    Rows deleted per batch.
+     * @param maxBatches   Batches per run and table.
+     */
+    public ExpiredTokenReaper(NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${tokens.reaper.batch-size}") int batchSize,
+            @Value("${tokens.reaper.max-batches}") int maxBatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * Deletes expired tokens, at most maxBatches * batchSize rows per table. What
+     * is left over is picked up by the next run.
+     */
+    @Scheduled(initialDelayString = "${tokens.reaper.interval-ms}", fixedDelayString = "${tokens.reaper.interval-ms}")
+    public void Reap() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", Timestamp.from(Instant.now()))
+                .addValue("batchSize", batchSize);
+
+        refreshTokensPurged.addAndGet(PurgeInBatches(PURGE_REFRESH_SQL, params));
+        linkTokensPurged.addAndGet(PurgeInBatches(PURGE_LINK_SQL, params));
+        PurgeInBatches(PURGE_REVOKED_USER_SQL, params);
+
+        refreshTokenBacklog = jdbcTemplate.queryForObject(REFRESH_BACKLOG_SQL, params, Long.class);
+        linkTokenBacklog = jdbcTemplate.queryForObject(LINK_BACKLOG_SQL, params, Long.class);
+        lastRunAt = Instant.now();
+    }
+
+    /**
+     * Returns the reaper statistics.
+     * 
+     * @return Rows purged since startup and expired rows left after the last run.
+     */
+    public TokenReaperStatsDTO Stats() {
+        return TokenReaperStatsDTO.builder()
+                .refreshTokensPurged(refreshTokensPurged.get())
+                .linkTokensPurged(linkTokensPurged.get())
+                .refreshTokenBacklog(refreshTokenBacklog)
+                .linkTokenBacklog(linkTokenBacklog)
+                .lastRunAt(lastRunAt)
+                .build();
+    }
+
+    /**
+     * Runs the purge statement until a batch comes back short or the batch limit
+     * is reached.
+     * 
+     * @param sql    The purge statement.
+     * @param params Its parameters.
+     * @return Number of deleted rows.
+     */
+    private long PurgeInBatches(String sql, MapSqlParameterSource params) {
+        long purged = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int deleted = jdbcTemplate.update(sql, params);
+            purged += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+}
@@ -17,6 +17,7 @@ import IIS.wis2_backend.Models.Tokens.LinkToken;
 import IIS.wis2_backend.Models.User.Wis2User;
 import IIS.wis2_backend.Repositories.Tokens.LinkTokenRepository;
 import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Cache.PrincipalCache;
 import IIS.wis2_backend.Utils.LinkTokenUtils;
 
 /**
@@ -56,17 +57,23 @@ public class PasswordService {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Cached principals, evicted when the password changes.
+     */
+    private final PrincipalCache principalCache;
+
     /**
      * Constructor for PasswordResetService.
      * 
      * @param passwordResetTokenRepository Repository for password reset tokens.
      */
     public PasswordService(LinkTokenRepository passwordResetTokenRepository, UserRepository userRepository,
-            MailService mailService, PasswordEncoder passwordEncoder) {
+            MailService mailService, PasswordEncoder passwordEncoder, PrincipalCache principalCache) {
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.userRepository = userRepository;
         this.mailService = mailService;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -135,6 +142,7 @@ public class PasswordService {
         Wis2User user = passwordResetToken.getUser();
         user.setPassword(passwordEncoder.encode(passwordResetDTO.password()));
         userRepository.save(user);
+        principalCache.Evict(user.getUsername());
     }
 
     /**
@@ -149,5 +157,6 @@ public class PasswordService {
 
         user.setPassword(passwordEncoder.encode(dto.getPassword()));
         userRepository.save(user);
+        principalCache.Evict(user.getUsername());
     }
 }
\ No newline at end of file
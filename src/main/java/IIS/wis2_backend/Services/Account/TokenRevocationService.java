@@ -0,0 +1,174 @@
+package IIS.wis2_backend.Services.Account;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import IIS.wis2_backend.DTO.Response.Projections.TokenEpochProjection;
+import IIS.wis2_backend.Models.Tokens.RevokedUser;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.Tokens.RevokedUserRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Utils.TransactionUtils;
+
+/**
+ * Revocation of access tokens. Every user has a token epoch which is signed
+ * into their tokens, bumping it revokes all tokens issued before. Epochs bumped
+ * within the token lifetime are kept in memory, so checking a token needs no
+ * query; older bumps can't match any unexpired token and are dropped. Recent
+ * bumps are reloaded periodically to pick up changes made by other instances. Deleted users have no row to hold the epoch, a tombstone is
+ * stored for them instead.
+ */
+@Service
+public class TokenRevocationService {
+    /**
+     * Bumped epoch of a user.
+     * 
+     * @param epoch Current epoch, tokens with a lower one are revoked.
+     * @param until When the last token issued before the bump expires.
+     */
+    private record RevokedEpoch(long epoch, Instant until) {
+    }
+
+    /**
+     * User repository to load the epochs.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Tombstones of deleted users.
+     */
+    private final RevokedUserRepository revokedUserRepository;
+
+    /**
+     * JWT expiration time in milliseconds, how long deleted users are remembered.
+     */
+    private final long jwtExpirationMs;
+
+    /**
+     * Reload period in milliseconds, consecutive reloads overlap by it so a
+     * bump committed during the previous reload isn't missed.
+     */
+    private final long reloadMs;
+
+    /**
+     * Recently bumped token epochs by user id.
+     */
+    private final Map<Long, RevokedEpoch> epochs = new ConcurrentHashMap<>();
+
+    /**
+     * Start of the last reload, null before the first one.
+     */
+    private volatile Instant lastReload;
+
+    /**
+     * Deleted users by id, with the time after which their tokens expired anyway.
+     */
+    private final Map<Long, Instant> deletedUsers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for TokenRevocationService.
+     * 
+     * @param userRepository        User repository to load the epochs.
+     * @param revokedUserRepository Tombstones of deleted users.
+     * @param jwtExpirationMs       JWT expiration time in milliseconds.
+     * @param reloadMs              Reload period in milliseconds.
+     */
+    public TokenRevocationService(UserRepository userRepository, RevokedUserRepository revokedUserRepository,
+            @Value("${jwt.expirationMs}") long jwtExpirationMs,
+            @Value("${jwt.revocation.reload-ms}") long reloadMs) {
+        this.userRepository = userRepository;
+        this.revokedUserRepository = revokedUserRepository;
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.reloadMs = reloadMs;
+    }
+
+    /**
+     * Checks if a token of the user issued with the given epoch is still valid.
+     * 
+     * @param userId     ID of the user.
+     * @param tokenEpoch Epoch from the token.
+     * @return true if the token wasn't revoked.
+     */
+    public boolean IsValid(Long userId, long tokenEpoch) {
+        if (deletedUsers.containsKey(userId)) {
+            return false;
+        }
+
+        RevokedEpoch revoked = epochs.get(userId);
+        return revoked == null || tokenEpoch >= revoked.epoch();
+    }
+
+    /**
+     * Revokes all tokens of the user by bumping their epoch. The caller saves the
+     * user, the in-memory epoch is updated after the transaction commits.
+     * 
+     * @param user The user.
+     */
+    public void RevokeTokens(Wis2User user) {
+        long epoch = user.getTokenEpoch() + 1;
+        Instant now = Instant.now();
+        user.setTokenEpoch(epoch);
+        user.setTokenEpochChangedAt(now);
+
+        Long userId = user.getId();
+        RevokedEpoch revoked = new RevokedEpoch(epoch, now.plusMillis(jwtExpirationMs));
+        TransactionUtils.AfterCommit(() -> epochs.merge(userId, revoked, TokenRevocationService::Newer));
+    }
+
+    /**
+     * Revokes all tokens of a user who is being deleted. Call it in the
+     * transaction of the delete, the tombstone is stored with it.
+     * 
+     * @param userId ID of the deleted user.
+     */
+    public void RevokeDeletedUser(Long userId) {
+        Instant until = Instant.now().plusMillis(jwtExpirationMs);
+        revokedUserRepository.save(RevokedUser.builder()
+                .userId(userId)
+                .expiresAt(until)
+                .build());
+        TransactionUtils.AfterCommit(() -> deletedUsers.put(userId, until));
+    }
+
+    /**
+     * Loads the epochs bumped within the token lifetime on startup, then
+     * periodically the ones bumped since the last reload.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jwt.revocation.reload-ms}", fixedDelayString = "${jwt.revocation.reload-ms}")
+    public void Reload() {
+        Instant now = Instant.now();
+        Instant oldest = now.minusMillis(jwtExpirationMs);
+        Instant since = lastReload == null ? oldest : lastReload.minusMillis(reloadMs);
+        if (since.isBefore(oldest)) {
+            since = oldest;
+        }
+        lastReload = now;
+
+        // Epochs only grow, so merging keeps local bumps the query didn't see yet
+        for (TokenEpochProjection row : userRepository.findByTokenEpochChangedAtAfter(since)) {
+            epochs.merge(row.getId(), new RevokedEpoch(row.getTokenEpoch(),
+                    row.getTokenEpochChangedAt().plusMillis(jwtExpirationMs)), TokenRevocationService::Newer);
+        }
+        epochs.values().removeIf(revoked -> revoked.until().isBefore(now));
+
+        for (RevokedUser tombstone : revokedUserRepository.findByExpiresAtAfter(now)) {
+            deletedUsers.put(tombstone.getUserId(), tombstone.getExpiresAt());
+        }
+        deletedUsers.values().removeIf(until -> until.isBefore(now));
+    }
+
+    /**
+     * Picks the higher of two epochs of the same user.
+     */
+    private static RevokedEpoch Newer(RevokedEpoch a, RevokedEpoch b) {
+        return a.epoch() >= b.epoch() ? a : b;
+    }
+}
@@ -1,12 +1,11 @@
 package IIS.wis2_backend.Services.Account;
 
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import IIS.wis2_backend.Enum.Roles;
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
 import IIS.wis2_backend.Models.User.Wis2User;
 import IIS.wis2_backend.Repositories.User.UserRepository;
 
@@ -37,14 +36,7 @@ public class Wis2UserDetailsService implements UserDetailsService {
         Wis2User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        String[] authorities = user.getRole() == Roles.ADMIN ? new String[] { "ROLE_ADMIN", "ROLE_USER" }
-                : new String[] { "ROLE_USER" };
-
-        return User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .disabled(!user.isActivated())
-                .authorities(authorities)
-                .build();
+        return new Wis2Principal(user.getId(), user.getUsername(), user.getPassword(), user.getRole(),
+                user.isActivated(), user.getTokenEpoch());
     }
 }
\ No newline at end of file
@@ -3,15 +3,27 @@ package IIS.wis2_backend.Services;
 import java.util.List;
 import java.util.ArrayList;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import IIS.wis2_backend.DTO.Response.Admin.AdminStatsDTO;
+import IIS.wis2_backend.DTO.Response.Admin.CacheStatsDTO;
+import IIS.wis2_backend.DTO.Response.Admin.TokenReaperStatsDTO;
 import IIS.wis2_backend.DTO.Response.Course.AdminCourseDTO;
 import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Events.CourseChangedEvent;
 import IIS.wis2_backend.Models.User.Wis2User;
 import IIS.wis2_backend.Repositories.CourseRepository;
 import IIS.wis2_backend.Repositories.Room.RoomRequestRepository;
 import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Account.ExpiredTokenReaper;
+import IIS.wis2_backend.Services.Account.TokenRevocationService;
+import IIS.wis2_backend.Services.Cache.CourseCatalogCache;
+import IIS.wis2_backend.Services.Cache.PrincipalCache;
+import jakarta.persistence.EntityManagerFactory;
 
 @Service
 public class AdminService {
@@ -19,12 +31,27 @@ public class AdminService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final RoomRequestRepository roomRequestRepository;
+    private final CourseCatalogCache courseCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final ExpiredTokenReaper expiredTokenReaper;
 
     public AdminService(UserRepository userRepository, CourseRepository courseRepository,
-            RoomRequestRepository roomRequestRepository) {
+            RoomRequestRepository roomRequestRepository, CourseCatalogCache courseCatalogCache,
+            ApplicationEventPublisher eventPublisher, EntityManagerFactory entityManagerFactory,
+            PrincipalCache principalCache, TokenRevocationService tokenRevocationService,
+            ExpiredTokenReaper expiredTokenReaper) {
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
         this.roomRequestRepository = roomRequestRepository;
+        this.courseCatalogCache = courseCatalogCache;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.expiredTokenReaper = expiredTokenReaper;
     }
 
     public AdminStatsDTO getAdminStats() {
@@ -47,7 +74,7 @@ public class AdminService {
                     .completedBy(course.getCompletedBy())
                     .capacity(course.getCapacity())
                     .supervisorUsername(supervisor != null ? supervisor.getUsername() : null)
-                    .enrolledStudents((int) courseRepository.getEnrolledCountByCourseShortcut(course.getShortcut()))
+                    .enrolledStudents(courseRepository.findEnrolledCountById(course.getId()))
                     .build());
         }
         return result;
@@ -84,6 +111,40 @@ public class AdminService {
         supervisor.getTaughtCourses().add(course);
 
         courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
+    }
+
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>(courseCatalogCache.Stats());
+        stats.add(principalCache.Stats());
+
+        Statistics hibernateStats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!hibernateStats.isStatisticsEnabled()) {
+            return stats;
+        }
+
+        // Regions are configured in application.conf
+        for (String region : hibernateStats.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = hibernateStats.getDomainDataRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+
+            long size = regionStats.getElementCountInMemory();
+            stats.add(CacheStatsDTO.builder()
+                    .name("hibernate:" + region)
+                    .hits(regionStats.getHitCount())
+                    .misses(regionStats.getMissCount())
+                    .puts(regionStats.getPutCount())
+                    .size(size == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? null : size)
+                    .build());
+        }
+
+        return stats;
+    }
+
+    public TokenReaperStatsDTO getTokenReaperStats() {
+        return expiredTokenReaper.Stats();
     }
 
     public void toggleAccount(Long userId) {
@@ -91,6 +152,8 @@ public class AdminService {
                 .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found"));
 
         user.setActivated(!user.isActivated());
+        tokenRevocationService.RevokeTokens(user);
         userRepository.save(user);
+        principalCache.Evict(user.getUsername());
     }
 }
@@ -0,0 +1,275 @@
+package IIS.wis2_backend.Services.Cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import IIS.wis2_backend.DTO.Response.Admin.CacheStatsDTO;
+import IIS.wis2_backend.DTO.Response.Course.CourseStatistics;
+import IIS.wis2_backend.DTO.Response.Course.FullCourseDTO;
+import IIS.wis2_backend.DTO.Response.Course.LightweightCourseDTO;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Events.CourseChangedEvent;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Utils.TransactionUtils;
+
+/**
+ * Read-through cache for the public course catalog. Holds an immutable snapshot
+ * of all approved courses plus price statistics, and a bounded cache of course
+ * detail DTOs. Both are dropped whenever a CourseChangedEvent is published and
+ * also expire after a configurable TTL.
+ */
+@Service
+public class CourseCatalogCache {
+    /**
+     * Snapshot of the approved catalog.
+     * 
+     * @param courses    All approved courses, or null if the catalog is larger
+     *                   than the configured maximum (callers then go to the DB).
+     * @param statistics Min/max price of approved courses.
+     * @param loadedAt   When the snapshot was loaded.
+     */
+    public record CatalogSnapshot(List<LightweightCourseDTO> courses, CourseStatistics statistics,
+            Instant loadedAt) {
+    }
+
+    /**
+     * One cached course detail.
+     * 
+     * @param course       The course detail DTO.
+     * @param lastModified When the DTO was loaded, changes always reload it.
+     */
+    public record CourseDetail(FullCourseDTO course, Instant lastModified) {
+    }
+
+    /**
+     * Maximum number of courses kept in the snapshot (and detail entries kept).
+     */
+    private final int maxSize;
+
+    /**
+     * Time after which entries are reloaded even without an event.
+     */
+    private final Duration ttl;
+
+    /**
+     * Course repository to load the snapshot.
+     */
+    private final CourseRepository courseRepository;
+
+    /**
+     * Current catalog snapshot, swapped atomically.
+     */
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Bumped on every invalidation, so a load that raced with a change is not
+     * published.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Course details by shortcut.
+     */
+    private final Cache<String, CourseDetail> details;
+
+    /**
+     * Metrics.
+     */
+    private final AtomicLong catalogHits = new AtomicLong();
+    private final AtomicLong catalogMisses = new AtomicLong();
+    private final AtomicLong catalogEvictions = new AtomicLong();
+    private final AtomicLong detailInvalidations = new AtomicLong();
+
+    /**
+     * Constructor for CourseCatalogCache.
+     * 
+     * @param courseRepository Course repository.
+     * @param maxSize          Maximum number of cached courses.
+     * @param ttlSeconds       Time to live of cached entries in seconds.
+     */
+    public CourseCatalogCache(CourseRepository courseRepository,
+            @Value("${catalog.cache.max-size}") int maxSize,
+            @Value("${catalog.cache.ttl-seconds}") long ttlSeconds) {
+        this.courseRepository = courseRepository;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.details = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(this.ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the current catalog snapshot, loading it if missing or expired.
+     * 
+     * @return The catalog snapshot.
+     */
+    public CatalogSnapshot GetSnapshot() {
+        CatalogSnapshot current = snapshot.get();
+        if (current != null && !IsExpired(current.loadedAt())) {
+            catalogHits.incrementAndGet();
+            return current;
+        }
+
+        catalogMisses.incrementAndGet();
+        return Load();
+    }
+
+    /**
+     * Returns the course detail for the shortcut, loading it through the loader
+     * if not cached.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @param loader   Function loading the DTO from the database.
+     * @return The course detail.
+     */
+    public CourseDetail GetCourse(String shortcut, Function<String, FullCourseDTO> loader) {
+        CourseDetail cached = details.getIfPresent(shortcut);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        FullCourseDTO course = loader.apply(shortcut);
+        CourseDetail detail = new CourseDetail(course, Instant.now());
+        if (generation.get() == loadGeneration) {
+            details.put(shortcut, detail);
+        }
+
+        return detail;
+    }
+
+    /**
+     * Drops cached data after a course change has been committed. Runs before
+     * ResourceVersions bumps the ETags, so a new ETag never serves the old body.
+     * 
+     * @param event The course change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void OnCourseChanged(CourseChangedEvent event) {
+        generation.incrementAndGet();
+        if (snapshot.getAndSet(null) != null) {
+            catalogEvictions.incrementAndGet();
+        }
+
+        if (event.shortcut() != null && details.asMap().remove(event.shortcut()) != null) {
+            detailInvalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops all course details, e.g. after a teacher's name changed. Dropped
+     * again after the current transaction commits, so a request that read the
+     * old data meanwhile can't cache it. Call it before bumping the versions.
+     */
+    public void EvictDetails() {
+        EvictDetailsNow();
+        TransactionUtils.AfterCommit(this::EvictDetailsNow);
+    }
+
+    /**
+     * Returns the cache statistics.
+     * 
+     * @return Statistics for the catalog snapshot and the course details.
+     */
+    public List<CacheStatsDTO> Stats() {
+        CatalogSnapshot current = snapshot.get();
+        details.cleanUp();
+        CacheStats detailStats = details.stats();
+        return List.of(
+                CacheStatsDTO.builder()
+                        .name("course-catalog")
+                        .hits(catalogHits.get())
+                        .misses(catalogMisses.get())
+                        .evictions(catalogEvictions.get())
+                        .size(current != null && current.courses() != null ? (long) current.courses().size() : 0L)
+                        .maxSize((long) maxSize)
+                        .loadedAt(current != null ? current.loadedAt() : null)
+                        .build(),
+                CacheStatsDTO.builder()
+                        .name("course-details")
+                        .hits(detailStats.hitCount())
+                        .misses(detailStats.missCount())
+                        .evictions(detailStats.evictionCount() + detailInvalidations.get())
+                        .size(details.estimatedSize())
+                        .maxSize((long) maxSize)
+                        .build());
+    }
+
+    /**
+     * Loads a new snapshot. Only one thread loads at a time, the others reuse its
+     * result.
+     * 
+     * @return The loaded snapshot.
+     */
+    private synchronized CatalogSnapshot Load() {
+        CatalogSnapshot current = snapshot.get();
+        if (current != null && !IsExpired(current.loadedAt())) {
+            return current;
+        }
+
+        long loadGeneration = generation.get();
+        CatalogSnapshot loaded;
+
+        // Too large to keep in memory, only cache the statistics
+        if (courseRepository.countByStatus(RequestStatus.APPROVED) > maxSize) {
+            loaded = new CatalogSnapshot(null,
+                    new CourseStatistics(courseRepository.findMinPrice(), courseRepository.findMaxPrice()),
+                    Instant.now());
+        } else {
+            List<LightweightCourseDTO> courses = courseRepository.findAllByStatus(RequestStatus.APPROVED).stream()
+                    .map(c -> new LightweightCourseDTO(
+                            c.getId(),
+                            c.getName(),
+                            c.getPrice(),
+                            c.getShortcut(),
+                            c.getCompletedBy()))
+                    .toList();
+
+            Double minPrice = courses.stream().map(LightweightCourseDTO::getPrice).min(Double::compare).orElse(null);
+            Double maxPrice = courses.stream().map(LightweightCourseDTO::getPrice).max(Double::compare).orElse(null);
+            loaded = new CatalogSnapshot(courses, new CourseStatistics(minPrice, maxPrice), Instant.now());
+        }
+
+        if (generation.get() == loadGeneration) {
+            snapshot.set(loaded);
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Checks if an entry loaded at the given time has expired.
+     * 
+     * @param loadedAt When the entry was loaded.
+     * @return true if expired.
+     */
+    private boolean IsExpired(Instant loadedAt) {
+        return loadedAt.plus(ttl).isBefore(Instant.now());
+    }
+
+    /**
+     * Drops all course details right away.
+     */
+    private void EvictDetailsNow() {
+        generation.incrementAndGet();
+        detailInvalidations.addAndGet(details.estimatedSize());
+        details.invalidateAll();
+    }
+}
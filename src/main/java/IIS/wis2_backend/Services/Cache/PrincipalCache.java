@@ -0,0 +1,140 @@
+package IIS.wis2_backend.Services.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
+import IIS.wis2_backend.DTO.Response.Admin.CacheStatsDTO;
+import IIS.wis2_backend.Services.Account.Wis2UserDetailsService;
+import IIS.wis2_backend.Utils.TransactionUtils;
+
+/**
+ * Cache of authenticated principals for the JWT filter, so a request with a
+ * known user is authenticated without a database lookup. Bounded and entries
+ * expire after a TTL. Services that change the role, activation or
+ * password of a user evict them.
+ */
+@Service
+public class PrincipalCache {
+    /**
+     * Maximum number of cached principals.
+     */
+    private final int maxSize;
+
+    /**
+     * Loads principals on a miss.
+     */
+    private final Wis2UserDetailsService wis2UserDetailsService;
+
+    /**
+     * Principals by username.
+     */
+    private final Cache<String, UserDetails> principals;
+
+    /**
+     * Bumped on every eviction, so a load that raced with a change is not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Principals evicted because the user changed (the cache only counts size
+     * and TTL evictions).
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructor for PrincipalCache.
+     * 
+     * @param wis2UserDetailsService Service to load principals.
+     * @param maxSize                Maximum number of cached principals.
+     * @param ttlSeconds             Time to live of cached principals in seconds.
+     */
+    public PrincipalCache(Wis2UserDetailsService wis2UserDetailsService,
+            @Value("${auth.principal-cache.max-size}") int maxSize,
+            @Value("${auth.principal-cache.ttl-seconds}") long ttlSeconds) {
+        this.wis2UserDetailsService = wis2UserDetailsService;
+        this.maxSize = maxSize;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the principal of the user, loading it if not cached. The cached
+     * principal doesn't carry the password hash.
+     * 
+     * @param username Username of the user.
+     * @return The principal.
+     * @throws UsernameNotFoundException if the user doesn't exist.
+     */
+    public UserDetails Get(String username) throws UsernameNotFoundException {
+        UserDetails cached = principals.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        Wis2Principal loaded = (Wis2Principal) wis2UserDetailsService.loadUserByUsername(username);
+        UserDetails principal = new Wis2Principal(loaded.getId(), loaded.getUsername(), "", loaded.getRole(),
+                loaded.isEnabled(), loaded.getTokenEpoch());
+
+        if (generation.get() == loadGeneration) {
+            principals.put(username, principal);
+        }
+
+        return principal;
+    }
+
+    /**
+     * Evicts the principal of a user whose role, activation or password changed.
+     * Evicted again after the current transaction commits, so a request that
+     * read the old row meanwhile can't cache it.
+     * 
+     * @param username Username of the user.
+     */
+    public void Evict(String username) {
+        EvictNow(username);
+        TransactionUtils.AfterCommit(() -> EvictNow(username));
+    }
+
+    /**
+     * Returns the cache statistics.
+     * 
+     * @return Statistics of the principal cache.
+     */
+    public CacheStatsDTO Stats() {
+        principals.cleanUp();
+        CacheStats stats = principals.stats();
+        return CacheStatsDTO.builder()
+                .name("principals")
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .evictions(stats.evictionCount() + invalidations.get())
+                .size(principals.estimatedSize())
+                .maxSize((long) maxSize)
+                .build();
+    }
+
+    /**
+     * Drops the principal right away.
+     * 
+     * @param username Username of the user.
+     */
+    private void EvictNow(String username) {
+        generation.incrementAndGet();
+        if (principals.asMap().remove(username) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package IIS.wis2_backend.Services.Cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import IIS.wis2_backend.Events.CourseChangedEvent;
+import IIS.wis2_backend.Utils.LinkTokenUtils;
+import IIS.wis2_backend.Utils.TransactionUtils;
+
+/**
+ * In-memory version counters of the read-heavy resources (course catalog,
+ * course details, course terms and schedules). The services bump them when
+ * they change something and the controllers turn them into strong ETags, so a
+ * conditional GET is answered with 304 without touching the database.
+ * 
+ * Counters live only in memory, the ETags contain the boot time so they never
+ * match after a restart.
+ */
+@Service
+public class ResourceVersions {
+    /**
+     * Key of the public course catalog.
+     */
+    public static final String CATALOG = "courses";
+
+    /**
+     * Key of all course schedules, derived user schedules depend on it.
+     */
+    public static final String SCHEDULES = "schedules";
+
+    /**
+     * Distinguishes ETags of different application runs.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Bumped when a change can't be pinned to specific resources, invalidates
+     * all ETags.
+     */
+    private final AtomicLong global = new AtomicLong();
+
+    /**
+     * Version counter per resource key. Missing key means version 0.
+     */
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Key of a course detail.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @return The key.
+     */
+    public static String CourseKey(String shortcut) {
+        return "course:" + shortcut;
+    }
+
+    /**
+     * Key of the term list of a course.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @return The key.
+     */
+    public static String CourseTermsKey(String shortcut) {
+        return "course-terms:" + shortcut;
+    }
+
+    /**
+     * Key of a course schedule.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @return The key.
+     */
+    public static String CourseScheduleKey(String shortcut) {
+        return "course-schedule:" + shortcut;
+    }
+
+    /**
+     * Key of a user schedule.
+     * 
+     * @param username Username of the user.
+     * @return The key.
+     */
+    public static String UserScheduleKey(String username) {
+        return "user-schedule:" + username;
+    }
+
+    /**
+     * Returns the strong ETag of the current version of a resource.
+     * 
+     * @param key Key of the resource.
+     * @return The quoted ETag.
+     */
+    public String ETag(String key) {
+        AtomicLong version = versions.get(key);
+        return "\"" + epoch + "." + global.get() + "." + (version != null ? version.get() : 0) + "\"";
+    }
+
+    /**
+     * Same as above, for resources whose representation also depends on the
+     * requesting user.
+     * 
+     * @param key     Key of the resource.
+     * @param variant What the representation depends on (e.g. username).
+     * @return The quoted ETag.
+     */
+    public String ETag(String key, String variant) {
+        String etag = ETag(key);
+        return etag.substring(0, etag.length() - 1) + "." + Digest(variant) + "\"";
+    }
+
+    /**
+     * Bumps the version of a resource. Inside a transaction the bump happens
+     * after commit, so a client can't cache the old data under the new ETag.
+     * 
+     * @param key Key of the resource.
+     */
+    public void Bump(String key) {
+        TransactionUtils.AfterCommit(() -> versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet());
+    }
+
+    /**
+     * Bumps the versions of many resources, with a single after-commit action.
+     * 
+     * @param keys Keys of the resources.
+     */
+    public void Bump(Collection<String> keys) {
+        TransactionUtils.AfterCommit(
+                () -> keys.forEach(key -> versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet()));
+    }
+
+    /**
+     * Invalidates all ETags. For rare changes that touch many resources (e.g.
+     * deleting a user).
+     */
+    public void BumpAll() {
+        TransactionUtils.AfterCommit(global::incrementAndGet);
+    }
+
+    /**
+     * Bumps the catalog and everything of the changed course. Runs after the
+     * caches dropped their data.
+     * 
+     * @param event The course change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void OnCourseChanged(CourseChangedEvent event) {
+        versions.computeIfAbsent(CATALOG, k -> new AtomicLong()).incrementAndGet();
+        if (event.shortcut() == null) {
+            global.incrementAndGet();
+            return;
+        }
+
+        versions.computeIfAbsent(CourseKey(event.shortcut()), k -> new AtomicLong()).incrementAndGet();
+        versions.computeIfAbsent(CourseTermsKey(event.shortcut()), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Returns a digest of an ETag variant, 132 bits of SHA-256 so different
+     * variants practically never share an ETag.
+     * 
+     * @param variant The variant.
+     * @return The digest.
+     */
+    private static String Digest(String variant) {
+        return LinkTokenUtils.HashToken(variant).substring(0, 22);
+    }
+}
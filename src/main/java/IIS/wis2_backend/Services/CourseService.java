@@ -1,10 +1,24 @@
 package IIS.wis2_backend.Services;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import IIS.wis2_backend.DTO.Request.Course.CourseCreationDTO;
@@ -27,10 +41,16 @@ import IIS.wis2_backend.Models.Relational.StudentCourse;
 import IIS.wis2_backend.Models.Relational.StudentTerm;
 import IIS.wis2_backend.Models.Term.Term;
 import IIS.wis2_backend.DTO.Response.NestedDTOs.TeacherDTOForCourse;
+import IIS.wis2_backend.DTO.Response.Projections.CourseDetailRowProjection;
+import IIS.wis2_backend.DTO.Response.Projections.GradebookPointsProjection;
+import IIS.wis2_backend.DTO.Response.Projections.GradebookStudentProjection;
+import IIS.wis2_backend.DTO.Response.Projections.GradebookTermProjection;
 import IIS.wis2_backend.DTO.Response.Projections.LightweightCourseProjection;
+import IIS.wis2_backend.DTO.Response.Projections.PointsMismatchProjection;
 import IIS.wis2_backend.Enum.CourseEndType;
 import IIS.wis2_backend.Enum.CourseRoleType;
 import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Events.CourseChangedEvent;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.AlreadySetException;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.InternalException;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
@@ -39,9 +59,17 @@ import IIS.wis2_backend.Models.Course;
 import IIS.wis2_backend.Models.Schedule;
 import IIS.wis2_backend.Models.User.Wis2User;
 import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Education.Term.TermRepository;
+import IIS.wis2_backend.Repositories.Specifications.CourseSpecifications;
+import IIS.wis2_backend.Services.Cache.CourseCatalogCache;
+import IIS.wis2_backend.Services.Cache.CourseCatalogCache.CourseDetail;
+import IIS.wis2_backend.Services.Education.EnrollmentService;
+import IIS.wis2_backend.Services.Education.ScheduleService;
+import IIS.wis2_backend.Services.Search.CourseSearchService;
 import IIS.wis2_backend.Repositories.User.UserRepository;
 import IIS.wis2_backend.Repositories.Relational.StudentCourseRepository;
 import IIS.wis2_backend.Repositories.Relational.StudentTermRepository;
+import IIS.wis2_backend.Utils.GradeUtils;
 import jakarta.transaction.Transactional;
 
 /**
@@ -49,6 +77,8 @@ import jakarta.transaction.Transactional;
  */
 @Service
 public class CourseService {
+	private static final Logger log = LoggerFactory.getLogger(CourseService.class);
+
 	/**
 	 * Course repository.
 	 */
@@ -69,6 +99,36 @@ public class CourseService {
 	 */
 	private final StudentCourseRepository studentCourseRepository;
 
+	/**
+	 * Term repository (gradebook columns).
+	 */
+	private final TermRepository termRepository;
+
+	/**
+	 * Search index over approved courses.
+	 */
+	private final CourseSearchService courseSearchService;
+
+	/**
+	 * Read-through cache of the public catalog.
+	 */
+	private final CourseCatalogCache courseCatalogCache;
+
+	/**
+	 * Seat counter and waitlist.
+	 */
+	private final EnrollmentService enrollmentService;
+
+	/**
+	 * Publishes course change events (cache invalidation).
+	 */
+	private final ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Keeps teacher schedules in sync.
+	 */
+	private final ScheduleService scheduleService;
+
 	/**
 	 * Constructor for CourseService.
 	 * 
@@ -76,23 +136,39 @@ public class CourseService {
 	 * @param userRepository          the user repository
 	 * @param studentTermRepository   the student term repository
 	 * @param studentCourseRepository the student course repository
+	 * @param termRepository          the term repository
+	 * @param courseSearchService     the course search index
+	 * @param courseCatalogCache      the course catalog cache
+	 * @param enrollmentService       the enrollment service
+	 * @param eventPublisher          the application event publisher
+	 * @param scheduleService         the schedule service
 	 */
 	public CourseService(CourseRepository courseRepository, UserRepository userRepository,
-			StudentTermRepository studentTermRepository, StudentCourseRepository studentCourseRepository) {
+			StudentTermRepository studentTermRepository, StudentCourseRepository studentCourseRepository,
+			TermRepository termRepository, CourseSearchService courseSearchService, CourseCatalogCache courseCatalogCache,
+			EnrollmentService enrollmentService, ApplicationEventPublisher eventPublisher,
+			ScheduleService scheduleService) {
 		this.courseRepository = courseRepository;
 		this.userRepository = userRepository;
 		this.studentTermRepository = studentTermRepository;
 		this.studentCourseRepository = studentCourseRepository;
+		this.termRepository = termRepository;
+		this.courseSearchService = courseSearchService;
+		this.courseCatalogCache = courseCatalogCache;
+		this.enrollmentService = enrollmentService;
+		this.eventPublisher = eventPublisher;
+		this.scheduleService = scheduleService;
 	}
 
 	/**
-	 * Getter for all courses. Returns lightweight DTOs.
+	 * Getter for all courses. Returns lightweight DTOs. Served from the catalog
+	 * cache when it holds the whole catalog, otherwise filtering, sorting and
+	 * pagination are done by the database.
 	 * 
 	 * @param filter Course filter attributes.
-	 * @return a list of all courses
+	 * @return a page of courses matching the filter (unpaged if no size is given)
 	 */
-	@Transactional
-	public List<LightweightCourseDTO> GetAllCourses(CourseFilter filter) {
+	public Page<LightweightCourseDTO> GetAllCourses(CourseFilter filter) {
 		if (!IsValidSortByField(filter.getSortBy())) {
 			throw new IllegalArgumentException("Invalid sortBy parameter!");
 		}
@@ -104,68 +180,164 @@ public class CourseService {
 			throw new IllegalArgumentException("Invalid price range!");
 		}
 
-		List<LightweightCourseProjection> courses = courseRepository.findAllByStatus(RequestStatus.APPROVED);
-
-		// Filter
-		Set<LightweightCourseProjection> filteredCourses = courses.stream()
-				.filter(c -> (filter.getQuery() == null
-						|| c.getName().toLowerCase().contains(filter.getQuery().toLowerCase())
-						|| c.getShortcut().toLowerCase()
-								.contains(filter.getQuery().toLowerCase())))
-				.filter(c -> (c.getPrice() >= minPrice && c.getPrice() <= maxPrice))
-				.filter(c -> {
-					if (filter.isEndedByBoth()) {
-						return true;
-					} else if (filter.isEndedByExam()) {
-						return c.getCompletedBy().equals(CourseEndType.EXAM.name());
-					} else if (filter.isEndedByGradedUnitCredit()) {
-						return c.getCompletedBy()
-								.equals(CourseEndType.GRADED_UNIT_CREDIT.name());
-					} else if (filter.isEndedByUnitCredit()) {
-						return c.getCompletedBy().equals(CourseEndType.UNIT_CREDIT.name());
-					} else {
-						return true;
-					}
-				})
-				.collect(Collectors.toSet());
+		Pageable pageable = CatalogPageable(filter);
 
-		// Sort
-		return filteredCourses.stream()
-				// Convert to DTO
-				.map(c -> new LightweightCourseDTO(
-						c.getId(),
-						c.getName(),
-						c.getPrice(),
-						c.getShortcut(),
-						c.getCompletedBy()))
-				// Sort
-				.sorted((c1, c2) -> {
-					// By price
-					if (filter.getSortBy().equals("price")) {
-						return filter.isReverse()
-								? c2.getPrice().compareTo(c1.getPrice())
-								: c1.getPrice().compareTo(c2.getPrice());
-					}
-
-					// By name
-					else {
-						return filter.isReverse()
-								? c2.getName().compareTo(c1.getName())
-								: c1.getName().compareTo(c2.getName());
-					}
-				})
+		// Search query is answered by the index (at most MAX_RESULTS hits), the rest
+		// of the filter by the database
+		List<Long> searchIds = null;
+		if (filter.getQuery() != null && !filter.getQuery().isBlank()) {
+			searchIds = courseSearchService.SearchIds(filter.getQuery());
+			if (searchIds.isEmpty()) {
+				return Page.empty(pageable);
+			}
+		}
+
+		boolean byRelevance = searchIds != null && "relevance".equals(filter.getSortBy());
+
+		CourseCatalogCache.CatalogSnapshot catalog = courseCatalogCache.GetSnapshot();
+		if (catalog.courses() != null) {
+			return FilterCatalog(catalog.courses(), filter, minPrice, maxPrice, searchIds, byRelevance, pageable);
+		}
+
+		Specification<Course> spec = CourseSpecifications.FromFilter(filter, minPrice, maxPrice, searchIds);
+
+		if (byRelevance) {
+			// The database orders by the position in the hits, only the page is loaded
+			Pageable unsorted = pageable.isPaged()
+					? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+					: Pageable.unpaged();
+			return courseRepository.findAll(spec.and(CourseSpecifications.OrderedBy(searchIds)), unsorted)
+					.map(this::CourseToLightweightDTO);
+		}
+
+		return courseRepository.findAll(spec, pageable).map(this::CourseToLightweightDTO);
+	}
+
+	/**
+	 * Applies the catalog filter to the cached snapshot. Same semantics as
+	 * CourseSpecifications.FromFilter and CatalogPageable.
+	 * 
+	 * @param courses     All approved courses.
+	 * @param filter      Course filter attributes.
+	 * @param minPrice    Lower price bound (inclusive).
+	 * @param maxPrice    Upper price bound (inclusive).
+	 * @param searchIds   Search hit IDs (best match first), or null.
+	 * @param byRelevance Whether to order by search relevance.
+	 * @param pageable    Requested page.
+	 * @return The page of matching courses.
+	 */
+	private Page<LightweightCourseDTO> FilterCatalog(List<LightweightCourseDTO> courses, CourseFilter filter,
+			double minPrice, double maxPrice, List<Long> searchIds, boolean byRelevance, Pageable pageable) {
+		Set<Long> allowedIds = searchIds != null ? new HashSet<>(searchIds) : null;
+		CourseEndType endType = CourseSpecifications.SelectedEndType(filter);
+
+		Comparator<LightweightCourseDTO> order;
+		if (byRelevance) {
+			order = RelevanceOrder(searchIds);
+		} else {
+			order = "price".equals(filter.getSortBy())
+					? Comparator.comparing(LightweightCourseDTO::getPrice)
+					: Comparator.comparing(LightweightCourseDTO::getName);
+			if (filter.isReverse()) {
+				order = order.reversed();
+			}
+			order = order.thenComparing(LightweightCourseDTO::getId);
+		}
+
+		List<LightweightCourseDTO> matches = courses.stream()
+				.filter(c -> allowedIds == null || allowedIds.contains(c.getId()))
+				.filter(c -> c.getPrice() >= minPrice && c.getPrice() <= maxPrice)
+				.filter(c -> endType == null || endType.name().equals(c.getCompletedBy()))
+				.sorted(order)
+				.collect(Collectors.toList());
+
+		return PageOf(matches, pageable);
+	}
+
+	/**
+	 * Orders courses by their position in the search hits.
+	 * 
+	 * @param rankedIds Search hit IDs, best match first.
+	 * @return Comparator by relevance.
+	 */
+	private Comparator<LightweightCourseDTO> RelevanceOrder(List<Long> rankedIds) {
+		Map<Long, Integer> rank = new HashMap<>();
+		for (int i = 0; i < rankedIds.size(); i++) {
+			rank.put(rankedIds.get(i), i);
+		}
+
+		return Comparator.comparing(c -> rank.get(c.getId()));
+	}
+
+	/**
+	 * Cuts the requested page out of an already filtered and ordered list.
+	 * 
+	 * @param ordered  All matching courses in order.
+	 * @param pageable Requested page.
+	 * @return The page of courses.
+	 */
+	private Page<LightweightCourseDTO> PageOf(List<LightweightCourseDTO> ordered, Pageable pageable) {
+		if (pageable.isUnpaged()) {
+			return new PageImpl<>(ordered, pageable, ordered.size());
+		}
+
+		int from = (int) Math.min(pageable.getOffset(), ordered.size());
+		int to = Math.min(from + pageable.getPageSize(), ordered.size());
+		return new PageImpl<>(ordered.subList(from, to), pageable, ordered.size());
+	}
+
+	/**
+	 * Searches approved courses by name, shortcut and description.
+	 * 
+	 * @param query The search query.
+	 * @param limit Maximum number of results.
+	 * @return Matching courses, best match first.
+	 */
+	public List<LightweightCourseDTO> SearchCourses(String query, int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("Invalid limit parameter!");
+		}
+
+		return courseSearchService.Search(query, limit).stream()
+				.map(CourseSearchService.ScoredCourse::course)
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Builds the sort and page request for the course catalog.
+	 * 
+	 * @param filter Course filter attributes.
+	 * @return Pageable for the catalog query.
+	 */
+	private Pageable CatalogPageable(CourseFilter filter) {
+		// Relevance ordering is done in memory, the database just sorts by name
+		String sortBy = filter.getSortBy() != null && !filter.getSortBy().equals("relevance")
+				? filter.getSortBy()
+				: "name";
+		Sort.Direction direction = filter.isReverse() ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+		// Tie-break by id so pages are stable
+		Sort sort = Sort.by(direction, sortBy).and(Sort.by(Sort.Direction.ASC, "id"));
+
+		if (filter.getSize() == null) {
+			return Pageable.unpaged(sort);
+		}
+
+		int page = filter.getPage() != null ? filter.getPage() : 0;
+		if (page < 0 || filter.getSize() < 1 || filter.getSize() > CourseFilter.MAX_SIZE) {
+			throw new IllegalArgumentException("Invalid page or size parameter!");
+		}
+
+		return PageRequest.of(page, filter.getSize(), sort);
+	}
+
 	/**
 	 * Getter for course price statistics (min and max price).
 	 * 
 	 * @return a DTO containing the min and max price
 	 */
 	public CourseStatistics GetCoursePriceStatistics() {
-		return new CourseStatistics(
-				courseRepository.findMinPrice(),
-				courseRepository.findMaxPrice());
+		return courseCatalogCache.GetSnapshot().statistics();
 	}
 
 	/**
@@ -176,12 +348,19 @@ public class CourseService {
 	 * @throws IllegalArgumentException if the course with the given id does not
 	 *                                  exist
 	 */
-	@Transactional
 	public FullCourseDTO GetCourseByShortcut(String shortcut) {
-		Course course = courseRepository.findByShortcut(shortcut)
-				.orElseThrow(() -> new NotFoundException(
-						"The course with this shortcut doesn't exist!"));
-		return CourseToFullDTO(course);
+		return GetCourseDetail(shortcut).course();
+	}
+
+	/**
+	 * Getter for a course detail with its Last-Modified, for conditional
+	 * requests.
+	 * 
+	 * @param shortcut the course shortcut
+	 * @return the cached course detail
+	 */
+	public CourseDetail GetCourseDetail(String shortcut) {
+		return courseCatalogCache.GetCourse(shortcut, this::LoadFullCourseDTO);
 	}
 
 	/**
@@ -272,6 +451,7 @@ public class CourseService {
 
 		course.setSchedule(schedule);
 		courseRepository.save(course);
+		eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
 		return CourseToLightweightDTO(course);
 	}
 
@@ -285,6 +465,7 @@ public class CourseService {
 				.orElseThrow(() -> new NotFoundException("Course not found"));
 		course.setStatus(IIS.wis2_backend.Enum.RequestStatus.APPROVED);
 		courseRepository.save(course);
+		eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
 	}
 
 	/**
@@ -297,6 +478,7 @@ public class CourseService {
 				.orElseThrow(() -> new NotFoundException("Course not found"));
 		course.setStatus(IIS.wis2_backend.Enum.RequestStatus.REJECTED);
 		courseRepository.save(course);
+		eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
 	}
 
 	/**
@@ -370,30 +552,31 @@ public class CourseService {
 	 * @return true if valid, false otherwise
 	 */
 	private boolean IsValidSortByField(String sortBy) {
-		return sortBy == null || sortBy.equals("name") || sortBy.equals("price");
+		return sortBy == null || sortBy.equals("name") || sortBy.equals("price") || sortBy.equals("relevance");
 	}
 
 	/**
-	 * Utility method to convert Course to FullCourseDTO.
+	 * Loads the course detail DTO with a single projection query.
 	 * 
-	 * @param course The course to convert
+	 * @param shortcut Shortcut of the course.
 	 * @return The corresponding FullCourseDTO
 	 */
-	private FullCourseDTO CourseToFullDTO(Course course) {
-		// Fetch supervisor and teacher projections
-		Wis2User supervisorProjection = userRepository
-				.findTopBySupervisedCourses_Id(course.getId());
-		List<Wis2User> teacherProjections = userRepository
-				.findAllByTaughtCourses_Id(course.getId());
-
-		// Map to DTOs
-		TeacherDTOForCourse supervisor = supervisorProjection != null ? new TeacherDTOForCourse(
-				supervisorProjection.getUsername(),
-				supervisorProjection.getFirstName(),
-				supervisorProjection.getLastName()) : null;
-
-		Set<TeacherDTOForCourse> teachers = teacherProjections.stream()
-				.map(t -> new TeacherDTOForCourse(t.getUsername(), t.getFirstName(), t.getLastName()))
+	private FullCourseDTO LoadFullCourseDTO(String shortcut) {
+		List<CourseDetailRowProjection> rows = courseRepository.findDetailRowsByShortcut(shortcut);
+		if (rows.isEmpty()) {
+			throw new NotFoundException("The course with this shortcut doesn't exist!");
+		}
+
+		CourseDetailRowProjection course = rows.get(0);
+		TeacherDTOForCourse supervisor = course.getSupervisorUsername() != null ? new TeacherDTOForCourse(
+				course.getSupervisorUsername(),
+				course.getSupervisorFirstName(),
+				course.getSupervisorLastName()) : null;
+
+		Set<TeacherDTOForCourse> teachers = rows.stream()
+				.filter(row -> row.getTeacherUsername() != null)
+				.map(row -> new TeacherDTOForCourse(row.getTeacherUsername(), row.getTeacherFirstName(),
+						row.getTeacherLastName()))
 				.collect(Collectors.toSet());
 
 		return new FullCourseDTO(
@@ -477,9 +660,8 @@ public class CourseService {
 				.findByCourseShortcutAndStatusAndStudentUsername(courseShortcut, RequestStatus.PENDING, studentUsername)
 				.orElseThrow(() -> new NotFoundException("Registration request not found"));
 
-		// Check if approving this student would exceed capacity
-		long approvedCount = courseRepository.getEnrolledCountByCourseShortcut(courseShortcut);
-		if (approvedCount >= course.getCapacity()) {
+		// Take a seat atomically, fails if the course is full
+		if (!enrollmentService.TakeSeat(course.getId())) {
 			throw new IllegalArgumentException(
 					"Approving this student would exceed course capacity! Increase capacity first.");
 		}
@@ -511,6 +693,9 @@ public class CourseService {
 				.orElseThrow(() -> new NotFoundException("Registration request not found"));
 
 		studentCourse.setStatus(RequestStatus.REJECTED);
+
+		// A request slot freed up
+		enrollmentService.PromoteWaitlist(course.getId());
 	}
 
 	@Transactional
@@ -551,15 +736,27 @@ public class CourseService {
 	}
 
 	/**
-	 * Returns the terms of a specific course.
+	 * Checks that the user may view the terms of a course, without loading them.
+	 * Has to be called before answering a conditional request, so the ETag of
+	 * the terms is never given to anyone else.
 	 * 
 	 * @param shortcut the course shortcut
-	 * @param username the username of the user requesting the terms. has to be
-	 *                 teacher or supervisor
-	 * @return List of term DTOs for the course
+	 * @param username the username of the user requesting the terms
 	 */
 	@Transactional
-	public List<TermListDTO> GetCourseTerms(String shortcut, String username) {
+	public void AuthorizeCourseTerms(String shortcut, String username) {
+		FindCourseForTerms(shortcut, username);
+	}
+
+	/**
+	 * Finds an approved course whose terms the user may view (supervisor,
+	 * teacher or approved student).
+	 * 
+	 * @param shortcut the course shortcut
+	 * @param username the username of the user
+	 * @return the course
+	 */
+	private Course FindCourseForTerms(String shortcut, String username) {
 		Course course = courseRepository.findByShortcutAndStatus(shortcut, RequestStatus.APPROVED)
 				.orElseThrow(() -> new NotFoundException("Course not found"));
 
@@ -569,6 +766,20 @@ public class CourseService {
 						shortcut, RequestStatus.APPROVED)) {
 			throw new UnauthorizedException("User is not authorized to view terms of this course!");
 		}
+		return course;
+	}
+
+	/**
+	 * Returns the terms of a specific course.
+	 * 
+	 * @param shortcut the course shortcut
+	 * @param username the username of the user requesting the terms. has to be
+	 *                 teacher or supervisor
+	 * @return List of term DTOs for the course
+	 */
+	@Transactional
+	public List<TermListDTO> GetCourseTerms(String shortcut, String username) {
+		Course course = FindCourseForTerms(shortcut, username);
 
 		Wis2User user = userRepository.findByUsername(username)
 				.orElseThrow(() -> new NotFoundException("User not found"));
@@ -622,8 +833,9 @@ public class CourseService {
 		course.getTeachers().remove(teacher);
 
 		// Remove all this-course related things from the teacher's schedule
-		Schedule teacherSchedule = teacher.getSchedule();
-		teacherSchedule.getItems().removeIf(item -> item.getCourseShortcut().equals(course.getShortcut()));
+		scheduleService.RemoveCourseFromTeacherSchedule(course, teacher);
+
+		eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
 	}
 
 	private String getTermType(Term term) {
@@ -636,109 +848,177 @@ public class CourseService {
 		return "ASSIGNMENT";
 	}
 
+	/**
+	 * Returns the whole gradebook of a course.
+	 * 
+	 * @param courseId ID of the course.
+	 * @return Gradebook entries of all approved students.
+	 */
 	@Transactional
 	public List<GradebookEntryDTO> getCourseGradebook(Long courseId) {
-		Course course = courseRepository.findById(courseId)
-				.orElseThrow(() -> new NotFoundException("Course not found"));
-
-		return course.getStudentCourses().stream()
-				.filter(sc -> sc.getStatus() == RequestStatus.APPROVED)
-				.map(sc -> {
-					Wis2User student = sc.getStudent();
-
-					// Calculate term grades with enrollment status
-					List<TermGradeDTO> termGrades = course.getTerms().stream()
-							.map(term -> {
-								// Find if student is enrolled in this term
-								StudentTerm studentTerm = term.getStudentTerms().stream()
-										.filter(st -> st.getStudent().getId().equals(student.getId()))
-										.findFirst()
-										.orElse(null);
-
-								return TermGradeDTO.builder()
-										.termId(term.getId())
-										.termName(term.getName())
-										.points(studentTerm != null ? studentTerm.getPoints() : null)
-										.maxPoints(term.getMaxPoints())
-										.enrolled(studentTerm != null)
-										.build();
-							})
-							.collect(Collectors.toList());
-
-					// Calculate total points from enrolled terms
-					Integer totalPoints = termGrades.stream()
-							.filter(tg -> tg.getEnrolled() && tg.getPoints() != null)
-							.mapToInt(TermGradeDTO::getPoints)
-							.sum();
-
-					return GradebookEntryDTO.builder()
-							.student(UserShortened.builder()
-									.id(student.getId())
-									.username(student.getUsername())
-									.firstName(student.getFirstName())
-									.lastName(student.getLastName())
-									.build())
-							.termGrades(termGrades)
-							.totalPoints(totalPoints)
-							.points(sc.getPoints())
-							.unitCredit(sc.getUnitCredit())
-							.examPassed(sc.getExamPassed())
-							.finalGrade(sc.getFinalGrade())
-							.completed(sc.getCompleted())
-							.build();
-				})
-				.collect(Collectors.toList());
+		return GetCourseGradebookPage(courseId, null, null).getContent();
 	}
 
+	/**
+	 * Returns a page of the gradebook of a course. Built from flat projections
+	 * (students, terms, student x term points) joined in memory by hash lookups,
+	 * so the number of queries does not depend on the number of students or terms.
+	 * 
+	 * @param courseId ID of the course.
+	 * @param page     Zero-based page index (defaults to 0).
+	 * @param size     Page size, or null for all students.
+	 * @return A page of gradebook entries ordered by student name.
+	 */
 	@Transactional
-	public void updateStudentTermPoints(Long courseId, Long termId, Long studentId, Integer points) {
+	public Page<GradebookEntryDTO> GetCourseGradebookPage(Long courseId, Integer page, Integer size) {
 		if (!courseRepository.existsById(courseId)) {
 			throw new NotFoundException("Course not found");
 		}
 
+		Pageable pageable;
+		if (size == null) {
+			pageable = Pageable.unpaged();
+		} else if (size < 1 || (page != null && page < 0)) {
+			throw new IllegalArgumentException("Invalid page or size parameter!");
+		} else {
+			pageable = PageRequest.of(page != null ? page : 0, size);
+		}
+
+		Page<GradebookStudentProjection> rows = studentCourseRepository.findGradebookRows(courseId, pageable);
+		if (rows.isEmpty()) {
+			return new PageImpl<>(List.of(), pageable, rows.getTotalElements());
+		}
+
+		List<GradebookTermProjection> terms = termRepository.findGradebookTerms(courseId);
+
+		// For a single page only fetch the cells of the students on it
+		List<GradebookPointsProjection> cells = pageable.isUnpaged()
+				? studentTermRepository.findGradebookPointsByCourse(courseId)
+				: studentTermRepository.findGradebookPoints(courseId,
+						rows.map(GradebookStudentProjection::getStudentId).getContent());
+
+		// studentId -> termId -> cell (a cell with null points still means enrolled)
+		Map<Long, Map<Long, GradebookPointsProjection>> cellsByStudent = new HashMap<>();
+		for (GradebookPointsProjection cell : cells) {
+			cellsByStudent.computeIfAbsent(cell.getStudentId(), id -> new HashMap<>())
+					.put(cell.getTermId(), cell);
+		}
+
+		return rows.map(row -> {
+			Map<Long, GradebookPointsProjection> studentCells = cellsByStudent.getOrDefault(row.getStudentId(),
+					Map.of());
+
+			List<TermGradeDTO> termGrades = new ArrayList<>(terms.size());
+			int totalPoints = 0;
+			for (GradebookTermProjection term : terms) {
+				GradebookPointsProjection cell = studentCells.get(term.getId());
+				Integer points = cell != null ? cell.getPoints() : null;
+				if (points != null) {
+					totalPoints += points;
+				}
+
+				termGrades.add(TermGradeDTO.builder()
+						.termId(term.getId())
+						.termName(term.getName())
+						.points(points)
+						.maxPoints(term.getMaxPoints())
+						.enrolled(cell != null)
+						.build());
+			}
+
+			return GradebookEntryDTO.builder()
+					.student(UserShortened.builder()
+							.id(row.getStudentId())
+							.username(row.getUsername())
+							.firstName(row.getFirstName())
+							.lastName(row.getLastName())
+							.build())
+					.termGrades(termGrades)
+					.totalPoints(totalPoints)
+					.points(row.getPoints())
+					.unitCredit(row.getUnitCredit())
+					.examPassed(row.getExamPassed())
+					.finalGrade(row.getFinalGrade())
+					.completed(row.getCompleted())
+					.build();
+		});
+	}
+
+	/**
+	 * Grades a student's term and updates their course total by the difference
+	 * from the previous points. Both rows are version-guarded, so a concurrent
+	 * grading of the same entry fails instead of losing a delta.
+	 * 
+	 * @param courseId  ID of the course.
+	 * @param termId    ID of the term.
+	 * @param studentId ID of the student.
+	 * @param points    New points (null to clear).
+	 */
+	@Transactional
+	public void updateStudentTermPoints(Long courseId, Long termId, Long studentId, Integer points) {
 		StudentTerm studentTerm = studentTermRepository.findByTermIdAndStudentId(termId, studentId)
 				.orElseThrow(() -> new NotFoundException("StudentTerm not found"));
 
-		if (!studentTerm.getTerm().getCourse().getId().equals(courseId)) {
+		Course course = studentTerm.getTerm().getCourse();
+		if (!course.getId().equals(courseId)) {
 			throw new IllegalArgumentException("Term does not belong to the specified course");
 		}
 
+		StudentCourse studentCourse = studentCourseRepository.findByCourseIdAndStudentId(courseId, studentId)
+				.orElseThrow(() -> new NotFoundException("Student not enrolled in course"));
+
+		int delta = (points != null ? points : 0)
+				- (studentTerm.getPoints() != null ? studentTerm.getPoints() : 0);
+
 		studentTerm.setPoints(points);
 		studentTermRepository.save(studentTerm);
 
-		// Update total points in StudentCourse
-		updateStudentCoursePoints(courseId, studentId);
+		SetStudentCoursePoints(studentCourse, course.getCompletedBy(), studentCourse.getPoints() + delta);
+		studentCourseRepository.save(studentCourse);
 	}
 
-	private void updateStudentCoursePoints(Long courseId, Long studentId) {
-		Course course = courseRepository.findById(courseId)
-				.orElseThrow(() -> new NotFoundException("Course not found"));
-
-		StudentCourse studentCourse = course.getStudentCourses().stream()
-				.filter(sc -> sc.getStudent().getId().equals(studentId))
-				.findFirst()
-				.orElseThrow(() -> new NotFoundException("Student not enrolled in course"));
-
-		// Calculate total points from all terms
-		int totalPoints = course.getTerms().stream()
-				.flatMap(term -> term.getStudentTerms().stream())
-				.filter(st -> st.getStudent().getId().equals(studentId) && st.getPoints() != null)
-				.mapToInt(StudentTerm::getPoints)
-				.sum();
-
+	/**
+	 * Sets the total points of a student in a course and, if the course is
+	 * already completed and graded, recalculates the final grade.
+	 * 
+	 * @param studentCourse The student's enrollment.
+	 * @param completedBy   How the course is completed.
+	 * @param totalPoints   New total points.
+	 */
+	private void SetStudentCoursePoints(StudentCourse studentCourse, CourseEndType completedBy, int totalPoints) {
 		studentCourse.setPoints(totalPoints);
 
 		// If exam is passed, update final grade
-		if (studentCourse.getCompleted()
-				&& course.getCompletedBy() != CourseEndType.UNIT_CREDIT) {
+		if (studentCourse.getCompleted() && completedBy != CourseEndType.UNIT_CREDIT) {
 			var grade = calculateFinalGrade(totalPoints);
 			studentCourse.setFinalGrade(grade);
 			if (grade == 4.0) {
 				studentCourse.setFailed(true);
 			}
 		}
+	}
 
-		courseRepository.save(course);
+	/**
+	 * Nightly check that the incrementally maintained course totals match the sum
+	 * of the term points. Mismatches are fixed and reported.
+	 */
+	@Scheduled(cron = "${points.reconciliation.cron}")
+	@Transactional
+	public void ReconcileStudentCoursePoints() {
+		List<PointsMismatchProjection> mismatches = studentCourseRepository.findPointsMismatches();
+
+		for (PointsMismatchProjection mismatch : mismatches) {
+			StudentCourse studentCourse = studentCourseRepository.findById(mismatch.getId()).orElse(null);
+			if (studentCourse == null) {
+				continue;
+			}
+
+			SetStudentCoursePoints(studentCourse, studentCourse.getCourse().getCompletedBy(),
+					mismatch.getActualPoints().intValue());
+			studentCourseRepository.save(studentCourse);
+			log.warn("Reconciled points of StudentCourse ID {}: {} -> {}", mismatch.getId(),
+					mismatch.getStoredPoints(), mismatch.getActualPoints());
+		}
 	}
 
 	/**
@@ -766,6 +1046,10 @@ public class CourseService {
 		}
 
 		courseRepository.save(course);
+		eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
+
+		// The capacity may have grown
+		enrollmentService.PromoteWaitlist(course.getId());
 	}
 
 	/**
@@ -797,10 +1081,9 @@ public class CourseService {
 		course.getTeachers().add(teacher);
 
 		// Add all course schedule items to the teacher's schedule
-		Schedule teacherSchedule = teacher.getSchedule();
-		course.getSchedule().getItems().forEach(item -> {
-			teacherSchedule.getItems().add(item);
-		});
+		scheduleService.AddCourseToTeacherSchedule(course, teacher);
+
+		eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
 	}
 
 	/**
@@ -825,85 +1108,42 @@ public class CourseService {
 	}
 
 	/**
-	 * Returns registered course DTO's depending on the user's role.
+	 * Returns registered course DTO's depending on the user's role. The role flags
+	 * for all courses on the page are computed by a single query.
 	 * 
 	 * @param username The username of the user.
+	 * @param page     Zero-based page index (defaults to 0).
+	 * @param size     Page size, or null for all courses.
+	 * @return A page of registered course DTOs.
 	 */
 	@Transactional
-	public List<RegisteredCourseListItemDTO> GetRegisteredCourseDTOs(String username) {
+	public Page<RegisteredCourseListItemDTO> GetRegisteredCourseDTOs(String username, Integer page, Integer size) {
 		if (!userRepository.existsByUsername(username)) {
 			throw new NotFoundException("User not found: " + username);
 		}
 
-		return courseRepository.findAll()
-				.stream()
-				.map(c -> {
-					String shortcut = c.getShortcut();
-					boolean isSupervisor = courseRepository
-							.existsBySupervisor_UsernameAndShortcut(username, shortcut);
-					boolean isTeacher = courseRepository
-							.existsByTeachers_UsernameAndShortcut(username, shortcut);
-					boolean isStudent = courseRepository
-							.existsByStudentCourses_Student_UsernameAndShortcut(username, shortcut);
-					boolean hasRequested = userRepository
-							.existsByUsernameAndStudentCourses_Course_ShortcutAndStudentCourses_Status(username,
-									shortcut, RequestStatus.PENDING);
-
-					return RegisteredCourseListItemDTO.builder()
-							.id(c.getId())
-							.name(c.getName())
-							.price(c.getPrice())
-							.shortcut(c.getShortcut())
-							.completedBy(c.getCompletedBy())
-							.isSupervisor(isSupervisor)
-							.isTeacher(isTeacher)
-							.isStudent(isStudent)
-							.hasRequested(hasRequested)
-							.build();
-				})
-				.collect(Collectors.toList());
-	}
-
-	/**
-	 * Enrolls a student in a course.
-	 * 
-	 * @param courseShortcut  The shortcut of the course.
-	 * @param studentUsername The username of the student.
-	 * @return A message indicating the result of the enrollment.
-	 */
-	@Transactional
-	public String EnrollInCourse(String courseShortcut, String studentUsername) {
-		Course course = courseRepository.findByShortcut(courseShortcut)
-				.orElseThrow(() -> new NotFoundException("Course not found"));
-
-		// Check if student is already associated with the course
-		if (courseRepository.existsBySupervisor_UsernameAndShortcut(studentUsername, courseShortcut)) {
-			throw new AlreadySetException("User is the supervisor of this course!");
-		} else if (courseRepository.existsByTeachers_UsernameAndShortcut(studentUsername, courseShortcut)) {
-			throw new AlreadySetException("User is a teacher of this course!");
-		} else if (courseRepository.existsByStudentCourses_Student_UsernameAndShortcut(studentUsername,
-				courseShortcut)) {
-			throw new AlreadySetException("User is already enrolled or has a pending request for this course!");
-		}
-
-		// Check capacity first
-		long approvedCount = courseRepository.getEnrolledCountByCourseShortcut(courseShortcut);
-		if (approvedCount >= course.getCapacity()) {
-			throw new IllegalArgumentException(
-					"Course capacity reached! Cannot enroll. Contact the course supervisor.");
+		Sort sort = Sort.by(Sort.Direction.ASC, "id");
+		Pageable pageable;
+		if (size == null) {
+			pageable = Pageable.unpaged(sort);
+		} else if (size < 1 || (page != null && page < 0)) {
+			throw new IllegalArgumentException("Invalid page or size parameter!");
+		} else {
+			pageable = PageRequest.of(page != null ? page : 0, size, sort);
 		}
 
-		// Autoregister
-		RequestStatus status = course.getAutoregister() ? RequestStatus.APPROVED : RequestStatus.PENDING;
-		studentCourseRepository.save(StudentCourse.builder()
-				.course(course)
-				.student(userRepository.findByUsername(studentUsername)
-						.orElseThrow(() -> new NotFoundException("Student not found")))
-				.status(status)
-				.build());
-
-		return status.equals(RequestStatus.APPROVED) ? "Enrolled successfully!"
-				: "Enrollment request submitted successfully!";
+		return courseRepository.findRegisteredCourseView(username, pageable)
+				.map(c -> RegisteredCourseListItemDTO.builder()
+						.id(c.getId())
+						.name(c.getName())
+						.price(c.getPrice())
+						.shortcut(c.getShortcut())
+						.completedBy(c.getCompletedBy())
+						.isSupervisor(Boolean.TRUE.equals(c.getIsSupervisor()))
+						.isTeacher(Boolean.TRUE.equals(c.getIsTeacher()))
+						.isStudent(Boolean.TRUE.equals(c.getIsStudent()))
+						.hasRequested(Boolean.TRUE.equals(c.getHasRequested()))
+						.build());
 	}
 
 	/**
@@ -915,20 +1155,17 @@ public class CourseService {
 	 */
 	@Transactional
 	public void grantCredit(Long courseId, Long studentId, String teacherUsername) {
-		Course course = courseRepository.findById(courseId)
+		CourseEndType completedBy = courseRepository.findCompletedById(courseId)
 				.orElseThrow(() -> new NotFoundException("Course not found: " + courseId));
 
-		// Verify teacher authorization
-		if (!course.getSupervisor().getUsername().equals(teacherUsername)
-				&& !course.getTeachers().stream()
-						.anyMatch(t -> t.getUsername().equals(teacherUsername))) {
+		// Verify authorization (the supervisor or a teacher)
+		if (!courseRepository.existsByIdAndSupervisorOrTeacher(courseId, teacherUsername)) {
 			throw new UnauthorizedException("User is not authorized to grant credit in this course!");
 		}
 
 		// Find student-course relationship
-		StudentCourse studentCourse = course.getStudentCourses().stream()
-				.filter(sc -> sc.getStudent().getId().equals(studentId) && sc.getStatus() == RequestStatus.APPROVED)
-				.findFirst()
+		StudentCourse studentCourse = studentCourseRepository.findByCourseIdAndStudentId(courseId, studentId)
+				.filter(sc -> sc.getStatus() == RequestStatus.APPROVED)
 				.orElseThrow(() -> new NotFoundException("Student not found in course"));
 
 		// Check if credit already granted
@@ -940,11 +1177,11 @@ public class CourseService {
 		studentCourse.setUnitCredit(true);
 
 		// If course is UNIT_CREDIT only, mark as completed
-		if (course.getCompletedBy() == CourseEndType.UNIT_CREDIT) {
+		if (completedBy == CourseEndType.UNIT_CREDIT) {
 			studentCourse.setCompleted(true);
 		}
 
-		courseRepository.save(course);
+		studentCourseRepository.save(studentCourse);
 	}
 
 	/**
@@ -956,20 +1193,17 @@ public class CourseService {
 	 */
 	@Transactional
 	public void grantExam(Long courseId, Long studentId, String teacherUsername) {
-		Course course = courseRepository.findById(courseId)
+		CourseEndType completedBy = courseRepository.findCompletedById(courseId)
 				.orElseThrow(() -> new NotFoundException("Course not found: " + courseId));
 
-		// Verify teacher authorization
-		if (!course.getSupervisor().getUsername().equals(teacherUsername)
-				&& !course.getTeachers().stream()
-						.anyMatch(t -> t.getUsername().equals(teacherUsername))) {
+		// Verify authorization (the supervisor or a teacher)
+		if (!courseRepository.existsByIdAndSupervisorOrTeacher(courseId, teacherUsername)) {
 			throw new UnauthorizedException("User is not authorized to grant exam in this course!");
 		}
 
 		// Find student-course relationship
-		StudentCourse studentCourse = course.getStudentCourses().stream()
-				.filter(sc -> sc.getStudent().getId().equals(studentId) && sc.getStatus() == RequestStatus.APPROVED)
-				.findFirst()
+		StudentCourse studentCourse = studentCourseRepository.findByCourseIdAndStudentId(courseId, studentId)
+				.filter(sc -> sc.getStatus() == RequestStatus.APPROVED)
 				.orElseThrow(() -> new NotFoundException("Student not found in course"));
 
 		// Check if exam already granted
@@ -978,7 +1212,7 @@ public class CourseService {
 		}
 
 		// For UNIT_CREDIT_EXAM, student must have credit first
-		if (course.getCompletedBy() == CourseEndType.UNIT_CREDIT_EXAM) {
+		if (completedBy == CourseEndType.UNIT_CREDIT_EXAM) {
 			if (!studentCourse.getUnitCredit()) {
 				throw new IllegalArgumentException("Student must have unit credit before granting exam!");
 			}
@@ -991,10 +1225,10 @@ public class CourseService {
 		}
 
 		// Set exam as passed
-		studentCourse.setExamPassed(points >= 50);
+		studentCourse.setExamPassed(points >= GradeUtils.PASSING_POINTS);
 
 		// Calculate final grade (only if not UNIT_CREDIT)
-		if (course.getCompletedBy() != CourseEndType.UNIT_CREDIT) {
+		if (completedBy != CourseEndType.UNIT_CREDIT) {
 			double finalGrade = calculateFinalGrade(points);
 			studentCourse.setFinalGrade(finalGrade);
 		}
@@ -1002,7 +1236,7 @@ public class CourseService {
 		// Mark as completed
 		studentCourse.setCompleted(true);
 
-		courseRepository.save(course);
+		studentCourseRepository.save(studentCourse);
 	}
 
 	/**
@@ -1012,18 +1246,6 @@ public class CourseService {
 	 * @return The final grade (1.0-4.0, or 5.0 for fail).
 	 */
 	private double calculateFinalGrade(int points) {
-		if (points >= 90) {
-			return 1.0;
-		} else if (points >= 80) {
-			return 1.5;
-		} else if (points >= 70) {
-			return 2.0;
-		} else if (points >= 60) {
-			return 2.5;
-		} else if (points >= 50) {
-			return 3.0;
-		} else {
-			return 4.0; // Fail
-		}
+		return GradeUtils.FinalGrade(points);
 	}
 }
@@ -0,0 +1,424 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import IIS.wis2_backend.DTO.Request.Course.BulkRegistrationDTO;
+import IIS.wis2_backend.DTO.Response.Course.BulkRegistrationResultDTO;
+import IIS.wis2_backend.DTO.Response.Projections.SeatCountMismatchProjection;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.AlreadySetException;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.UnauthorizedException;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.Relational.StudentCourse;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentCourseRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.NotificationService;
+
+/**
+ * Service for course enrollment. Seats are taken with a conditional UPDATE on
+ * the course's seat counter, so the capacity holds even when thousands of
+ * students enroll at once. Students who don't get a seat are put on a
+ * first-come-first-served waitlist.
+ */
+@Service
+@Transactional
+public class EnrollmentService {
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentService.class);
+
+    /**
+     * Maximum number of requests in one bulk approve/reject.
+     */
+    public static final int MAX_BULK_REQUESTS = 5000;
+
+    /**
+     * Resolves pending requests of the given usernames. Takes the new status,
+     * returns the students.
+     */
+    private static final String RESOLVE_BY_USERNAMES_SQL = "UPDATE student_course sc SET status = :status, "
+            + "version = sc.version + 1 FROM users u WHERE u.id = sc.student_id AND sc.course_id = :courseId "
+            + "AND sc.status = 'PENDING' AND u.username IN (:usernames) RETURNING u.id, u.username";
+
+    /**
+     * Resolves the oldest pending requests of a course.
+     */
+    private static final String RESOLVE_FIRST_SQL = "UPDATE student_course sc SET status = :status, "
+            + "version = sc.version + 1 FROM users u WHERE u.id = sc.student_id AND sc.status = 'PENDING' "
+            + "AND sc.id IN (SELECT id FROM student_course WHERE course_id = :courseId AND status = 'PENDING' "
+            + "ORDER BY requested_at, id LIMIT :first FOR UPDATE) RETURNING u.id, u.username";
+
+    /**
+     * Course repository (seat counter).
+     */
+    private final CourseRepository courseRepository;
+
+    /**
+     * StudentCourse repository (enrollments and waitlist).
+     */
+    private final StudentCourseRepository studentCourseRepository;
+
+    /**
+     * To fetch students.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * JDBC for the set-based bulk updates.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * To notify students about resolved requests.
+     */
+    private final NotificationService notificationService;
+
+    /**
+     * Constructor for EnrollmentService.
+     * 
+     * @param courseRepository        Course repository.
+     * @param studentCourseRepository StudentCourse repository.
+     * @param userRepository          User repository.
+     * @param jdbcTemplate            JDBC template.
+     * @param notificationService     Notification service.
+     */
+    public EnrollmentService(CourseRepository courseRepository, StudentCourseRepository studentCourseRepository,
+            UserRepository userRepository, NamedParameterJdbcTemplate jdbcTemplate,
+            NotificationService notificationService) {
+        this.courseRepository = courseRepository;
+        this.studentCourseRepository = studentCourseRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * Enrolls a student in a course. Autoregistered courses approve right away
+     * while there are seats, otherwise a pending request is created. When the
+     * course is full, or others are already waiting, the student goes to the
+     * end of the waitlist.
+     * 
+     * @param courseShortcut  Shortcut of the course.
+     * @param studentUsername Username of the student.
+     * @return Message for the student.
+     */
+    public String Enroll(String courseShortcut, String studentUsername) {
+        Course course = courseRepository.findByShortcut(courseShortcut)
+                .orElseThrow(() -> new NotFoundException("Course not found"));
+
+        // Check if student is already associated with the course
+        if (courseRepository.existsBySupervisor_UsernameAndShortcut(studentUsername, courseShortcut)) {
+            throw new AlreadySetException("User is the supervisor of this course!");
+        } else if (courseRepository.existsByTeachers_UsernameAndShortcut(studentUsername, courseShortcut)) {
+            throw new AlreadySetException("User is a teacher of this course!");
+        } else if (courseRepository.existsByStudentCourses_Student_UsernameAndShortcut(studentUsername,
+                courseShortcut)) {
+            throw new AlreadySetException("User is already enrolled or has a pending request for this course!");
+        }
+
+        Wis2User student = userRepository.findByUsername(studentUsername)
+                .orElseThrow(() -> new NotFoundException("Student not found"));
+
+        // Newcomers never jump the waitlist, it's served in order by PromoteWaitlist
+        RequestStatus status = HasWaitlist(course.getId()) ? RequestStatus.WAITLISTED : Admit(course);
+
+        if (status == RequestStatus.WAITLISTED) {
+            // Serialize with waitlist promotion, so a seat freed meanwhile isn't missed
+            courseRepository.lockSeats(course.getId());
+            if (!HasWaitlist(course.getId())) {
+                status = Admit(course);
+            }
+        }
+
+        StudentCourse studentCourse;
+        try {
+            studentCourse = studentCourseRepository.saveAndFlush(StudentCourse.builder()
+                    .course(course)
+                    .student(student)
+                    .status(status)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Two concurrent requests of the same student, the other one won
+            throw new AlreadySetException("User is already enrolled or has a pending request for this course!");
+        }
+
+        if (status == RequestStatus.APPROVED) {
+            return "Enrolled successfully!";
+        } else if (status == RequestStatus.PENDING) {
+            return "Enrollment request submitted successfully!";
+        }
+
+        long position = studentCourseRepository.countQueuedBefore(course.getId(), RequestStatus.WAITLISTED,
+                studentCourse.getRequestedAt(), studentCourse.getId()) + 1;
+        return "The course is full, you have been added to the waitlist (position " + position + ").";
+    }
+
+    /**
+     * Approves many pending registration requests at once. The requests are
+     * approved with one UPDATE and their seats taken with one conditional
+     * UPDATE of the seat counter. If there aren't enough free seats nothing is
+     * approved.
+     * 
+     * @param courseShortcut     Shortcut of the course.
+     * @param selection          Usernames or the number of oldest requests.
+     * @param supervisorUsername Username of the approving supervisor.
+     * @return Which students were approved and which were skipped.
+     */
+    public BulkRegistrationResultDTO ApproveRequests(String courseShortcut, BulkRegistrationDTO selection,
+            String supervisorUsername) {
+        Course course = AuthorizeSupervisor(courseShortcut, supervisorUsername);
+        Map<Long, String> approved = ResolveRequests(course.getId(), selection, RequestStatus.APPROVED);
+
+        if (!approved.isEmpty() && courseRepository.takeSeats(course.getId(), approved.size()) == 0) {
+            long free = course.getCapacity() - courseRepository.findEnrolledCountById(course.getId());
+            // Rolls back the approvals as well
+            throw new IllegalArgumentException("Approving " + approved.size() + " students would exceed course "
+                    + "capacity, only " + Math.max(free, 0) + " seats are left! Increase capacity first.");
+        }
+
+        notificationService.sendBulkCourseNotification(course.getSupervisor().getId(), course.getId(),
+                approved.keySet(), "Your registration request for course " + course.getShortcut()
+                        + " has been approved.");
+
+        return Result(approved, selection);
+    }
+
+    /**
+     * Rejects many pending registration requests at once with one UPDATE. The
+     * freed request slots go to the waitlist.
+     * 
+     * @param courseShortcut     Shortcut of the course.
+     * @param selection          Usernames or the number of oldest requests.
+     * @param supervisorUsername Username of the rejecting supervisor.
+     * @return Which students were rejected and which were skipped.
+     */
+    public BulkRegistrationResultDTO RejectRequests(String courseShortcut, BulkRegistrationDTO selection,
+            String supervisorUsername) {
+        Course course = AuthorizeSupervisor(courseShortcut, supervisorUsername);
+        Map<Long, String> rejected = ResolveRequests(course.getId(), selection, RequestStatus.REJECTED);
+
+        notificationService.sendBulkCourseNotification(course.getSupervisor().getId(), course.getId(),
+                rejected.keySet(), "Your registration request for course " + course.getShortcut()
+                        + " has been rejected.");
+
+        if (!rejected.isEmpty()) {
+            PromoteWaitlist(course.getId());
+        }
+
+        return Result(rejected, selection);
+    }
+
+    /**
+     * Checks that the user supervises the course.
+     * 
+     * @param courseShortcut     Shortcut of the course.
+     * @param supervisorUsername Username of the user.
+     * @return The course.
+     */
+    private Course AuthorizeSupervisor(String courseShortcut, String supervisorUsername) {
+        Course course = courseRepository.findByShortcut(courseShortcut)
+                .orElseThrow(() -> new NotFoundException("Course not found"));
+
+        if (!course.getSupervisor().getUsername().equals(supervisorUsername)) {
+            throw new UnauthorizedException("User is not the supervisor of this course!");
+        }
+
+        return course;
+    }
+
+    /**
+     * Moves the selected pending requests to the new status in one statement.
+     * 
+     * @param courseId  ID of the course.
+     * @param selection Usernames or the number of oldest requests.
+     * @param status    The new status.
+     * @return Usernames of the changed students by their IDs.
+     */
+    private Map<Long, String> ResolveRequests(Long courseId, BulkRegistrationDTO selection, RequestStatus status) {
+        boolean byUsernames = selection.getUsernames() != null;
+        boolean byFirst = selection.getFirst() != null;
+
+        if (byUsernames == byFirst) {
+            throw new IllegalArgumentException("Exactly one of usernames or first must be given!");
+        } else if (byUsernames && selection.getUsernames().isEmpty()) {
+            throw new IllegalArgumentException("usernames can't be empty!");
+        } else if (byUsernames && selection.getUsernames().size() > MAX_BULK_REQUESTS) {
+            throw new IllegalArgumentException("Too many usernames, at most " + MAX_BULK_REQUESTS + " are allowed!");
+        } else if (byFirst && (selection.getFirst() < 1 || selection.getFirst() > MAX_BULK_REQUESTS)) {
+            throw new IllegalArgumentException("first must be between 1 and " + MAX_BULK_REQUESTS + "!");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("status", status.name());
+
+        String sql;
+        if (byUsernames) {
+            sql = RESOLVE_BY_USERNAMES_SQL;
+            params.addValue("usernames", selection.getUsernames());
+        } else {
+            sql = RESOLVE_FIRST_SQL;
+            params.addValue("first", selection.getFirst());
+        }
+
+        Map<Long, String> changed = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            changed.put(rs.getLong("id"), rs.getString("username"));
+        });
+        return changed;
+    }
+
+    /**
+     * Builds the result of a bulk approve/reject.
+     * 
+     * @param changed   Changed students.
+     * @param selection The selection (to report skipped usernames).
+     * @return The result.
+     */
+    private BulkRegistrationResultDTO Result(Map<Long, String> changed, BulkRegistrationDTO selection) {
+        List<String> skipped = new ArrayList<>();
+        if (selection.getUsernames() != null) {
+            Set<String> changedUsernames = new HashSet<>(changed.values());
+            for (String username : new LinkedHashSet<>(selection.getUsernames())) {
+                if (!changedUsernames.contains(username)) {
+                    skipped.add(username);
+                }
+            }
+        }
+
+        return BulkRegistrationResultDTO.builder()
+                .changed(new ArrayList<>(changed.values()))
+                .skipped(skipped)
+                .build();
+    }
+
+    /**
+     * Decides where a student goes when there is no one ahead of them. The
+     * same rule admits newcomers and moves the waitlist: autoregistered courses
+     * take a seat, others create a pending request while the approved and
+     * pending students don't fill the capacity (pending requests don't hold a
+     * seat, the supervisor takes it on approval).
+     * 
+     * @param course The course.
+     * @return APPROVED, PENDING or WAITLISTED if there is no room.
+     */
+    private RequestStatus Admit(Course course) {
+        if (course.getAutoregister()) {
+            return TakeSeat(course.getId()) ? RequestStatus.APPROVED : RequestStatus.WAITLISTED;
+        }
+
+        // Pending requests count against the capacity: a new one is only created
+        // while approved + pending < capacity, so the supervisor can approve every
+        // pending request. (Before the waitlist a request was accepted whenever
+        // approved < capacity, however many were already pending.)
+        long taken = courseRepository.findEnrolledCountById(course.getId());
+        long pending = studentCourseRepository.countByCourseIdAndStatus(course.getId(), RequestStatus.PENDING);
+        return taken + pending < course.getCapacity() ? RequestStatus.PENDING : RequestStatus.WAITLISTED;
+    }
+
+    /**
+     * Returns true if someone is waiting for a seat in a course.
+     * 
+     * @param courseId ID of the course.
+     * @return true if the waitlist isn't empty.
+     */
+    private boolean HasWaitlist(Long courseId) {
+        return studentCourseRepository.existsByCourseIdAndStatus(courseId, RequestStatus.WAITLISTED);
+    }
+
+    /**
+     * Takes one seat in a course if there is a free one.
+     * 
+     * @param courseId ID of the course.
+     * @return true if the seat was taken.
+     */
+    public boolean TakeSeat(Long courseId) {
+        return courseRepository.takeSeat(courseId) == 1;
+    }
+
+    /**
+     * Frees a seat of an approved student who left the course and lets the
+     * waitlist move up.
+     * 
+     * @param courseId ID of the course.
+     */
+    public void ReleaseSeat(Long courseId) {
+        courseRepository.releaseSeat(courseId);
+        PromoteWaitlist(courseId);
+    }
+
+    /**
+     * Periodic check that the seat counters match the approved enrollments.
+     * Mismatches are fixed and reported, freed seats go to the waitlist. The
+     * mismatch may be stale by the time it's fixed, so the seats are locked and
+     * recounted instead of writing the count that was read.
+     */
+    @Scheduled(cron = "${enrollment.consistency.cron}")
+    public void CheckSeatCounters() {
+        List<SeatCountMismatchProjection> mismatches = courseRepository.findSeatCountMismatches();
+
+        for (SeatCountMismatchProjection mismatch : mismatches) {
+            if (courseRepository.lockSeats(mismatch.getId()).isEmpty()) {
+                continue;
+            }
+            long storedCount = courseRepository.findEnrolledCountById(mismatch.getId());
+            courseRepository.recountEnrolledStudents(mismatch.getId());
+            long actualCount = courseRepository.findEnrolledCountById(mismatch.getId());
+            if (actualCount == storedCount) {
+                continue;
+            }
+
+            log.warn("Fixed seat counter of course {}: {} -> {}", mismatch.getShortcut(), storedCount, actualCount);
+
+            if (actualCount < storedCount) {
+                PromoteWaitlist(mismatch.getId());
+            }
+        }
+    }
+
+    /**
+     * Moves students from the head of the waitlist while there is room. In
+     * autoregistered courses they take a seat right away, otherwise they become
+     * pending requests for the supervisor.
+     * 
+     * @param courseId ID of the course.
+     */
+    public void PromoteWaitlist(Long courseId) {
+        courseRepository.lockSeats(courseId).orElseThrow(() -> new NotFoundException("Course not found"));
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new NotFoundException("Course not found"));
+
+        while (true) {
+            StudentCourse head = studentCourseRepository
+                    .findFirstByCourseIdAndStatusOrderByRequestedAtAscIdAsc(courseId, RequestStatus.WAITLISTED)
+                    .orElse(null);
+            if (head == null) {
+                return;
+            }
+
+            RequestStatus status = Admit(course);
+            if (status == RequestStatus.WAITLISTED) {
+                return;
+            }
+
+            head.setStatus(status);
+            studentCourseRepository.saveAndFlush(head);
+        }
+    }
+}
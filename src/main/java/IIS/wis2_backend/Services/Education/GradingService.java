@@ -0,0 +1,424 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.sql.Types;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import IIS.wis2_backend.DTO.Request.Course.BulkGrantDTO;
+import IIS.wis2_backend.DTO.Request.Course.TermPointsEntryDTO;
+import IIS.wis2_backend.DTO.Response.Course.BulkGrantResultDTO;
+import IIS.wis2_backend.DTO.Response.Course.GradingRowResultDTO;
+import IIS.wis2_backend.DTO.Response.Projections.TermRegistrationProjection;
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Enum.GradingRowStatus;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.UnauthorizedException;
+import IIS.wis2_backend.Models.Term.Term;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Education.Term.TermRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentTermRepository;
+import IIS.wis2_backend.Utils.GradeUtils;
+
+/**
+ * Service for grading whole classes at once. Writes go through JDBC batches and
+ * set-based updates instead of loading the course aggregate per student.
+ */
+@Service
+@Transactional
+public class GradingService {
+    /**
+     * Maximum number of rows in one bulk grading request.
+     */
+    public static final int MAX_ROWS = 5000;
+
+    /**
+     * Sets the points of one registration, guarded by its version.
+     */
+    private static final String UPDATE_TERM_POINTS_SQL = "UPDATE student_term SET points = :points, "
+            + "version = version + 1 WHERE term_id = :termId AND student_id = :studentId AND version = :version";
+
+    /**
+     * Recomputes the course total of the given students from their term points.
+     */
+    private static final String RECOMPUTE_TOTALS_SQL = "UPDATE student_course sc SET "
+            + "points = COALESCE((SELECT SUM(st.points) FROM student_term st JOIN term t ON t.id = st.term_id "
+            + "WHERE st.student_id = sc.student_id AND t.course_id = sc.course_id), 0), "
+            + "version = sc.version + 1 "
+            + "WHERE sc.course_id = :courseId AND sc.student_id IN (:studentIds)";
+
+    /**
+     * Recomputes the final grade of completed students from their total points.
+     */
+    private static final String RECOMPUTE_FINAL_GRADES_SQL = "UPDATE student_course SET "
+            + "final_grade = " + GradeUtils.FinalGradeSql("points") + ", "
+            + "failed = failed OR (" + GradeUtils.FinalGradeSql("points") + ") = " + GradeUtils.FAILING_GRADE + " "
+            + "WHERE course_id = :courseId AND student_id IN (:studentIds) AND completed = true";
+
+    /**
+     * Grants unit credit to the selected approved students that don't have it yet.
+     * Filters are appended by SelectStudents.
+     */
+    private static final String GRANT_CREDIT_SQL = "UPDATE student_course SET unit_credit = true, "
+            + "completed = completed OR :completesCourse, version = version + 1 "
+            + "WHERE course_id = :courseId AND status = 'APPROVED' AND COALESCE(unit_credit, false) = false";
+
+    /**
+     * Grants the exam (pass/fail by points) to the selected approved students
+     * that don't have it yet and have valid points. The final grade part and the
+     * filters are appended in GrantExam.
+     */
+    private static final String GRANT_EXAM_SQL = "UPDATE student_course SET "
+            + "exam_passed = points >= " + GradeUtils.PASSING_POINTS + ", completed = true, version = version + 1";
+
+    /**
+     * To check course membership.
+     */
+    private final CourseRepository courseRepository;
+
+    /**
+     * To fetch the graded term.
+     */
+    private final TermRepository termRepository;
+
+    /**
+     * To fetch current registrations of the term.
+     */
+    private final StudentTermRepository studentTermRepository;
+
+    /**
+     * For batch and set-based writes.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for GradingService.
+     * 
+     * @param courseRepository      Course repository.
+     * @param termRepository        Term repository.
+     * @param studentTermRepository StudentTerm repository.
+     * @param jdbcTemplate          JDBC template for batch updates.
+     */
+    public GradingService(CourseRepository courseRepository, TermRepository termRepository,
+            StudentTermRepository studentTermRepository, NamedParameterJdbcTemplate jdbcTemplate) {
+        this.courseRepository = courseRepository;
+        this.termRepository = termRepository;
+        this.studentTermRepository = studentTermRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets term points for many students at once. Every row is validated on its
+     * own, valid rows are written in one JDBC batch and the course totals (and
+     * final grades) of the affected students are recomputed in one pass.
+     * 
+     * @param courseId        ID of the course.
+     * @param termId          ID of the term.
+     * @param entries         Student IDs and their points (null to clear).
+     * @param teacherUsername Username of the grading teacher.
+     * @return Per-row results in the order of the request.
+     */
+    public List<GradingRowResultDTO> GradeTerm(Long courseId, Long termId, List<TermPointsEntryDTO> entries,
+            String teacherUsername) {
+        if (entries.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many rows, at most " + MAX_ROWS + " are allowed!");
+        }
+
+        if (!courseRepository.existsByIdAndSupervisorOrTeacher(courseId, teacherUsername)) {
+            throw new UnauthorizedException("User is not authorized to grade in this course!");
+        }
+
+        Term term = termRepository.findById(termId)
+                .orElseThrow(() -> new NotFoundException("Term not found"));
+
+        if (!term.getCourse().getId().equals(courseId)) {
+            throw new IllegalArgumentException("Term does not belong to the specified course");
+        }
+
+        Map<Long, TermRegistrationProjection> registrations = new HashMap<>();
+        for (TermRegistrationProjection registration : studentTermRepository.findRegistrationsByTermId(termId)) {
+            registrations.put(registration.getStudentId(), registration);
+        }
+
+        List<GradingRowResultDTO> results = new ArrayList<>(entries.size());
+        List<MapSqlParameterSource> batch = new ArrayList<>();
+        List<GradingRowResultDTO> batchResults = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (TermPointsEntryDTO entry : entries) {
+            GradingRowResultDTO result = GradingRowResultDTO.builder()
+                    .studentId(entry.getStudentId())
+                    .points(entry.getPoints())
+                    .build();
+            results.add(result);
+
+            String error = ValidateRow(entry, term, registrations, seen);
+            if (error != null) {
+                result.setStatus(GradingRowStatus.REJECTED);
+                result.setMessage(error);
+                continue;
+            }
+
+            TermRegistrationProjection registration = registrations.get(entry.getStudentId());
+            if (Objects.equals(registration.getPoints(), entry.getPoints())) {
+                result.setStatus(GradingRowStatus.UNCHANGED);
+                continue;
+            }
+
+            batch.add(new MapSqlParameterSource()
+                    .addValue("points", entry.getPoints(), Types.INTEGER)
+                    .addValue("termId", termId)
+                    .addValue("studentId", entry.getStudentId())
+                    .addValue("version", registration.getVersion()));
+            batchResults.add(result);
+        }
+
+        if (batch.isEmpty()) {
+            return results;
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_TERM_POINTS_SQL,
+                batch.toArray(new MapSqlParameterSource[0]));
+
+        List<Long> updatedStudentIds = new ArrayList<>(batchResults.size());
+        for (int i = 0; i < counts.length; i++) {
+            GradingRowResultDTO result = batchResults.get(i);
+            if (counts[i] == 0) {
+                result.setStatus(GradingRowStatus.CONFLICT);
+                result.setMessage("The registration was modified concurrently, please try again.");
+            } else {
+                result.setStatus(GradingRowStatus.UPDATED);
+                updatedStudentIds.add(result.getStudentId());
+            }
+        }
+
+        RecomputeCourseTotals(courseId, term.getCourse().getCompletedBy(), updatedStudentIds);
+        return results;
+    }
+
+    /**
+     * Recomputes the total points of the given students in a course from their
+     * term points and, for graded courses, the final grade of those who already
+     * completed it.
+     * 
+     * @param courseId    ID of the course.
+     * @param completedBy How the course is completed.
+     * @param studentIds  IDs of the students.
+     */
+    public void RecomputeCourseTotals(Long courseId, CourseEndType completedBy, Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("studentIds", studentIds);
+
+        jdbcTemplate.update(RECOMPUTE_TOTALS_SQL, params);
+
+        if (completedBy != CourseEndType.UNIT_CREDIT) {
+            jdbcTemplate.update(RECOMPUTE_FINAL_GRADES_SQL, params);
+        }
+    }
+
+    /**
+     * Grants unit credit to many students at once with a single UPDATE. Students
+     * that already have the credit or aren't enrolled are skipped.
+     * 
+     * @param courseId        ID of the course.
+     * @param selection       Which students to grant the credit to.
+     * @param teacherUsername Username of the granting teacher.
+     * @return Which students changed and which were skipped.
+     */
+    public BulkGrantResultDTO GrantCredit(Long courseId, BulkGrantDTO selection, String teacherUsername) {
+        CourseEndType completedBy = AuthorizeCourse(courseId, teacherUsername);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("completesCourse", completedBy == CourseEndType.UNIT_CREDIT);
+
+        return Run(GRANT_CREDIT_SQL + SelectStudents(selection, params), params, selection);
+    }
+
+    /**
+     * Grants the exam to many students at once with a single UPDATE. The exam is
+     * passed with enough points and graded courses get their final grade in the
+     * same statement. Students that already have the exam, lack the required
+     * unit credit or have invalid points are skipped.
+     * 
+     * @param courseId        ID of the course.
+     * @param selection       Which students to grant the exam to.
+     * @param teacherUsername Username of the granting teacher.
+     * @return Which students changed and which were skipped.
+     */
+    public BulkGrantResultDTO GrantExam(Long courseId, BulkGrantDTO selection, String teacherUsername) {
+        CourseEndType completedBy = AuthorizeCourse(courseId, teacherUsername);
+
+        StringBuilder sql = new StringBuilder(GRANT_EXAM_SQL);
+        if (completedBy != CourseEndType.UNIT_CREDIT) {
+            sql.append(", final_grade = ").append(GradeUtils.FinalGradeSql("points"));
+        }
+
+        sql.append(" WHERE course_id = :courseId AND status = 'APPROVED' AND COALESCE(exam_passed, false) = false")
+                .append(" AND points BETWEEN 0 AND 100");
+
+        // Credit must come first
+        if (completedBy == CourseEndType.UNIT_CREDIT_EXAM) {
+            sql.append(" AND unit_credit = true");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("courseId", courseId);
+        sql.append(SelectStudents(selection, params));
+
+        return Run(sql.toString(), params, selection);
+    }
+
+    /**
+     * Checks that the user supervises or teaches the course.
+     * 
+     * @param courseId        ID of the course.
+     * @param teacherUsername Username of the user.
+     * @return How the course is completed.
+     */
+    private CourseEndType AuthorizeCourse(Long courseId, String teacherUsername) {
+        CourseEndType completedBy = courseRepository.findCompletedById(courseId)
+                .orElseThrow(() -> new NotFoundException("Course not found: " + courseId));
+
+        if (!courseRepository.existsByIdAndSupervisorOrTeacher(courseId, teacherUsername)) {
+            throw new UnauthorizedException("User is not authorized to grade in this course!");
+        }
+
+        return completedBy;
+    }
+
+    /**
+     * Builds the WHERE conditions selecting the students of a bulk grant.
+     * 
+     * @param selection Student IDs and/or points threshold.
+     * @param params    Parameters to add the values to.
+     * @return SQL conditions starting with " AND".
+     */
+    private String SelectStudents(BulkGrantDTO selection, MapSqlParameterSource params) {
+        boolean byIds = selection.getStudentIds() != null;
+        boolean byPoints = selection.getMinPoints() != null;
+
+        if (!byIds && !byPoints) {
+            throw new IllegalArgumentException("Either studentIds or minPoints must be given!");
+        } else if (byIds && selection.getStudentIds().isEmpty()) {
+            throw new IllegalArgumentException("studentIds can't be empty!");
+        } else if (byIds && selection.getStudentIds().size() > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many students, at most " + MAX_ROWS + " are allowed!");
+        }
+
+        StringBuilder sql = new StringBuilder();
+        if (byIds) {
+            sql.append(" AND student_id IN (:studentIds)");
+            params.addValue("studentIds", selection.getStudentIds());
+        }
+
+        if (byPoints) {
+            sql.append(" AND points >= :minPoints");
+            params.addValue("minPoints", selection.getMinPoints());
+        }
+
+        return sql.toString();
+    }
+
+    /**
+     * Runs a bulk grant UPDATE and collects the changed students.
+     * 
+     * @param sql       The UPDATE statement.
+     * @param params    Its parameters.
+     * @param selection The selection (to report skipped students).
+     * @return Which students changed and which were skipped.
+     */
+    private BulkGrantResultDTO Run(String sql, MapSqlParameterSource params, BulkGrantDTO selection) {
+        List<Long> changed = jdbcTemplate.queryForList(sql + " RETURNING student_id", params, Long.class);
+
+        List<Long> skipped = new ArrayList<>();
+        if (selection.getStudentIds() != null) {
+            Set<Long> changedIds = new HashSet<>(changed);
+            for (Long studentId : new HashSet<>(selection.getStudentIds())) {
+                if (!changedIds.contains(studentId)) {
+                    skipped.add(studentId);
+                }
+            }
+        }
+
+        return BulkGrantResultDTO.builder()
+                .changed(changed)
+                .skipped(skipped)
+                .build();
+    }
+
+    /**
+     * Parses a CSV grading sheet. Each line is "studentId,points", an empty
+     * points cell clears the points. A header line and blank lines are skipped.
+     * 
+     * @param csv CSV content.
+     * @return Parsed entries.
+     */
+    public List<TermPointsEntryDTO> ParseCsv(String csv) {
+        List<TermPointsEntryDTO> entries = new ArrayList<>();
+        String[] lines = csv.split("\\r?\\n");
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] cells = line.split("[,;]", -1);
+            if (i == 0 && !cells[0].strip().matches("\\d+")) {
+                continue; // header
+            }
+
+            try {
+                Long studentId = Long.parseLong(cells[0].strip());
+                String points = cells.length > 1 ? cells[1].strip() : "";
+                entries.add(new TermPointsEntryDTO(studentId, points.isEmpty() ? null : Integer.parseInt(points)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CSV on line " + (i + 1) + ": " + line);
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Validates one row of a bulk grading request.
+     * 
+     * @param entry         The row.
+     * @param term          The graded term.
+     * @param registrations Registrations of the term by student ID.
+     * @param seen          Student IDs already seen in the request.
+     * @return Error message, or null if the row is valid.
+     */
+    private String ValidateRow(TermPointsEntryDTO entry, Term term,
+            Map<Long, TermRegistrationProjection> registrations, Set<Long> seen) {
+        if (entry.getStudentId() == null) {
+            return "Missing student ID";
+        } else if (!seen.add(entry.getStudentId())) {
+            return "Duplicate student in the request";
+        } else if (entry.getPoints() != null && entry.getPoints() < 0) {
+            return "Points can't be negative";
+        } else if (entry.getPoints() != null && term.getMaxPoints() != null
+                && entry.getPoints() > term.getMaxPoints()) {
+            return "Points exceed the maximum of " + term.getMaxPoints();
+        } else if (!registrations.containsKey(entry.getStudentId())) {
+            return "Student is not registered for this term";
+        }
+
+        return null;
+    }
+}
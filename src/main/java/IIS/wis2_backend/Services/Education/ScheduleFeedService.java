@@ -0,0 +1,250 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import IIS.wis2_backend.DTO.Response.Schedule.FeedTokenDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Models.Tokens.FeedToken;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Tokens.FeedTokenRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+import IIS.wis2_backend.Utils.ICalendarWriter;
+import IIS.wis2_backend.Utils.LinkTokenUtils;
+
+/**
+ * Service for the iCalendar feeds of user and course schedules, which calendar
+ * clients subscribe to instead of fetching the schedule week by week.
+ * 
+ * Feeds are written straight to the response while the items are streamed
+ * from the database. They have the same ETags as the schedules (varied by the
+ * day, since old items drop out of the feed), and checking them needs only
+ * cached lookups, so a client polling an unchanged feed costs no query.
+ */
+@Service
+public class ScheduleFeedService {
+    /**
+     * Path of the user feeds, the token goes in between.
+     */
+    public static final String USER_FEED_PATH = "/schedules/feed/";
+
+    /**
+     * To store and look up feed tokens.
+     */
+    private final FeedTokenRepository feedTokenRepository;
+
+    /**
+     * To find the owners of feed tokens.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * To check that a course exists.
+     */
+    private final CourseRepository courseRepository;
+
+    /**
+     * To read the schedules.
+     */
+    private final ScheduleService scheduleService;
+
+    /**
+     * Version counters for feed ETags.
+     */
+    private final ResourceVersions resourceVersions;
+
+    /**
+     * Time zone of the stored (local) schedule times.
+     */
+    private final ZoneId zone;
+
+    /**
+     * How many days of past items a feed keeps.
+     */
+    private final int pastDays;
+
+    /**
+     * Constructor for ScheduleFeedService.
+     * 
+     * @param feedTokenRepository Feed token repository.
+     * @param userRepository      User repository.
+     * @param courseRepository    Course repository.
+     * @param scheduleService     Schedule service.
+     * @param resourceVersions    Resource version counters.
+     * @param zone                Time zone of the schedule times.
+     * @param pastDays            Days of past items in a feed.
+     */
+    public ScheduleFeedService(FeedTokenRepository feedTokenRepository, UserRepository userRepository,
+            CourseRepository courseRepository, ScheduleService scheduleService, ResourceVersions resourceVersions,
+            @Value("${schedule.feed.zone}") String zone,
+            @Value("${schedule.feed.past-days}") int pastDays) {
+        this.feedTokenRepository = feedTokenRepository;
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.scheduleService = scheduleService;
+        this.resourceVersions = resourceVersions;
+        this.zone = ZoneId.of(zone);
+        this.pastDays = pastDays;
+    }
+
+    /**
+     * Generates a new feed token for a user. The previous one (if any) stops
+     * working.
+     * 
+     * @param username Username of the user.
+     * @return The token and the path of the feed.
+     */
+    @Transactional
+    public FeedTokenDTO GenerateFeedToken(String username) {
+        Wis2User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        // Delete first, a user has only one token
+        feedTokenRepository.findByUser_Id(user.getId()).ifPresent(old -> {
+            feedTokenRepository.delete(old);
+            feedTokenRepository.flush();
+        });
+
+        String token = LinkTokenUtils.GenerateLinkToken();
+        feedTokenRepository.save(FeedToken.builder()
+                .tokenHash(LinkTokenUtils.HashToken(token))
+                .user(user)
+                .createdAt(Instant.now())
+                .build());
+
+        return new FeedTokenDTO(token, USER_FEED_PATH + token + ".ics");
+    }
+
+    /**
+     * Revokes the feed token of a user, their feed stops working.
+     * 
+     * @param username Username of the user.
+     */
+    @Transactional
+    public void RevokeFeedToken(String username) {
+        Wis2User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        feedTokenRepository.findByUser_Id(user.getId()).ifPresent(feedTokenRepository::delete);
+    }
+
+    /**
+     * Finds the user a feed token belongs to. Both lookups go through the
+     * second-level cache.
+     * 
+     * @param token The token from the feed URL.
+     * @return Username of the user.
+     */
+    @Transactional(readOnly = true)
+    public String ResolveFeedToken(String token) {
+        FeedToken feedToken = feedTokenRepository.findByTokenHash(LinkTokenUtils.HashToken(token))
+                .orElseThrow(() -> new NotFoundException("Feed not found"));
+
+        // By ID, the token outlives a deleted user in the cache for a while
+        return userRepository.findById(feedToken.getUser().getId())
+                .filter(Wis2User::isActivated)
+                .map(Wis2User::getUsername)
+                .orElseThrow(() -> new NotFoundException("Feed not found"));
+    }
+
+    /**
+     * Returns the ETag of a user's feed.
+     * 
+     * @param username Username of the user.
+     * @return The quoted ETag.
+     */
+    public String UserFeedETag(String username) {
+        return scheduleService.UserScheduleETag(username, "ics." + WindowStart());
+    }
+
+    /**
+     * Returns the ETag of a course feed.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @return The quoted ETag.
+     */
+    @Transactional(readOnly = true)
+    public String CourseFeedETag(String shortcut) {
+        // Checked here, the feed itself is written after the response is committed
+        if (courseRepository.findByShortcut(shortcut).isEmpty()) {
+            throw new NotFoundException("Course not found");
+        }
+
+        return resourceVersions.ETag(ResourceVersions.CourseScheduleKey(shortcut), "ics." + WindowStart());
+    }
+
+    /**
+     * Writes the feed of a user's schedule.
+     * 
+     * @param username Username of the user.
+     * @param out      Where the feed goes.
+     */
+    public void WriteUserFeed(String username, OutputStream out) {
+        ICalendarWriter ics = Begin(out, "WIS2 - " + username);
+        Instant stamp = Instant.now();
+        scheduleService.ForEachUserItem(username, WindowStart().atStartOfDay(), item -> WriteEvent(ics, item, stamp));
+        ics.EndCalendar();
+    }
+
+    /**
+     * Writes the feed of a course schedule.
+     * 
+     * @param shortcut Shortcut of the course.
+     * @param out      Where the feed goes.
+     */
+    public void WriteCourseFeed(String shortcut, OutputStream out) {
+        ICalendarWriter ics = Begin(out, "WIS2 - " + shortcut);
+        Instant stamp = Instant.now();
+        scheduleService.ForEachCourseItem(shortcut, WindowStart().atStartOfDay(), item -> WriteEvent(ics, item, stamp));
+        ics.EndCalendar();
+    }
+
+    /**
+     * Returns the first day of the feeds.
+     * 
+     * @return Today minus the kept past days.
+     */
+    private LocalDate WindowStart() {
+        return LocalDate.now(zone).minusDays(pastDays);
+    }
+
+    /**
+     * Starts a calendar on the stream.
+     * 
+     * @param out  Where the feed goes.
+     * @param name Name of the calendar.
+     * @return The calendar writer.
+     */
+    private ICalendarWriter Begin(OutputStream out, String name) {
+        ICalendarWriter ics = new ICalendarWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        ics.BeginCalendar(name);
+        return ics;
+    }
+
+    /**
+     * Writes one schedule item as an event.
+     * 
+     * @param ics   The calendar writer.
+     * @param item  The schedule item.
+     * @param stamp When the feed was generated.
+     */
+    private void WriteEvent(ICalendarWriter ics, ScheduleFeedItemDTO item, Instant stamp) {
+        String type = item.termType().name().replace('_', ' ').toLowerCase();
+        String summary = item.course() + " " + type + (item.name() != null ? ": " + item.name() : "");
+        ics.Event("schedule-item-" + item.id() + "@wis2",
+                item.startDate().atZone(zone).toInstant(),
+                item.endDate().atZone(zone).toInstant(),
+                stamp, summary, item.room(), item.courseName());
+    }
+}
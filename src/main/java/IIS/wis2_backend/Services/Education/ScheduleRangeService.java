@@ -0,0 +1,196 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import IIS.wis2_backend.DTO.Request.Schedule.ScheduleRangeRequestDTO;
+import IIS.wis2_backend.Enum.TermType;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+import IIS.wis2_backend.Utils.ScheduleRangeWriter;
+
+/**
+ * Service for schedules of any range (e.g. a semester view), so the frontend
+ * doesn't have to fetch them week by week. One range query per schedule, the
+ * items are grouped by day while they're streamed to the response.
+ */
+@Service
+public class ScheduleRangeService {
+    /**
+     * To read the schedules.
+     */
+    private final ScheduleService scheduleService;
+
+    /**
+     * To check that a course exists.
+     */
+    private final CourseRepository courseRepository;
+
+    /**
+     * Version counters for ETags.
+     */
+    private final ResourceVersions resourceVersions;
+
+    /**
+     * To write the items (same date format as the other endpoints).
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Longest allowed range in days.
+     */
+    private final int maxDays;
+
+    /**
+     * Constructor for ScheduleRangeService.
+     * 
+     * @param scheduleService  Schedule service.
+     * @param courseRepository Course repository.
+     * @param resourceVersions Resource version counters.
+     * @param objectMapper     JSON mapper.
+     * @param maxDays          Longest allowed range in days.
+     */
+    public ScheduleRangeService(ScheduleService scheduleService, CourseRepository courseRepository,
+            ResourceVersions resourceVersions, ObjectMapper objectMapper,
+            @Value("${schedule.range.max-days}") int maxDays) {
+        this.scheduleService = scheduleService;
+        this.courseRepository = courseRepository;
+        this.resourceVersions = resourceVersions;
+        this.objectMapper = objectMapper;
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Validates the range of a request, before anything is written.
+     * 
+     * @param request The request.
+     */
+    public void ValidateRange(ScheduleRangeRequestDTO request) {
+        if (request.to().isBefore(request.from())) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+
+        if (ChronoUnit.DAYS.between(request.from(), request.to()) >= maxDays) {
+            throw new IllegalArgumentException("The range can be at most " + maxDays + " days long");
+        }
+    }
+
+    /**
+     * Returns the ETag of a range of a user's schedule.
+     * 
+     * @param request The request.
+     * @return The quoted ETag.
+     */
+    public String UserRangeETag(ScheduleRangeRequestDTO request) {
+        return scheduleService.UserScheduleETag(request.shortcutOrUsername(), RangeVariant(request, true));
+    }
+
+    /**
+     * Returns the ETag of a range of a course schedule.
+     * 
+     * @param request The request.
+     * @return The quoted ETag.
+     */
+    @Transactional(readOnly = true)
+    public String CourseRangeETag(ScheduleRangeRequestDTO request) {
+        // Checked here, the range itself is written after the response is committed
+        if (courseRepository.findByShortcut(request.shortcutOrUsername()).isEmpty()) {
+            throw new NotFoundException("Course not found");
+        }
+
+        return resourceVersions.ETag(ResourceVersions.CourseScheduleKey(request.shortcutOrUsername()),
+                RangeVariant(request, false));
+    }
+
+    /**
+     * Writes a range of a user's schedule.
+     * 
+     * @param request The request.
+     * @param out     Where the JSON goes.
+     */
+    public void WriteUserRange(ScheduleRangeRequestDTO request, OutputStream out) {
+        ScheduleRangeWriter writer = Begin(request, out);
+        scheduleService.ForEachUserItemInRange(request.shortcutOrUsername(), request.from().atStartOfDay(),
+                RangeEnd(request), request.types(), request.courses(), writer::Item);
+        writer.End();
+    }
+
+    /**
+     * Writes a range of a course schedule.
+     * 
+     * @param request The request.
+     * @param out     Where the JSON goes.
+     */
+    public void WriteCourseRange(ScheduleRangeRequestDTO request, OutputStream out) {
+        ScheduleRangeWriter writer = Begin(request, out);
+        scheduleService.ForEachCourseItemInRange(request.shortcutOrUsername(), request.from().atStartOfDay(),
+                RangeEnd(request), request.types(), writer::Item);
+        writer.End();
+    }
+
+    /**
+     * Returns the ETag variant of a range request. Canonical, so requests for the
+     * same data share it no matter the order of the filters (empty filters
+     * mean all).
+     * 
+     * @param request     The request.
+     * @param withCourses If the course filter applies (user schedules only).
+     * @return The variant.
+     */
+    static String RangeVariant(ScheduleRangeRequestDTO request, boolean withCourses) {
+        Collection<TermType> types = ScheduleService.TypeFilter(request.types());
+        String courses = !withCourses || request.courses() == null || request.courses().isEmpty() ? "*"
+                : request.courses().stream()
+                        .sorted()
+                        .map(shortcut -> shortcut.length() + ":" + shortcut)
+                        .collect(Collectors.joining(","));
+
+        return "range|" + request.shortcutOrUsername() + "|" + request.from() + "|" + request.to() + "|"
+                + types.stream().map(TermType::name).sorted().collect(Collectors.joining(",")) + "|"
+                + courses + "|" + Boolean.TRUE.equals(request.compact());
+    }
+
+    /**
+     * Returns the end of the range, the last microsecond of the last day
+     * (timestamps have microseconds, anything finer would round up to the
+     * next midnight).
+     * 
+     * @param request The request.
+     * @return The end of the range (inclusive).
+     */
+    private static LocalDateTime RangeEnd(ScheduleRangeRequestDTO request) {
+        return request.to().plusDays(1).atStartOfDay().minus(1, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Starts the JSON document on the stream.
+     * 
+     * @param request The request.
+     * @param out     Where the JSON goes.
+     * @return The range writer.
+     */
+    private ScheduleRangeWriter Begin(ScheduleRangeRequestDTO request, OutputStream out) {
+        try {
+            JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8);
+            ScheduleRangeWriter writer = new ScheduleRangeWriter(generator, Boolean.TRUE.equals(request.compact()));
+            writer.Begin(request.from(), request.to());
+            return writer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,13 +2,27 @@ package IIS.wis2_backend.Services.Education;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO;
 import IIS.wis2_backend.DTO.Response.Schedule.ScheduleItemDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO;
 import IIS.wis2_backend.DTO.Response.Schedule.ScheduleWeekDTO;
 import IIS.wis2_backend.Enum.TermType;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
@@ -18,12 +32,21 @@ import IIS.wis2_backend.Models.ScheduleItem;
 import IIS.wis2_backend.Models.Term.Term;
 import IIS.wis2_backend.Models.User.Wis2User;
 import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Education.Schedule.ScheduleEntryRepository;
 import IIS.wis2_backend.Repositories.Education.Schedule.ScheduleItemRepository;
 import IIS.wis2_backend.Repositories.Education.Schedule.ScheduleRepository;
 import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
 
 /**
  * Service for managing schedules.
+ * 
+ * Course schedules are always stored. User schedules are either stored too
+ * (schedule.materialization=links, every new term is linked into the schedule
+ * of every registered student and teacher) or derived when read
+ * (schedule.materialization=derived) from the user's term registrations and
+ * the schedules of the courses they teach, so creating a term costs the same
+ * no matter the class size.
  */
 @Service
 public class ScheduleService {
@@ -47,20 +70,64 @@ public class ScheduleService {
      */
     private final ScheduleRepository scheduleRepository;
 
+    /**
+     * Items of the schedules.
+     */
+    private final ScheduleEntryRepository scheduleEntryRepository;
+
+    /**
+     * Version counters for schedule ETags.
+     */
+    private final ResourceVersions resourceVersions;
+
+    /**
+     * If user schedules are derived on read instead of stored.
+     */
+    private final boolean derived;
+
     /**
      * Constructor for ScheduleService.
      * 
-     * @param userRepository         Repository for user schedules.
-     * @param courseRepository       Repository for course schedules.
-     * @param scheduleItemRepository Repository for schedule items.
-     * @param scheduleRepository     Repository for entire schedules.
+     * @param userRepository          Repository for user schedules.
+     * @param courseRepository        Repository for course schedules.
+     * @param scheduleItemRepository  Repository for schedule items.
+     * @param scheduleRepository      Repository for entire schedules.
+     * @param scheduleEntryRepository Repository for items of schedules.
+     * @param resourceVersions        Resource version counters.
+     * @param materialization         How user schedules are kept (links or
+     *                                derived).
      */
     public ScheduleService(UserRepository userRepository, CourseRepository courseRepository,
-            ScheduleItemRepository scheduleItemRepository, ScheduleRepository scheduleRepository) {
+            ScheduleItemRepository scheduleItemRepository, ScheduleRepository scheduleRepository,
+            ScheduleEntryRepository scheduleEntryRepository, ResourceVersions resourceVersions,
+            @Value("${schedule.materialization}") String materialization) {
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
         this.scheduleItemRepository = scheduleItemRepository;
         this.scheduleRepository = scheduleRepository;
+        this.scheduleEntryRepository = scheduleEntryRepository;
+        this.resourceVersions = resourceVersions;
+        this.derived = "derived".equalsIgnoreCase(materialization);
+    }
+
+    /**
+     * Brings the stored user schedules up to date on startup. While the
+     * schedules were derived nothing was written to them, so after switching
+     * back to links they would miss new terms and keep dropped ones. Does
+     * nothing when the schedules are derived.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void SyncUserSchedules() {
+        if (derived) {
+            return;
+        }
+
+        int removed = scheduleEntryRepository.removeStaleUserItems();
+        int added = scheduleEntryRepository.addAllRegisteredItems() + scheduleEntryRepository.addAllTaughtItems();
+        if (removed > 0 || added > 0) {
+            resourceVersions.BumpAll();
+        }
     }
 
     /**
@@ -75,10 +142,41 @@ public class ScheduleService {
             throw new IllegalArgumentException("weekStartDate must be a Monday");
         }
 
-        Schedule schedule = scheduleRepository.findByUser_Username(username)
+        if (derived) {
+            return GetDerivedItemsForGivenWeek(username, weekStartDate);
+        }
+
+        Long scheduleId = scheduleRepository.findIdByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
-        return GetScheduleItemsForGivenWeek(schedule, weekStartDate);
+        return GetScheduleItemsForGivenWeek(scheduleId, weekStartDate);
+    }
+
+    /**
+     * Returns the ETag of a user's schedule. Derived schedules also change with
+     * any course schedule.
+     * 
+     * @param username Username of the user.
+     * @return The quoted ETag.
+     */
+    public String UserScheduleETag(String username) {
+        String key = ResourceVersions.UserScheduleKey(username);
+        return derived ? resourceVersions.ETag(key, resourceVersions.ETag(ResourceVersions.SCHEDULES))
+                : resourceVersions.ETag(key);
+    }
+
+    /**
+     * Same as above, for other representations of the schedule (e.g. the
+     * calendar feed).
+     * 
+     * @param username Username of the user.
+     * @param variant  What the representation depends on.
+     * @return The quoted ETag.
+     */
+    public String UserScheduleETag(String username, String variant) {
+        String key = ResourceVersions.UserScheduleKey(username);
+        return derived ? resourceVersions.ETag(key, resourceVersions.ETag(ResourceVersions.SCHEDULES) + variant)
+                : resourceVersions.ETag(key, variant);
     }
 
     /**
@@ -93,10 +191,10 @@ public class ScheduleService {
             throw new IllegalArgumentException("weekStartDate must be a Monday");
         }
 
-        Schedule schedule = scheduleRepository.findByCourse_Shortcut(shortcut)
+        Long scheduleId = scheduleRepository.findIdByCourseShortcut(shortcut)
                 .orElseThrow(() -> new NotFoundException("Course not found"));
 
-        return GetScheduleItemsForGivenWeek(schedule, weekStartDate);
+        return GetScheduleItemsForGivenWeek(scheduleId, weekStartDate);
     }
 
     /**
@@ -106,29 +204,200 @@ public class ScheduleService {
      * @param weekStartDate Start date of the week.
      * @return ScheduleWeekDTO representing the schedule items.
      */
-    private ScheduleWeekDTO GetScheduleItemsForGivenWeek(Schedule schedule, LocalDate weekStartDate) {
+    private ScheduleWeekDTO GetScheduleItemsForGivenWeek(Long scheduleId, LocalDate weekStartDate) {
         LocalDateTime weekEndDate = weekStartDate.plusDays(7).atStartOfDay();
-        List<ScheduleItemDTO> items = schedule.getItems()
-                .stream()
-                .filter(item -> !item.getEndDate().isBefore(weekStartDate.atStartOfDay()) &&
-                        !item.getStartDate().isAfter(weekEndDate))
-                .map(this::ScheduleItemToDTO)
-                .collect(Collectors.toList());
+        List<ScheduleItemDTO> items = scheduleEntryRepository.findItemsInRange(scheduleId,
+                weekStartDate.atStartOfDay(), weekEndDate);
         return new ScheduleWeekDTO(items);
     }
 
     /**
-     * Convert ScheduleItem to ScheduleItemDTO.
+     * Derives a user's schedule for the given week from the terms they're
+     * registered for and the courses they teach.
+     * 
+     * @param username      Username of the user.
+     * @param weekStartDate Start date of the week.
+     * @return ScheduleWeekDTO representing the schedule items.
+     */
+    private ScheduleWeekDTO GetDerivedItemsForGivenWeek(String username, LocalDate weekStartDate) {
+        Long userId = userRepository.findByUsername(username)
+                .map(Wis2User::getId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        LocalDateTime from = weekStartDate.atStartOfDay();
+        LocalDateTime to = weekStartDate.plusDays(7).atStartOfDay();
+
+        // A set, like the stored schedules (a teacher can be registered for their own term)
+        Set<ScheduleItemDTO> items = new LinkedHashSet<>(
+                scheduleItemRepository.findRegisteredItemsInRange(userId, from, to));
+        items.addAll(scheduleEntryRepository.findTaughtItemsInRange(userId, from, to));
+
+        List<ScheduleItemDTO> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparing(ScheduleItemDTO::startDate));
+        return new ScheduleWeekDTO(sorted);
+    }
+
+    /**
+     * Passes every item of a user's schedule that hasn't ended before the given
+     * time to the action. The items are streamed from the database, never all
+     * in memory at once.
+     * 
+     * @param username Username of the user.
+     * @param from     Items ending before this are left out.
+     * @param action   What to do with each item.
+     */
+    @Transactional(readOnly = true)
+    public void ForEachUserItem(String username, LocalDateTime from, Consumer<ScheduleFeedItemDTO> action) {
+        if (!derived) {
+            Long scheduleId = scheduleRepository.findIdByUsername(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+            try (Stream<ScheduleFeedItemDTO> items = scheduleEntryRepository.streamFeedItems(scheduleId, from)) {
+                items.forEach(action);
+            }
+            return;
+        }
+
+        Long userId = userRepository.findByUsername(username)
+                .map(Wis2User::getId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        // Only the IDs are kept, to skip the terms a teacher is registered for in their own course
+        Set<Long> seen = new HashSet<>();
+        try (Stream<ScheduleFeedItemDTO> items = scheduleItemRepository.streamRegisteredFeedItems(userId, from)) {
+            items.forEach(item -> {
+                seen.add(item.id());
+                action.accept(item);
+            });
+        }
+        try (Stream<ScheduleFeedItemDTO> items = scheduleEntryRepository.streamTaughtFeedItems(userId, from)) {
+            items.filter(item -> seen.add(item.id())).forEach(action);
+        }
+    }
+
+    /**
+     * Passes every item of a course schedule that hasn't ended before the given
+     * time to the action, streamed like ForEachUserItem.
      * 
-     * @param item Schedule item.
-     * @return ScheduleItemDTO representation.
+     * @param shortcut Unique shortcut of the course.
+     * @param from     Items ending before this are left out.
+     * @param action   What to do with each item.
      */
-    private ScheduleItemDTO ScheduleItemToDTO(ScheduleItem item) {
-        return new ScheduleItemDTO(
-                item.getStartDate(),
-                item.getEndDate(),
-                item.getCourseShortcut(),
-                item.getType());
+    @Transactional(readOnly = true)
+    public void ForEachCourseItem(String shortcut, LocalDateTime from, Consumer<ScheduleFeedItemDTO> action) {
+        Long scheduleId = scheduleRepository.findIdByCourseShortcut(shortcut)
+                .orElseThrow(() -> new NotFoundException("Course not found"));
+        try (Stream<ScheduleFeedItemDTO> items = scheduleEntryRepository.streamFeedItems(scheduleId, from)) {
+            items.forEach(action);
+        }
+    }
+
+    /**
+     * Passes every item of a user's schedule overlapping the given range to the
+     * action, ordered by start date and streamed from the database. Derived
+     * schedules merge the registered and taught items on the fly.
+     * 
+     * @param username Username of the user.
+     * @param from     Start of the range.
+     * @param to       End of the range (inclusive).
+     * @param types    Only items of these types (all if null or empty).
+     * @param courses  Only items of these courses (all if null or empty).
+     * @param action   What to do with each item.
+     */
+    @Transactional(readOnly = true)
+    public void ForEachUserItemInRange(String username, LocalDateTime from, LocalDateTime to,
+            Collection<TermType> types, Collection<String> courses, Consumer<ScheduleRangeItemDTO> action) {
+        Collection<TermType> typeFilter = TypeFilter(types);
+        boolean allCourses = courses == null || courses.isEmpty();
+        Collection<String> courseFilter = allCourses ? List.of("") : courses;
+
+        if (!derived) {
+            Long scheduleId = scheduleRepository.findIdByUsername(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+            try (Stream<ScheduleRangeItemDTO> items = scheduleEntryRepository.streamItemsInRange(scheduleId, from, to,
+                    typeFilter, allCourses, courseFilter)) {
+                items.forEach(action);
+            }
+            return;
+        }
+
+        Long userId = userRepository.findByUsername(username)
+                .map(Wis2User::getId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        try (Stream<ScheduleRangeItemDTO> registered = scheduleItemRepository.streamRegisteredItemsInRange(userId,
+                from, to, typeFilter, allCourses, courseFilter);
+                Stream<ScheduleRangeItemDTO> taught = scheduleEntryRepository.streamTaughtItemsInRange(userId,
+                        from, to, typeFilter, allCourses, courseFilter)) {
+            ForEachMerged(registered.iterator(), taught.iterator(), action);
+        }
+    }
+
+    /**
+     * Passes every item of a course schedule overlapping the given range to the
+     * action, ordered by start date and streamed from the database.
+     * 
+     * @param shortcut Unique shortcut of the course.
+     * @param from     Start of the range.
+     * @param to       End of the range (inclusive).
+     * @param types    Only items of these types (all if null or empty).
+     * @param action   What to do with each item.
+     */
+    @Transactional(readOnly = true)
+    public void ForEachCourseItemInRange(String shortcut, LocalDateTime from, LocalDateTime to,
+            Collection<TermType> types, Consumer<ScheduleRangeItemDTO> action) {
+        Long scheduleId = scheduleRepository.findIdByCourseShortcut(shortcut)
+                .orElseThrow(() -> new NotFoundException("Course not found"));
+        try (Stream<ScheduleRangeItemDTO> items = scheduleEntryRepository.streamItemsInRange(scheduleId, from, to,
+                TypeFilter(types), true, List.of(""))) {
+            items.forEach(action);
+        }
+    }
+
+    /**
+     * Returns the types to query for.
+     * 
+     * @param types Requested types (all if null or empty).
+     * @return The types, never empty.
+     */
+    static Collection<TermType> TypeFilter(Collection<TermType> types) {
+        return types == null || types.isEmpty() ? EnumSet.allOf(TermType.class) : types;
+    }
+
+    /**
+     * Merges two item sequences ordered by start date into one. An item in both
+     * (a teacher registered for a term of their course) is passed only once,
+     * both copies have the same start, so only the IDs seen at the current start
+     * are remembered.
+     * 
+     * @param first  The first sequence.
+     * @param second The second sequence.
+     * @param action What to do with each item.
+     */
+    static void ForEachMerged(Iterator<ScheduleRangeItemDTO> first, Iterator<ScheduleRangeItemDTO> second,
+            Consumer<ScheduleRangeItemDTO> action) {
+        ScheduleRangeItemDTO a = first.hasNext() ? first.next() : null;
+        ScheduleRangeItemDTO b = second.hasNext() ? second.next() : null;
+        LocalDateTime seenAt = null;
+        Set<Long> seen = new HashSet<>();
+
+        while (a != null || b != null) {
+            ScheduleRangeItemDTO next;
+            if (b == null || (a != null && !a.startDate().isAfter(b.startDate()))) {
+                next = a;
+                a = first.hasNext() ? first.next() : null;
+            } else {
+                next = b;
+                b = second.hasNext() ? second.next() : null;
+            }
+
+            if (!next.startDate().equals(seenAt)) {
+                seenAt = next.startDate();
+                seen.clear();
+            }
+            if (seen.add(next.id())) {
+                action.accept(next);
+            }
+        }
     }
 
     /**
@@ -140,8 +409,6 @@ public class ScheduleService {
      * @param type the type of the term
      */
     public void CreateScheduleForTerm(Term term, TermType type) {
-        Set<Wis2User> students = userRepository.findByStudentTerms_Term_Id(term.getId());
-        List<Wis2User> teachers = userRepository.findAllByTaughtCourses_Id(term.getCourse().getId());
         Course course = term.getCourse();
 
         LocalDateTime startDate = term.getDate();
@@ -157,30 +424,34 @@ public class ScheduleService {
                 .type(type)
                 .build();
 
-        scheduleItemRepository.save(scheduleItem);
+        scheduleItemRepository.saveAndFlush(scheduleItem);
         System.out.println("Created schedule item for term ID " + term.getId());
 
-        // Associate with everything and persist the schedules (owner of the join table)
-        for (Wis2User student : students) {
-            Schedule s = student.getSchedule();
-            if (s == null)
-                continue;
-            s.getItems().add(scheduleItem);
-            scheduleRepository.save(s);
+        Schedule courseSchedule = course.getSchedule();
+        if (courseSchedule != null) {
+            scheduleEntryRepository.addItem(courseSchedule.getId(), scheduleItem.getId());
+            resourceVersions.Bump(ResourceVersions.CourseScheduleKey(course.getShortcut()));
+        }
+
+        // Derived user schedules pick the item up from the course schedule and registrations
+        if (derived) {
+            resourceVersions.Bump(ResourceVersions.SCHEDULES);
+            return;
         }
 
+        // All registered students at once, then the (few) teachers one by one
+        scheduleEntryRepository.addItemToRegistered(scheduleItem.getId());
+        resourceVersions.Bump(userRepository.findRegisteredUsernamesByTermId(term.getId()).stream()
+                .map(ResourceVersions::UserScheduleKey)
+                .toList());
+
+        List<Wis2User> teachers = userRepository.findAllByTaughtCourses_Id(course.getId());
         for (Wis2User teacher : teachers) {
             Schedule s = teacher.getSchedule();
             if (s == null)
                 continue;
-            s.getItems().add(scheduleItem);
-            scheduleRepository.save(s);
-        }
-
-        Schedule courseSchedule = course.getSchedule();
-        if (courseSchedule != null) {
-            courseSchedule.getItems().add(scheduleItem);
-            scheduleRepository.save(courseSchedule);
+            scheduleEntryRepository.addItem(s.getId(), scheduleItem.getId());
+            resourceVersions.Bump(ResourceVersions.UserScheduleKey(teacher.getUsername()));
         }
     }
 
@@ -191,13 +462,17 @@ public class ScheduleService {
      * @param user The user to add it to.
      */
     public void AddTermToUserSchedule(Term term, Wis2User user) {
+        if (derived) {
+            resourceVersions.Bump(ResourceVersions.UserScheduleKey(user.getUsername()));
+            return;
+        }
+
         ScheduleItem scheduleItem = scheduleItemRepository.findByTerm_Id(term.getId())
                 .orElseThrow(() -> new NotFoundException("Schedule item not found for term"));
 
         Schedule userSchedule = user.getSchedule();
-        if (userSchedule != null && !userSchedule.getItems().contains(scheduleItem)) {
-            userSchedule.getItems().add(scheduleItem);
-            scheduleRepository.save(userSchedule);
+        if (userSchedule != null && scheduleEntryRepository.addItem(userSchedule.getId(), scheduleItem.getId()) > 0) {
+            resourceVersions.Bump(ResourceVersions.UserScheduleKey(user.getUsername()));
         }
     }
 
@@ -208,6 +483,11 @@ public class ScheduleService {
      * @param user The user to remove it from.
      */
     public void RemoveTermFromUserSchedule(Term term, Wis2User user) {
+        if (derived) {
+            resourceVersions.Bump(ResourceVersions.UserScheduleKey(user.getUsername()));
+            return;
+        }
+
         ScheduleItem scheduleItem = scheduleItemRepository.findByTerm_Id(term.getId())
                 .orElse(null);
 
@@ -216,9 +496,38 @@ public class ScheduleService {
         }
 
         Schedule userSchedule = user.getSchedule();
-        if (userSchedule != null) {
-            userSchedule.getItems().remove(scheduleItem);
-            scheduleRepository.save(userSchedule);
+        if (userSchedule != null && scheduleEntryRepository.removeItem(userSchedule.getId(), scheduleItem.getId()) > 0) {
+            resourceVersions.Bump(ResourceVersions.UserScheduleKey(user.getUsername()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds all items of a course to the schedule of its new teacher.
+     * 
+     * @param course  The course.
+     * @param teacher The new teacher.
+     */
+    public void AddCourseToTeacherSchedule(Course course, Wis2User teacher) {
+        Schedule teacherSchedule = teacher.getSchedule();
+        if (!derived && teacherSchedule != null && course.getSchedule() != null) {
+            scheduleEntryRepository.copyItems(course.getSchedule().getId(), teacherSchedule.getId());
+        }
+
+        resourceVersions.Bump(ResourceVersions.UserScheduleKey(teacher.getUsername()));
+    }
+
+    /**
+     * Removes all items of a course from the schedule of its former teacher.
+     * 
+     * @param course  The course.
+     * @param teacher The former teacher.
+     */
+    public void RemoveCourseFromTeacherSchedule(Course course, Wis2User teacher) {
+        Schedule teacherSchedule = teacher.getSchedule();
+        if (!derived && teacherSchedule != null) {
+            scheduleEntryRepository.removeCourseItems(teacherSchedule.getId(), course.getShortcut());
+        }
+
+        resourceVersions.Bump(ResourceVersions.UserScheduleKey(teacher.getUsername()));
+    }
+}
@@ -1,10 +1,10 @@
 package IIS.wis2_backend.Services.Education;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +23,7 @@ import IIS.wis2_backend.Models.Room.Room;
 import IIS.wis2_backend.Models.Room.StudyRoom;
 import IIS.wis2_backend.Models.Term.*;
 import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
 import IIS.wis2_backend.Repositories.Room.RoomRepository;
 import IIS.wis2_backend.Repositories.Room.StudyRoomRepository;
 import IIS.wis2_backend.Repositories.CourseRepository;
@@ -40,6 +41,14 @@ import IIS.wis2_backend.Repositories.User.UserRepository;
 @Service
 @Transactional
 public class TermService {
+    /**
+     * Registers all approved students of the course for a term. Filters for
+     * final exams are appended in RegisterTerm.
+     */
+    private static final String REGISTER_APPROVED_SQL = "INSERT INTO student_term (student_id, term_id, version) "
+            + "SELECT sc.student_id, :termId, 0 FROM student_course sc "
+            + "WHERE sc.course_id = :courseId AND sc.status = 'APPROVED'";
+
     /**
      * Term repository (generic read/delete/update).
      */
@@ -90,6 +99,16 @@ public class TermService {
      */
     private final StudentTermRepository studentTermRepository;
 
+    /**
+     * Version counters for ETags of the course term lists.
+     */
+    private final ResourceVersions resourceVersions;
+
+    /**
+     * For set-based autoregistration.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
     /**
      * Constructor for TermService.
      *
@@ -104,12 +123,15 @@ public class TermService {
      * @param lectureRepository      the lecture repository
      * @param courseRepository       the course repository
      * @param studentTermRepository  the student term repository
+     * @param resourceVersions       the resource version counters
+     * @param jdbcTemplate           JDBC template for bulk inserts
      */
     public TermService(TermRepository termRepository, ExamRepository examRepository,
             MidtermExamRepository midtermExamRepository, ScheduleService scheduleService,
             UserRepository userRepository, StudyRoomRepository studyRoomRepository, LabRepository labRepository,
             LectureRepository lectureRepository, CourseRepository courseRepository,
-            StudentTermRepository studentTermRepository) {
+            StudentTermRepository studentTermRepository, ResourceVersions resourceVersions,
+            NamedParameterJdbcTemplate jdbcTemplate) {
         this.termRepository = termRepository;
         this.examRepository = examRepository;
         this.midtermExamRepository = midtermExamRepository;
@@ -120,6 +142,8 @@ public class TermService {
         this.lectureRepository = lectureRepository;
         this.courseRepository = courseRepository;
         this.studentTermRepository = studentTermRepository;
+        this.resourceVersions = resourceVersions;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
@@ -162,17 +186,10 @@ public class TermService {
 
         if (dto.getAutoregister()) {
             RegisterTerm(term);
-            // Save again to persist students
-            if (type == TermType.MIDTERM_EXAM) {
-                term = midtermExamRepository.save((MidtermExam) term);
-            } else if (type == TermType.LAB) {
-                term = labRepository.save((Lab) term);
-            } else if (type == TermType.LECTURE) {
-                term = lectureRepository.save((Lecture) term);
-            }
         }
 
         scheduleService.CreateScheduleForTerm(term, type);
+        resourceVersions.Bump(ResourceVersions.CourseTermsKey(course.getShortcut()));
 
         return ConvertToLightweightDTO(term, type);
     }
@@ -266,9 +283,9 @@ public class TermService {
 
         if (dto.getAutoregister()) {
             RegisterTerm(exam);
-            exam = examRepository.save(exam);
         }
         scheduleService.CreateScheduleForTerm(exam, TermType.EXAM);
+        resourceVersions.Bump(ResourceVersions.CourseTermsKey(course.getShortcut()));
 
         return ConvertToLightweightDTO(exam, TermType.EXAM);
     }
@@ -279,7 +296,10 @@ public class TermService {
      * - LAB/LECTURE: Auto-registers all approved students
      * - EXAM: Auto-registers only eligible students (based on course end type)
      * 
-     * @param term the term to register
+     * Done with one INSERT ... SELECT from the approved enrollments, so no
+     * StudentTerm entities are built (and the term isn't saved again).
+     * 
+     * @param term the term to register (already saved)
      */
     private void RegisterTerm(Term term) {
         TermType termType = term.getTermType();
@@ -291,53 +311,21 @@ public class TermService {
             throw new IllegalArgumentException("Cannot autoregister: number of enrolled students exceeds term (room) capacity.");
         }
 
-        // For midterms, labs, and lectures - register all approved students
-        if (termType == TermType.MIDTERM_EXAM || termType == TermType.LAB || termType == TermType.LECTURE) {
-            RegisterForAll(term);
-            return;
-        }
+        String sql = REGISTER_APPROVED_SQL;
 
-        // For final exams - only register eligible students
+        // For final exams - only register eligible students (same rules as CanRegisterForFinalExam)
         if (termType == TermType.EXAM) {
             CourseEndType endType = course.getCompletedBy();
-            Set<StudentCourse> studentCourses = course.getStudentCourses();
-            Set<StudentTerm> students = new HashSet<StudentTerm>();
-
-            // Register each student who is eligible to take the exam
-            for (StudentCourse sc : studentCourses) {
-                if (sc.getStatus() == RequestStatus.APPROVED && CanRegisterForFinalExam(sc, endType)) {
-                    StudentTerm studentTerm = StudentTerm.builder()
-                            .student(sc.getStudent())
-                            .term(term)
-                            .build();
-                    students.add(studentTerm);
-                }
-            }
-
-            term.setStudentTerms(students);
-        }
-    }
-
-    /**
-     * Registers the given midterm/lecture/lab to all students who have this course.
-     * 
-     * @param term the midterm/lecture/lab to register
-     */
-    private void RegisterForAll(Term nonExam) {
-        Course course = nonExam.getCourse();
-        Set<StudentCourse> studentCourses = course.getStudentCourses();
-        Set<StudentTerm> students = nonExam.getStudentTerms();
-        for (StudentCourse sc : studentCourses) {
-            if (sc.getStatus() == RequestStatus.APPROVED) {
-                StudentTerm studentTerm = StudentTerm.builder()
-                        .student(sc.getStudent())
-                        .term(nonExam)
-                        .build();
-                students.add(studentTerm);
+            if (endType == CourseEndType.EXAM) {
+                sql += " AND sc.completed = false";
+            } else if (endType == CourseEndType.UNIT_CREDIT_EXAM) {
+                sql += " AND COALESCE(sc.unit_credit, false) = true AND sc.completed = false";
+            } else {
+                throw new IllegalArgumentException("Invalid course end type for final exam registration: " + endType.name());
             }
         }
 
-        nonExam.setStudentTerms(students);
+        jdbcTemplate.update(sql, Map.of("termId", term.getId(), "courseId", course.getId()));
     }
 
     /**
@@ -486,6 +474,7 @@ public class TermService {
 
         // Update schedule
         scheduleService.AddTermToUserSchedule(term, student);
+        resourceVersions.Bump(ResourceVersions.CourseTermsKey(course.getShortcut()));
     }
 
     /**
@@ -520,6 +509,7 @@ public class TermService {
 
         // Delete the StudentTerm entity using custom query
         studentTermRepository.deleteByTermIdAndStudentId(termId, student.getId());
+        resourceVersions.Bump(ResourceVersions.CourseTermsKey(term.getCourse().getShortcut()));
     }
 
     /**
@@ -101,7 +101,6 @@ public class MockDBService {
 
 		if (!userRepository.existsByEmail(email)) {
 			Schedule schedule = Schedule.builder()
-					.items(new HashSet<>())
 					.build();
 
 			Wis2User teacher = Wis2User.builder()
@@ -139,7 +138,6 @@ public class MockDBService {
 	private void InsertMockStudentIfNotExists(String firstName, String lastName, String email) {
 		if (!userRepository.existsByEmail(email)) {
 			Schedule schedule = Schedule.builder()
-					.items(new HashSet<>())
 					.build();
 
 			Wis2User student = Wis2User.builder()
@@ -185,7 +183,6 @@ public class MockDBService {
 			// Create an empty schedule for the course
 			Schedule schedule = Schedule.builder()
 					.course(course)
-					.items(new HashSet<>())
 					.build();
 
 			if (schedule == null) {
@@ -257,6 +254,9 @@ public class MockDBService {
 		// create special teacher with courses and students
 		InsertSpecialTeacher();
 		InsertFrontendTestScenario();
+
+		// Enrollments above are inserted directly, sync the seat counters
+		courseRepository.recountEnrolledStudents();
 	}
 
 	/**
@@ -502,7 +502,6 @@ public class MockDBService {
 		String teacherEmail = "special.teacher@example.com";
 		if (!userRepository.existsByEmail(teacherEmail)) {
 			Schedule schedule = Schedule.builder()
-					.items(new HashSet<>())
 					.build();
 
 			Wis2User teacher = Wis2User.builder()
@@ -545,7 +544,6 @@ public class MockDBService {
 
 			Schedule schedule = Schedule.builder()
 					.course(course)
-					.items(new HashSet<>())
 					.build();
 			course.setSchedule(schedule);
 			courseRepository.save(course);
@@ -557,7 +555,6 @@ public class MockDBService {
 			String studentEmail = "special.student" + i + "@example.com";
 			if (!userRepository.existsByEmail(studentEmail)) {
 				Schedule schedule = Schedule.builder()
-						.items(new HashSet<>())
 						.build();
 
 				Wis2User student = Wis2User.builder()
@@ -1,8 +1,12 @@
 package IIS.wis2_backend.Services;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +34,7 @@ public class NotificationService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final StudentCourseRepository studentCourseRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Transactional(readOnly = true)
     public List<NotificationResponseDTO> getUserNotifications(Long userId) {
@@ -90,6 +95,26 @@ public class NotificationService {
         notificationRepository.saveAll(notifications);
     }
 
+    // One INSERT ... SELECT for all recipients, used by bulk operations
+    @Transactional
+    public int sendBulkCourseNotification(Long senderId, Long courseId, Collection<Long> recipientIds,
+            String message) {
+        if (recipientIds.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("senderId", senderId)
+                .addValue("courseId", courseId)
+                .addValue("recipientIds", recipientIds)
+                .addValue("message", message)
+                .addValue("createdAt", LocalDateTime.now());
+
+        return jdbcTemplate.update("INSERT INTO notification (sender_id, recipient_id, message, created_at, "
+                + "is_read, course_id) SELECT :senderId, id, :message, :createdAt, false, :courseId "
+                + "FROM users WHERE id IN (:recipientIds)", params);
+    }
+
     @Transactional
     public void markAsRead(Long userId, Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
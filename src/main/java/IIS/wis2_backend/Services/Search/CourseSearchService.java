@@ -0,0 +1,414 @@
+package IIS.wis2_backend.Services.Search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import IIS.wis2_backend.DTO.Response.Course.LightweightCourseDTO;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Events.CourseChangedEvent;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Utils.TrigramUtils;
+
+/**
+ * In-memory trigram index over approved courses (name, shortcut, description).
+ * Rebuilt from the database on startup and kept in sync by re-reading a
+ * course after every committed CourseChangedEvent, so rolled back changes
+ * never reach the index.
+ * Results are ranked by how many of the query trigrams a course contains, which
+ * gives prefix matching and tolerance to small typos.
+ * 
+ * A course whose name or shortcut contains the query (case and diacritics
+ * insensitive) always matches with the full score, so every course the old
+ * substring filter found is still found, on top of the fuzzy matches. The
+ * candidates for that check come from a second index of short substrings, a
+ * query never scans all courses.
+ */
+@Service
+public class CourseSearchService {
+    /**
+     * Maximum number of results a single search returns. Also bounds the IDs the
+     * catalog filter sends to the database.
+     */
+    public static final int MAX_RESULTS = 1000;
+
+    /**
+     * Minimum score for a course to be returned.
+     */
+    private static final double MIN_SCORE = 0.3;
+
+    /**
+     * Field weights. Shortcut hits rank above name hits, description hits last.
+     */
+    private static final double SHORTCUT_WEIGHT = 1.0;
+    private static final double NAME_WEIGHT = 0.9;
+    private static final double DESCRIPTION_WEIGHT = 0.6;
+
+    /**
+     * Bonus for a course whose shortcut or name starts with the query.
+     */
+    private static final double PREFIX_BONUS = 0.5;
+
+    /**
+     * Score of a course whose shortcut or name contains the query.
+     */
+    private static final double SUBSTRING_SCORE = 1.0;
+
+    /**
+     * Length of the substrings in the substring index (shorter ones are indexed
+     * too, for short queries).
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * One indexed course with its precomputed trigram sets.
+     */
+    private record IndexedCourse(
+            LightweightCourseDTO course,
+            String normalizedShortcut,
+            String normalizedName,
+            Set<String> shortcutTrigrams,
+            Set<String> nameTrigrams,
+            Set<String> descriptionTrigrams) {
+    }
+
+    /**
+     * A search hit.
+     */
+    public record ScoredCourse(LightweightCourseDTO course, double score) {
+    }
+
+    /**
+     * Indexed courses by ID.
+     */
+    private final Map<Long, IndexedCourse> documents = new ConcurrentHashMap<>();
+
+    /**
+     * Inverted index: trigram -> IDs of courses containing it in any field.
+     */
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Substring index: every substring of up to GRAM_LENGTH characters of the
+     * normalized shortcut and name -> IDs of courses containing it.
+     */
+    private final Map<String, Set<Long>> substrings = new ConcurrentHashMap<>();
+
+    /**
+     * Course repository to rebuild the index.
+     */
+    private final CourseRepository courseRepository;
+
+    /**
+     * Constructor for CourseSearchService.
+     * 
+     * @param courseRepository Course repository.
+     */
+    public CourseSearchService(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    /**
+     * Rebuilds the index from all approved courses once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void Rebuild() {
+        documents.clear();
+        postings.clear();
+        substrings.clear();
+        courseRepository.findByStatus(RequestStatus.APPROVED).forEach(this::Index);
+    }
+
+    /**
+     * Re-indexes a course after its change has been committed. The course is
+     * read again, a deleted course is removed from the index. Runs before the
+     * catalog ETag is bumped.
+     * 
+     * @param event The course change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void OnCourseChanged(CourseChangedEvent event) {
+        courseRepository.findById(event.courseId())
+                .ifPresentOrElse(this::Index, () -> Remove(event.courseId()));
+    }
+
+    /**
+     * Indexes (or re-indexes) a course. Courses that aren't approved are removed
+     * from the index instead.
+     * 
+     * @param course The course to index.
+     */
+    public synchronized void Index(Course course) {
+        Remove(course.getId());
+        if (course.getStatus() != RequestStatus.APPROVED) {
+            return;
+        }
+
+        IndexedCourse document = new IndexedCourse(
+                new LightweightCourseDTO(
+                        course.getId(),
+                        course.getName(),
+                        course.getPrice(),
+                        course.getShortcut(),
+                        course.getCompletedBy().name()),
+                TrigramUtils.Normalize(course.getShortcut()),
+                TrigramUtils.Normalize(course.getName()),
+                TrigramUtils.Trigrams(course.getShortcut()),
+                TrigramUtils.Trigrams(course.getName()),
+                TrigramUtils.Trigrams(course.getDescription()));
+
+        documents.put(course.getId(), document);
+        AllTrigrams(document).forEach(trigram -> Add(postings, trigram, course.getId()));
+        AllGrams(document).forEach(gram -> Add(substrings, gram, course.getId()));
+    }
+
+    /**
+     * Removes a course from the index.
+     * 
+     * @param courseId ID of the course.
+     */
+    public synchronized void Remove(Long courseId) {
+        IndexedCourse document = documents.remove(courseId);
+        if (document == null) {
+            return;
+        }
+
+        AllTrigrams(document).forEach(trigram -> Remove(postings, trigram, courseId));
+        AllGrams(document).forEach(gram -> Remove(substrings, gram, courseId));
+    }
+
+    /**
+     * Searches the index.
+     * 
+     * @param query The search query.
+     * @param limit Maximum number of results (at most MAX_RESULTS).
+     * @return Matching courses, best match first.
+     */
+    public List<ScoredCourse> Search(String query, int limit) {
+        return Hits(query).stream()
+                .limit(Math.min(limit, MAX_RESULTS))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Searches the index and returns the IDs of the best matching courses, for
+     * filtering the catalog.
+     * 
+     * @param query The search query.
+     * @return IDs of at most MAX_RESULTS matching courses, best match first.
+     */
+    public List<Long> SearchIds(String query) {
+        return Hits(query).stream()
+                .limit(MAX_RESULTS)
+                .map(hit -> hit.course().getId())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds and ranks all courses matching the query.
+     * 
+     * @param query The search query.
+     * @return Matching courses, best match first.
+     */
+    private List<ScoredCourse> Hits(String query) {
+        String normalizedQuery = TrigramUtils.Normalize(query.trim());
+        if (normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+
+        // Collect candidates that share at least one trigram with the query
+        Set<String> queryTrigrams = TrigramUtils.QueryTrigrams(query);
+        Set<Long> candidates = new HashSet<>();
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+
+        // Courses that may contain the query, only they get the substring check
+        Set<Long> substringCandidates = SubstringCandidates(normalizedQuery);
+        candidates.addAll(substringCandidates);
+
+        List<ScoredCourse> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            IndexedCourse document = documents.get(id);
+            if (document == null) {
+                continue;
+            }
+
+            boolean substring = substringCandidates.contains(id)
+                    && (document.normalizedShortcut().contains(normalizedQuery)
+                            || document.normalizedName().contains(normalizedQuery));
+
+            double score = Score(document, queryTrigrams, normalizedQuery);
+            if (substring) {
+                score = Math.max(score, SUBSTRING_SCORE);
+            }
+            if (score >= MIN_SCORE) {
+                hits.add(new ScoredCourse(document.course(), score));
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(ScoredCourse::score).reversed()
+                .thenComparing(hit -> hit.course().getName()));
+        return hits;
+    }
+
+    /**
+     * Returns the courses containing every substring of the query of the index
+     * length, a superset of the courses containing the whole query.
+     * 
+     * @param normalizedQuery The normalized query.
+     * @return IDs of the candidate courses.
+     */
+    private Set<Long> SubstringCandidates(String normalizedQuery) {
+        Set<Long> candidates = null;
+        for (String gram : Grams(normalizedQuery, Math.min(GRAM_LENGTH, normalizedQuery.length()))) {
+            Set<Long> ids = substrings.get(gram);
+            if (ids == null) {
+                return new HashSet<>();
+            }
+
+            if (candidates == null) {
+                candidates = new HashSet<>(ids);
+            } else {
+                candidates.retainAll(ids);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+
+        return candidates != null ? candidates : new HashSet<>();
+    }
+
+    /**
+     * Scores a course against the query.
+     * 
+     * @param document        The indexed course.
+     * @param queryTrigrams   Trigrams of the query.
+     * @param normalizedQuery The normalized query (for prefix checks).
+     * @return The relevance score.
+     */
+    private double Score(IndexedCourse document, Set<String> queryTrigrams, String normalizedQuery) {
+        double score = Math.max(
+                SHORTCUT_WEIGHT * Coverage(queryTrigrams, document.shortcutTrigrams()),
+                Math.max(
+                        NAME_WEIGHT * Coverage(queryTrigrams, document.nameTrigrams()),
+                        DESCRIPTION_WEIGHT * Coverage(queryTrigrams, document.descriptionTrigrams())));
+
+        if (!normalizedQuery.isEmpty() && (document.normalizedShortcut().startsWith(normalizedQuery)
+                || document.normalizedName().startsWith(normalizedQuery))) {
+            score += PREFIX_BONUS;
+        }
+
+        return score;
+    }
+
+    /**
+     * Fraction of the query trigrams contained in the field.
+     * 
+     * @param queryTrigrams Trigrams of the query.
+     * @param fieldTrigrams Trigrams of the field.
+     * @return Value between 0 and 1.
+     */
+    private double Coverage(Set<String> queryTrigrams, Set<String> fieldTrigrams) {
+        if (queryTrigrams.isEmpty() || fieldTrigrams.isEmpty()) {
+            return 0.0;
+        }
+
+        long shared = queryTrigrams.stream().filter(fieldTrigrams::contains).count();
+        return (double) shared / queryTrigrams.size();
+    }
+
+    /**
+     * Returns the trigrams of all fields of an indexed course.
+     * 
+     * @param document The indexed course.
+     * @return Union of the field trigram sets.
+     */
+    private Set<String> AllTrigrams(IndexedCourse document) {
+        Set<String> all = new HashSet<>(document.shortcutTrigrams());
+        all.addAll(document.nameTrigrams());
+        all.addAll(document.descriptionTrigrams());
+        return all;
+    }
+
+    /**
+     * Returns the substrings of up to GRAM_LENGTH characters of the normalized
+     * shortcut and name of an indexed course.
+     * 
+     * @param document The indexed course.
+     * @return Set of substrings.
+     */
+    private Set<String> AllGrams(IndexedCourse document) {
+        Set<String> all = new HashSet<>();
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            all.addAll(Grams(document.normalizedShortcut(), length));
+            all.addAll(Grams(document.normalizedName(), length));
+        }
+        return all;
+    }
+
+    /**
+     * Returns all substrings of the given length.
+     * 
+     * @param text   The text.
+     * @param length Length of the substrings.
+     * @return Set of substrings, empty if the text is shorter.
+     */
+    private static Set<String> Grams(String text, int length) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + length <= text.length(); i++) {
+            grams.add(text.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    /**
+     * Adds a course to the posting list of a key.
+     * 
+     * @param index    The index.
+     * @param key      The trigram or substring.
+     * @param courseId ID of the course.
+     */
+    private static void Add(Map<String, Set<Long>> index, String key, Long courseId) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(courseId);
+    }
+
+    /**
+     * Removes a course from the posting list of a key, dropping empty lists.
+     * 
+     * @param index    The index.
+     * @param key      The trigram or substring.
+     * @param courseId ID of the course.
+     */
+    private static void Remove(Map<String, Set<Long>> index, String key, Long courseId) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(courseId);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
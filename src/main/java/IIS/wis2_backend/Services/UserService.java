@@ -6,8 +6,9 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.NotImplementedException;
-import org.springframework.data.util.Pair;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import IIS.wis2_backend.DTO.Request.Auth.RegisterDTO;
 import IIS.wis2_backend.DTO.Request.Room.OfficeShortcutDTO;
@@ -27,6 +28,7 @@ import IIS.wis2_backend.DTO.Response.User.VerySmallUserDTO;
 import IIS.wis2_backend.Enum.Roles;
 import IIS.wis2_backend.Enum.PendingRequestType;
 import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Events.CourseChangedEvent;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.InternalException;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
 import IIS.wis2_backend.Exceptions.ExceptionTypes.UserAlreadyExistsException;
@@ -36,6 +38,11 @@ import IIS.wis2_backend.Models.User.*;
 import IIS.wis2_backend.Repositories.CourseRepository;
 import IIS.wis2_backend.Repositories.Room.RoomRequestRepository;
 import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Account.TokenRevocationService;
+import IIS.wis2_backend.Services.Cache.CourseCatalogCache;
+import IIS.wis2_backend.Services.Cache.PrincipalCache;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+import IIS.wis2_backend.Services.Education.EnrollmentService;
 
 /**
  * Service for user (including teachers, students) related operations.
@@ -57,17 +64,61 @@ public class UserService {
 	 */
 	private final RoomRequestRepository roomRequestRepository;
 
+	/**
+	 * Publishes course change events when a user leaves their courses.
+	 */
+	private final ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Frees seats of deleted students.
+	 */
+	private final EnrollmentService enrollmentService;
+
+	/**
+	 * Invalidates ETags when names or registrations of a user change.
+	 */
+	private final ResourceVersions resourceVersions;
+
+	/**
+	 * Cached principals of the JWT filter, evicted on role changes.
+	 */
+	private final PrincipalCache principalCache;
+
+	/**
+	 * Revokes access tokens on role changes and deletion.
+	 */
+	private final TokenRevocationService tokenRevocationService;
+
+	/**
+	 * Cached course details, they contain teacher names.
+	 */
+	private final CourseCatalogCache courseCatalogCache;
+
 	/**
 	 * Constructor for UserService.
 	 * 
-	 * @param userRepository   User repository.
-	 * @param courseRepository Course repository.
+	 * @param userRepository         User repository.
+	 * @param courseRepository       Course repository.
+	 * @param eventPublisher         Application event publisher.
+	 * @param enrollmentService      Enrollment service.
+	 * @param resourceVersions       Resource version counters.
+	 * @param principalCache         Principal cache.
+	 * @param tokenRevocationService Token revocation service.
+	 * @param courseCatalogCache     Course catalog cache.
 	 */
 	public UserService(UserRepository userRepository, CourseRepository courseRepository,
-			RoomRequestRepository roomRequestRepository) {
+			RoomRequestRepository roomRequestRepository, ApplicationEventPublisher eventPublisher,
+			EnrollmentService enrollmentService, ResourceVersions resourceVersions, PrincipalCache principalCache,
+			TokenRevocationService tokenRevocationService, CourseCatalogCache courseCatalogCache) {
 		this.userRepository = userRepository;
 		this.courseRepository = courseRepository;
 		this.roomRequestRepository = roomRequestRepository;
+		this.eventPublisher = eventPublisher;
+		this.enrollmentService = enrollmentService;
+		this.resourceVersions = resourceVersions;
+		this.principalCache = principalCache;
+		this.tokenRevocationService = tokenRevocationService;
+		this.courseCatalogCache = courseCatalogCache;
 	}
 
 	/**
@@ -166,19 +217,6 @@ public class UserService {
 				.build();
 	}
 
-	/**
-	 * For AuthController. Returns user role and id to send back to the client.
-	 * 
-	 * @param username the username of the user.
-	 * @return pair of user id and role.
-	 */
-	public Pair<Long, String> GetUserIdAndRole(String username) {
-		Wis2User user = userRepository.findByUsername(username)
-				// Shouldn't happen since it's after authentication
-				.orElseThrow(() -> new NotFoundException("This user doesn't exist!"));
-		return Pair.of(user.getId(), user.getRole().name());
-	}
-
 	/**
 	 * Convert User entity to UserDTO.
 	 * 
@@ -302,10 +340,11 @@ public class UserService {
 	}
 
 	/**
-	 * Delete a user by ID.
+	 * Delete a user by ID. Their tokens are revoked in the same transaction.
 	 * 
 	 * @param id User ID.
 	 */
+	@Transactional
 	public void deleteUser(Long id) {
 		Wis2User user = userRepository.findById(id)
 				.orElseThrow(() -> new NotFoundException("User not found"));
@@ -316,6 +355,7 @@ public class UserService {
 			for (var course : supervised) {
 				course.setSupervisor(null);
 				courseRepository.save(course);
+				eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
 			}
 		}
 
@@ -325,10 +365,27 @@ public class UserService {
 			for (var course : taught) {
 				course.getTeachers().remove(user);
 				courseRepository.save(course);
+				eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getShortcut()));
 			}
 		}
 
+		// Seats taken by the student, freed once the enrollments are gone
+		List<Long> enrolledCourseIds = user.getStudentCourses() == null ? List.of()
+				: user.getStudentCourses().stream()
+						.filter(sc -> sc.getStatus() == RequestStatus.APPROVED)
+						.map(sc -> sc.getCourse().getId())
+						.collect(Collectors.toList());
+
+		tokenRevocationService.RevokeDeletedUser(user.getId());
 		userRepository.delete(user);
+		principalCache.Evict(user.getUsername());
+
+		for (Long courseId : enrolledCourseIds) {
+			enrollmentService.ReleaseSeat(courseId);
+		}
+
+		// Term registration counts and schedules of others may have changed
+		resourceVersions.BumpAll();
 	}
 
 	/**
@@ -340,7 +397,9 @@ public class UserService {
 		Wis2User user = userRepository.findById(id)
 				.orElseThrow(() -> new NotFoundException("User not found"));
 		user.setRole(Roles.ADMIN);
+		tokenRevocationService.RevokeTokens(user);
 		userRepository.save(user);
+		principalCache.Evict(user.getUsername());
 	}
 
 	/**
@@ -378,7 +437,15 @@ public class UserService {
 			user.setTelephoneNumber(request.getTelephoneNumber());
 		}
 
-		return UserToDTO(userRepository.save(user));
+		UserDTO updated = UserToDTO(userRepository.save(user));
+		if (request.getFirstName() != null || request.getLastName() != null) {
+			// Names are shown on course pages, the cached details go before the
+			// versions are bumped so a new ETag never gets the old body
+			courseCatalogCache.EvictDetails();
+			resourceVersions.BumpAll();
+		}
+
+		return updated;
 	}
 
 	/**
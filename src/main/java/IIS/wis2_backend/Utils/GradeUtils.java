@@ -0,0 +1,60 @@
+package IIS.wis2_backend.Utils;
+
+/**
+ * Utility class with the grading scale. Used both in Java and in set-based SQL
+ * updates, so the two can't drift apart.
+ */
+public class GradeUtils {
+    /**
+     * Minimum points for each passing grade, best grade first.
+     */
+    private static final int[] MIN_POINTS = { 90, 80, 70, 60, 50 };
+
+    /**
+     * Passing grades matching MIN_POINTS.
+     */
+    private static final double[] GRADES = { 1.0, 1.5, 2.0, 2.5, 3.0 };
+
+    /**
+     * Grade for not passing.
+     */
+    public static final double FAILING_GRADE = 4.0;
+
+    /**
+     * Minimum points to pass the exam.
+     */
+    public static final int PASSING_POINTS = MIN_POINTS[MIN_POINTS.length - 1];
+
+    /**
+     * Calculates the final grade based on points.
+     * 
+     * @param points Total points of the student.
+     * @return The final grade.
+     */
+    public static double FinalGrade(int points) {
+        for (int i = 0; i < MIN_POINTS.length; i++) {
+            if (points >= MIN_POINTS[i]) {
+                return GRADES[i];
+            }
+        }
+
+        return FAILING_GRADE;
+    }
+
+    /**
+     * Builds an SQL CASE expression computing the final grade the same way as
+     * FinalGrade.
+     * 
+     * @param pointsColumn SQL expression with the total points.
+     * @return SQL CASE expression.
+     */
+    public static String FinalGradeSql(String pointsColumn) {
+        StringBuilder sql = new StringBuilder("CASE");
+        for (int i = 0; i < MIN_POINTS.length; i++) {
+            sql.append(" WHEN ").append(pointsColumn).append(" >= ").append(MIN_POINTS[i])
+                    .append(" THEN ").append(GRADES[i]);
+        }
+
+        return sql.append(" ELSE ").append(FAILING_GRADE).append(" END").toString();
+    }
+}
@@ -0,0 +1,135 @@
+package IIS.wis2_backend.Utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes an iCalendar (RFC 5545) document event by event, so a feed can be
+ * streamed to the response as it's read from the database.
+ */
+public class ICalendarWriter {
+    /**
+     * Date-time format of the feed, always in UTC.
+     */
+    private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * Maximum length of a content line in octets, longer lines are folded.
+     */
+    private static final int MAX_LINE_OCTETS = 75;
+
+    /**
+     * Where the document goes.
+     */
+    private final Writer writer;
+
+    /**
+     * Constructor for ICalendarWriter.
+     * 
+     * @param writer Where the document goes.
+     */
+    public ICalendarWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Starts the calendar.
+     * 
+     * @param name Name shown by calendar clients.
+     */
+    public void BeginCalendar(String name) {
+        Line("BEGIN:VCALENDAR");
+        Line("VERSION:2.0");
+        Line("PRODID:-//WIS2//Schedule feed//EN");
+        Line("CALSCALE:GREGORIAN");
+        Line("METHOD:PUBLISH");
+        Line("X-WR-CALNAME:" + Escape(name));
+    }
+
+    /**
+     * Writes one event.
+     * 
+     * @param uid         Globally unique and stable ID of the event.
+     * @param start       Start of the event.
+     * @param end         End of the event.
+     * @param stamp       When the feed was generated.
+     * @param summary     Title of the event.
+     * @param location    Location of the event (or null).
+     * @param description Description of the event (or null).
+     */
+    public void Event(String uid, Instant start, Instant end, Instant stamp, String summary, String location,
+            String description) {
+        Line("BEGIN:VEVENT");
+        Line("UID:" + Escape(uid));
+        Line("DTSTAMP:" + UTC_FORMAT.format(stamp));
+        Line("DTSTART:" + UTC_FORMAT.format(start));
+        Line("DTEND:" + UTC_FORMAT.format(end));
+        Line("SUMMARY:" + Escape(summary));
+        if (location != null) {
+            Line("LOCATION:" + Escape(location));
+        }
+        if (description != null) {
+            Line("DESCRIPTION:" + Escape(description));
+        }
+        Line("END:VEVENT");
+    }
+
+    /**
+     * Ends the calendar and flushes the writer.
+     */
+    public void EndCalendar() {
+        Line("END:VCALENDAR");
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escapes a text value.
+     * 
+     * @param text The text.
+     * @return The escaped text.
+     */
+    public static String Escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "");
+    }
+
+    /**
+     * Writes one content line, folded to 75 octets (continuation lines start
+     * with a space). Never splits a character.
+     * 
+     * @param line The line.
+     */
+    private void Line(String line) {
+        try {
+            int octets = 0;
+            for (int i = 0; i < line.length();) {
+                int codePoint = line.codePointAt(i);
+                int chars = Character.charCount(codePoint);
+                int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+                if (octets + size > MAX_LINE_OCTETS) {
+                    writer.write("\r\n ");
+                    octets = 1;
+                }
+                writer.write(line, i, chars);
+                octets += size;
+                i += chars;
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
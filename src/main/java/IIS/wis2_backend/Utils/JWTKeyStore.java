@@ -0,0 +1,213 @@
+package IIS.wis2_backend.Utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecretJwk;
+
+/**
+ * Keys for signing and verifying JWTs.
+ * 
+ * Keys are read from a local JWKS file (jwt.jwks.path) and looked up by key
+ * id (kid), so several keys can be valid at once. The file is watched and
+ * reloaded when it changes. A node holding only public keys can verify tokens
+ * but not issue them. Tokens are signed with the private key of
+ * jwt.jwks.active-kid, or the one with the greatest kid when that's not set.
+ * The algorithm follows the key (EdDSA for Ed25519, ES256 for P-256).
+ * 
+ * Rotating: add the new key to the file on every node, then make it the
+ * active one, and remove the old key once its tokens expired.
+ * 
+ * The HS256 jwt.secret, if set, verifies tokens without a kid, and signs
+ * tokens when there is no JWKS file.
+ */
+@Component
+public class JWTKeyStore {
+    private static final Logger log = LoggerFactory.getLogger(JWTKeyStore.class);
+
+    /**
+     * Loaded keys.
+     * 
+     * @param signingKid       Key id of the signing key, null for the secret.
+     * @param signingKey       Key to sign tokens with, null if this node can't.
+     * @param verificationKeys Keys to verify tokens with, by key id.
+     */
+    public record LoadedKeys(String signingKid, Key signingKey, Map<String, Key> verificationKeys) {
+    }
+
+    /**
+     * HS256 secret key, null if not configured.
+     */
+    private final Key secretKey;
+
+    /**
+     * Path to the JWKS file, null if not configured.
+     */
+    private final Path jwksPath;
+
+    /**
+     * Key id of the signing key.
+     */
+    private final String activeKid;
+
+    /**
+     * Currently loaded keys.
+     */
+    private volatile LoadedKeys keys;
+
+    /**
+     * Modification time of the loaded JWKS file.
+     */
+    private volatile FileTime loadedModifiedTime;
+
+    /**
+     * Called after the keys changed.
+     */
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor for JWTKeyStore.
+     * 
+     * @param secret    Base64 encoded HS256 secret, may be empty.
+     * @param jwksPath  Path to the JWKS file, may be empty.
+     * @param activeKid Key id of the signing key, may be empty.
+     */
+    public JWTKeyStore(@Value("${jwt.secret}") String secret,
+            @Value("${jwt.jwks.path}") String jwksPath,
+            @Value("${jwt.jwks.active-kid}") String activeKid) {
+        this.secretKey = secret == null || secret.isBlank() ? null
+                : Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.jwksPath = jwksPath == null || jwksPath.isBlank() ? null : Path.of(jwksPath);
+        this.activeKid = activeKid == null || activeKid.isBlank() ? null : activeKid;
+
+        if (this.secretKey == null && this.jwksPath == null) {
+            throw new IllegalStateException("Either jwt.secret or jwt.jwks.path has to be set");
+        }
+
+        if (this.jwksPath == null) {
+            keys = new LoadedKeys(null, secretKey, Map.of());
+        } else {
+            try {
+                Load();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read JWKS file " + this.jwksPath, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the currently loaded keys.
+     * 
+     * @return The keys.
+     */
+    public LoadedKeys Current() {
+        return keys;
+    }
+
+    /**
+     * Returns the key to verify a token with.
+     * 
+     * @param kid Key id from the token header, null for tokens without one.
+     * @return The key, or null if it's unknown.
+     */
+    public Key VerificationKey(String kid) {
+        if (kid == null) {
+            return secretKey;
+        }
+
+        return keys.verificationKeys().get(kid);
+    }
+
+    /**
+     * Registers a listener called after the keys were reloaded.
+     * 
+     * @param listener The listener.
+     */
+    public void OnReload(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Reloads the JWKS file when it changed. A broken file is reported and the
+     * previous keys are kept.
+     */
+    @Scheduled(initialDelayString = "${jwt.jwks.reload-ms}", fixedDelayString = "${jwt.jwks.reload-ms}")
+    public void ReloadIfChanged() {
+        if (jwksPath == null) {
+            return;
+        }
+
+        try {
+            if (Files.getLastModifiedTime(jwksPath).equals(loadedModifiedTime)) {
+                return;
+            }
+
+            Load();
+            reloadListeners.forEach(Runnable::run);
+            log.info("Reloaded JWKS {}, signing with kid {}", jwksPath, keys.signingKid());
+        } catch (IOException | RuntimeException e) {
+            // The keys loaded before stay in use
+            log.warn("Failed to reload JWKS {}", jwksPath, e);
+        }
+    }
+
+    /**
+     * Reads the JWKS file.
+     * 
+     * @throws IOException if the file can't be read.
+     */
+    private void Load() throws IOException {
+        FileTime modifiedTime = Files.getLastModifiedTime(jwksPath);
+        JwkSet set = Jwks.setParser().build().parse(Files.readString(jwksPath));
+
+        Map<String, Key> verificationKeys = new HashMap<>();
+        Map<String, Key> signingKeys = new HashMap<>();
+        for (Jwk<?> jwk : set.getKeys()) {
+            String kid = jwk.getId();
+            if (kid == null) {
+                throw new IllegalArgumentException("Every key in the JWKS needs a kid");
+            }
+
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                signingKeys.put(kid, privateJwk.toKey());
+                verificationKeys.put(kid, privateJwk.toPublicJwk().toKey());
+            } else if (jwk instanceof PublicJwk<?> publicJwk) {
+                verificationKeys.put(kid, publicJwk.toKey());
+            } else if (jwk instanceof SecretJwk secretJwk) {
+                signingKeys.put(kid, secretJwk.toKey());
+                verificationKeys.put(kid, secretJwk.toKey());
+            }
+        }
+
+        String signingKid = activeKid != null ? activeKid
+                : signingKeys.keySet().stream().max(String::compareTo).orElse(null);
+        if (activeKid != null && !signingKeys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("No private key with kid " + activeKid + " in the JWKS");
+        }
+
+        Key signingKey = signingKid == null ? null : signingKeys.get(signingKid);
+        keys = new LoadedKeys(signingKid, signingKey, Collections.unmodifiableMap(verificationKeys));
+        loadedModifiedTime = modifiedTime;
+    }
+}
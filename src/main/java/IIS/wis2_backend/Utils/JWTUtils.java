@@ -1,17 +1,23 @@
 package IIS.wis2_backend.Utils;
 
+import java.time.Duration;
 import java.util.Date;
 
-import javax.crypto.SecretKey;
-
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
+import IIS.wis2_backend.Enum.Roles;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.ProtectedHeader;
 
 /**
  * Utility component for handling JWT operations.
@@ -19,98 +25,177 @@ import io.jsonwebtoken.security.Keys;
 @Component
 public class JWTUtils {
     /**
-     * Secret key for signing JWTs.
+     * Claim names.
+     */
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_ACTIVATED = "act";
+    private static final String CLAIM_EPOCH = "epoch";
+
+    /**
+     * Keys for signing and verifying JWTs.
+     */
+    private final JWTKeyStore keyStore;
+
+    /**
+     * Thread-safe parser verifying signature, expiration and issuer. The
+     * verification key is looked up by the kid of the token.
      */
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtParser parser;
 
     /**
      * JWT expiration time in milliseconds.
      */
-    @Value("${jwt.expirationMs}")
-    private long jwtExpirationMs;
+    private final long jwtExpirationMs;
 
     /**
      * JWT issuer.
      */
-    @Value("${jwt.issuer}")
-    private String jwtIssuer;
+    private final String jwtIssuer;
 
     /**
-     * Retrieves the encrypted secret key used for signing JWTs.
-     *
-     * @return the encrypted secret key
+     * Recently verified tokens and their claims, so a client sending the same
+     * token again skips the signature check. Each entry expires with its token.
+     */
+    private final Cache<String, Claims> verifiedTokens;
+
+    /**
+     * Constructor for JWTUtils.
+     * 
+     * @param keyStore          Keys for signing and verifying JWTs.
+     * @param jwtExpirationMs   JWT expiration time in milliseconds.
+     * @param jwtIssuer         JWT issuer.
+     * @param verifiedCacheSize Maximum number of remembered verified tokens, 0
+     *                          disables it.
      */
-    private SecretKey GetSecretKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JWTUtils(JWTKeyStore keyStore,
+            @Value("${jwt.expirationMs}") long jwtExpirationMs,
+            @Value("${jwt.issuer}") String jwtIssuer,
+            @Value("${jwt.verified-cache.max-size}") int verifiedCacheSize) {
+        this.keyStore = keyStore;
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.jwtIssuer = jwtIssuer;
+        this.parser = Jwts.parser()
+                .keyLocator(header -> keyStore.VerificationKey(
+                        header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null))
+                .requireIssuer(jwtIssuer)
+                .build();
+        this.verifiedTokens = verifiedCacheSize <= 0 ? null
+                : Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheSize)
+                        .expireAfter(Expiry.<String, Claims>creating((token, claims) -> UntilExpiration(claims)))
+                        .build();
+
+        // Tokens verified with a removed key must not stay remembered
+        if (verifiedTokens != null) {
+            keyStore.OnReload(verifiedTokens::invalidateAll);
+        }
     }
 
     /**
-     * Generates a JWT token for the given authentication details.
+     * Generates a JWT token for the given principal. Besides the username it
+     * carries the id, role, activation state and token epoch as claims.
      *
-     * @param authentication the authentication details
+     * @param principal the authenticated principal
      * @return the generated JWT token
      */
-    public String generateToken(String username) {
+    public String generateToken(Wis2Principal principal) {
+        JWTKeyStore.LoadedKeys keys = keyStore.Current();
+        if (keys.signingKey() == null) {
+            throw new IllegalStateException("This node has no key to sign tokens with");
+        }
+
         Date currentDate = new Date(System.currentTimeMillis());
 
         return Jwts.builder()
-                .subject(username)
+                .header().keyId(keys.signingKid()).and()
+                .subject(principal.getUsername())
+                .claim(CLAIM_USER_ID, principal.getId())
+                .claim(CLAIM_ROLE, principal.getRole().name())
+                .claim(CLAIM_ACTIVATED, principal.isEnabled())
+                .claim(CLAIM_EPOCH, principal.getTokenEpoch())
                 .issuedAt(currentDate)
                 .issuer(jwtIssuer)
-                .signWith(GetSecretKey(), Jwts.SIG.HS256)
+                .signWith(keys.signingKey())
                 .expiration(new Date(currentDate.getTime() + jwtExpirationMs))
                 .compact();
     }
 
     /**
-     * Validates the given JWT token.
+     * Validates the given JWT token and returns its claims, parsing it once.
      * 
      * @param token the JWT token to validate
-     * @return true if the token is valid, false otherwise
+     * @return the claims, or null if the token is invalid
      */
-    public boolean validateToken(String token) {
-        try {
-            // Verify signature
-            Claims claims = Parse(token);
-
-            // Verify expiration
-            if (claims.getExpiration().before(new Date())) {
-                return false;
-            }
-
-            // Issuer
-            if (!claims.getIssuer().equals(jwtIssuer)) {
-                return false;
-            }
-
-            return true;
-        } catch (JwtException e) {
-            return false;
+    public Claims ValidClaims(String token) {
+        if (verifiedTokens == null) {
+            return Verify(token);
+        }
+
+        // Already verified, expired tokens are no longer in the cache
+        Claims claims = verifiedTokens.getIfPresent(token);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = Verify(token);
+        if (claims != null) {
+            verifiedTokens.put(token, claims);
         }
+        return claims;
     }
 
     /**
-     * Parses all claims from the given JWT token.
+     * Builds the principal from the claims of a validated token.
      * 
-     * @return the claims contained in the token
+     * @param claims the claims of the token
+     * @return the principal, or null for tokens issued without the user claims
      */
-    private Claims Parse(String token) {
-        return Jwts.parser()
-                .verifyWith(GetSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public Wis2Principal Principal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+
+        Boolean activated = claims.get(CLAIM_ACTIVATED, Boolean.class);
+        Number epoch = claims.get(CLAIM_EPOCH, Number.class);
+
+        return new Wis2Principal(
+                userId.longValue(),
+                claims.getSubject(),
+                "",
+                Roles.valueOf(role),
+                Boolean.TRUE.equals(activated),
+                epoch == null ? 0L : epoch.longValue());
     }
 
     /**
-     * Returns the subject (username) from the given JWT token.
+     * Verifies signature, expiration and issuer of the given JWT token.
      * 
      * @param token the JWT token
-     * @return the subject (username) contained in the token
+     * @return the claims contained in the token, or null if it's invalid
      */
-    public String Subject(String token) {
-        return Parse(token).getSubject();
+    private Claims Verify(String token) {
+        try {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Time until the token expires, tokens without an expiration are kept until
+     * evicted by size.
+     * 
+     * @param claims the claims of a verified token
+     * @return time the token stays valid
+     */
+    private static Duration UntilExpiration(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return Duration.ofNanos(Long.MAX_VALUE);
+        }
+        return Duration.ofMillis(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
     }
-}
\ No newline at end of file
+}
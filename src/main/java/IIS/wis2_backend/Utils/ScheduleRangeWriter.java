@@ -0,0 +1,166 @@
+package IIS.wis2_backend.Utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO;
+
+/**
+ * Writes a schedule range as JSON, grouped by the start day of the items.
+ * Items must come ordered by start date, they're written as they come and
+ * only the current day is ever held in memory.
+ * 
+ * The default format is {"from", "to", "days": [{"date", "items": [...]}]}
+ * with the items as objects. The compact one has the days column-oriented,
+ * {"date", "id": [...], "start": [...], "duration": [...], "course": [...],
+ * "type": [...]}, with start as minutes from the day's midnight and duration
+ * in minutes, which is a fraction of the size for semesters of items.
+ */
+public class ScheduleRangeWriter {
+    /**
+     * Where the JSON goes.
+     */
+    private final JsonGenerator generator;
+
+    /**
+     * If the days are column-oriented.
+     */
+    private final boolean compact;
+
+    /**
+     * The day being written, null before the first item.
+     */
+    private LocalDate day;
+
+    /**
+     * Items of the current day, buffered in compact mode (columns are written
+     * one after another).
+     */
+    private final List<ScheduleRangeItemDTO> dayItems = new ArrayList<>();
+
+    /**
+     * Constructor for ScheduleRangeWriter.
+     * 
+     * @param generator Where the JSON goes (with a codec for the items).
+     * @param compact   If the days are column-oriented.
+     */
+    public ScheduleRangeWriter(JsonGenerator generator, boolean compact) {
+        this.generator = generator;
+        this.compact = compact;
+    }
+
+    /**
+     * Starts the document.
+     * 
+     * @param from First day of the range.
+     * @param to   Last day of the range.
+     */
+    public void Begin(LocalDate from, LocalDate to) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("from", from.toString());
+            generator.writeStringField("to", to.toString());
+            generator.writeArrayFieldStart("days");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes an item, starting a new day if needed.
+     * 
+     * @param item The item (not earlier than the previous one).
+     */
+    public void Item(ScheduleRangeItemDTO item) {
+        try {
+            LocalDate itemDay = item.startDate().toLocalDate();
+            if (!itemDay.equals(day)) {
+                EndDay();
+                day = itemDay;
+                generator.writeStartObject();
+                generator.writeStringField("date", day.toString());
+                if (!compact) {
+                    generator.writeArrayFieldStart("items");
+                }
+            }
+
+            if (compact) {
+                dayItems.add(item);
+            } else {
+                generator.writeObject(item);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ends the document and flushes the generator.
+     */
+    public void End() {
+        try {
+            EndDay();
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finishes the current day (if any).
+     * 
+     * @throws IOException If writing fails.
+     */
+    private void EndDay() throws IOException {
+        if (day == null) {
+            return;
+        }
+
+        if (!compact) {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            return;
+        }
+
+        generator.writeArrayFieldStart("id");
+        for (ScheduleRangeItemDTO item : dayItems) {
+            generator.writeNumber(item.id());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("start");
+        for (ScheduleRangeItemDTO item : dayItems) {
+            generator.writeNumber(item.startDate().toLocalTime().toSecondOfDay() / 60);
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("duration");
+        for (ScheduleRangeItemDTO item : dayItems) {
+            generator.writeNumber(Duration.between(item.startDate(), item.endDate()).toMinutes());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("course");
+        for (ScheduleRangeItemDTO item : dayItems) {
+            generator.writeString(item.course());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("type");
+        for (ScheduleRangeItemDTO item : dayItems) {
+            generator.writeString(item.termType().name());
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+        dayItems.clear();
+    }
+}
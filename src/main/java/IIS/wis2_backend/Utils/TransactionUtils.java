@@ -0,0 +1,29 @@
+package IIS.wis2_backend.Utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for work that has to wait for the current transaction.
+ */
+public class TransactionUtils {
+    /**
+     * Runs the action after the current transaction commits, or right away if
+     * there is none. Nothing runs if the transaction rolls back.
+     * 
+     * @param action The action.
+     */
+    public static void AfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package IIS.wis2_backend.Utils;
+
+import java.text.Normalizer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Utility class for splitting text into trigrams (pg_trgm style).
+ */
+public class TrigramUtils {
+    /**
+     * Splits the text into lowercase words and returns the set of their padded
+     * trigrams. Every word is prefixed with two spaces and suffixed with one, so
+     * "db" yields "  d", " db" and "db ".
+     * 
+     * @param text The text to split.
+     * @return Set of trigrams, empty if the text has no words.
+     */
+    public static Set<String> Trigrams(String text) {
+        return Trigrams(text, false);
+    }
+
+    /**
+     * Same as Trigrams(text), but the last word is treated as a prefix (no
+     * trailing padding), so "data" also matches "database" fully.
+     * 
+     * @param text The (query) text to split.
+     * @return Set of trigrams, empty if the text has no words.
+     */
+    public static Set<String> QueryTrigrams(String text) {
+        return Trigrams(text, true);
+    }
+
+    /**
+     * Shared implementation of the trigram split.
+     * 
+     * @param text       The text to split.
+     * @param lastPrefix Whether the last word should be treated as a prefix.
+     * @return Set of trigrams.
+     */
+    private static Set<String> Trigrams(String text, boolean lastPrefix) {
+        Set<String> trigrams = new HashSet<>();
+        if (text == null) {
+            return trigrams;
+        }
+
+        String[] words = Normalize(text).split("[^\\p{L}\\p{N}]+");
+        int last = words.length - 1;
+        for (int i = 0; i <= last; i++) {
+            String word = words[i];
+            if (word.isEmpty()) {
+                continue;
+            }
+
+            String padded = "  " + word + (lastPrefix && i == last ? "" : " ");
+            for (int j = 0; j + 3 <= padded.length(); j++) {
+                trigrams.add(padded.substring(j, j + 3));
+            }
+        }
+
+        return trigrams;
+    }
+
+    /**
+     * Lowercases the text and strips diacritics, so "Základy" matches "zaklady".
+     * 
+     * @param text The text to normalize.
+     * @return The normalized text.
+     */
+    public static String Normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase();
+    }
+}
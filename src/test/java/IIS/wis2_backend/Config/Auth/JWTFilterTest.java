@@ -0,0 +1,101 @@
+package IIS.wis2_backend.Config.Auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import IIS.wis2_backend.Enum.Roles;
+import IIS.wis2_backend.Services.Account.TokenRevocationService;
+import IIS.wis2_backend.Services.Cache.PrincipalCache;
+import IIS.wis2_backend.Utils.JWTUtils;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.Cookie;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JWTFilterTest {
+    @Mock
+    private JWTUtils jwtUtils;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private Claims claims;
+
+    private JWTFilter jwtFilter;
+
+    @BeforeEach
+    public void Setup() {
+        jwtFilter = new JWTFilter(jwtUtils, principalCache, tokenRevocationService);
+    }
+
+    @AfterEach
+    public void Cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * A user whose tokens were revoked still holds the old cookie, the request
+     * has to reach the login endpoint unauthenticated.
+     */
+    @Test
+    public void revokedCookieStillReachesLogin() throws Exception {
+        when(jwtUtils.ValidClaims("revoked")).thenReturn(claims);
+        when(jwtUtils.Principal(claims)).thenReturn(new Wis2Principal(1L, "user", "", Roles.USER, true, 2L));
+        when(tokenRevocationService.IsValid(1L, 2L)).thenReturn(false);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = Filter("/auth/login", "revoked", chain);
+
+        assertSame(response, chain.getResponse());
+        assertEquals(200, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void invalidCookieStillReachesRefresh() throws Exception {
+        when(jwtUtils.ValidClaims("invalid")).thenReturn(null);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = Filter("/auth/refresh", "invalid", chain);
+
+        assertSame(response, chain.getResponse());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(tokenRevocationService, principalCache);
+    }
+
+    @Test
+    public void validCookieAuthenticates() throws Exception {
+        Wis2Principal principal = new Wis2Principal(1L, "user", "", Roles.USER, true, 2L);
+        when(jwtUtils.ValidClaims("valid")).thenReturn(claims);
+        when(jwtUtils.Principal(claims)).thenReturn(principal);
+        when(tokenRevocationService.IsValid(1L, 2L)).thenReturn(true);
+
+        MockFilterChain chain = new MockFilterChain();
+        Filter("/user/me", "valid", chain);
+
+        assertNotNull(chain.getResponse());
+        assertSame(principal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    private MockHttpServletResponse Filter(String uri, String token, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setCookies(new Cookie("JWT", token));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtFilter.doFilter(request, response, chain);
+        return response;
+    }
+}
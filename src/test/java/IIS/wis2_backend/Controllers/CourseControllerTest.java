@@ -0,0 +1,89 @@
+package IIS.wis2_backend.Controllers;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.WebRequest;
+
+import IIS.wis2_backend.DTO.Response.Course.TermListDTO;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.UnauthorizedException;
+import IIS.wis2_backend.Services.CourseService;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+import IIS.wis2_backend.Services.Education.EnrollmentService;
+import IIS.wis2_backend.Services.Education.GradingService;
+import IIS.wis2_backend.Services.Education.TermService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourseControllerTest {
+    @Mock
+    private CourseService courseService;
+
+    @Mock
+    private TermService termService;
+
+    @Mock
+    private GradingService gradingService;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @Mock
+    private Authentication authentication;
+
+    @Mock
+    private WebRequest request;
+
+    private CourseController courseController;
+
+    @BeforeEach
+    public void Setup() {
+        courseController = new CourseController(courseService, termService, gradingService, enrollmentService,
+                resourceVersions);
+    }
+
+    /**
+     * A stranger with a valid If-None-Match gets refused, not a 304.
+     */
+    @Test
+    public void termsAreAuthorizedBeforeTheConditionalCheck() {
+        when(authentication.getName()).thenReturn("stranger");
+        doThrow(new UnauthorizedException("User is not authorized to view terms of this course!"))
+                .when(courseService).AuthorizeCourseTerms("IIS", "stranger");
+
+        assertThrows(UnauthorizedException.class,
+                () -> courseController.GetCourseTerms("IIS", authentication, request));
+
+        verifyNoInteractions(request, resourceVersions);
+        verify(courseService, never()).GetCourseTerms(any(), any());
+    }
+
+    /**
+     * An authorized user with a matching ETag gets a 304 without loading the
+     * terms.
+     */
+    @Test
+    public void authorizedUserGetsNotModified() {
+        when(authentication.getName()).thenReturn("student");
+        when(resourceVersions.ETag(ResourceVersions.CourseTermsKey("IIS"), "student")).thenReturn("\"v1\"");
+        when(request.checkNotModified("\"v1\"")).thenReturn(true);
+
+        ResponseEntity<List<TermListDTO>> response = courseController.GetCourseTerms("IIS", authentication, request);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(courseService).AuthorizeCourseTerms("IIS", "student");
+        verify(courseService, never()).GetCourseTerms(any(), any());
+    }
+}
@@ -0,0 +1,89 @@
+package IIS.wis2_backend.Repositories;
+
+import java.sql.Date;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the course queries against the database. Every test runs in a
+ * transaction which is rolled back.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+public class CourseRepositoryTest {
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * The supervisor can be removed from the teachers and must still be allowed
+     * to grade.
+     */
+    @Test
+    public void supervisorNotAmongTeachersIsAuthorized() {
+        Wis2User supervisor = User("test.supervisor");
+        Wis2User teacher = User("test.teacher");
+        User("test.stranger");
+        Course course = courseRepository.save(Course.builder()
+                .name("Test course")
+                .price(0.0)
+                .shortcut("TEST_AUTH")
+                .completedBy(CourseEndType.EXAM)
+                .supervisor(supervisor)
+                .teachers(Set.of(teacher))
+                .capacity(10)
+                .autoregister(false)
+                .build());
+
+        assertTrue(courseRepository.existsByIdAndSupervisorOrTeacher(course.getId(), "test.supervisor"));
+        assertTrue(courseRepository.existsByIdAndSupervisorOrTeacher(course.getId(), "test.teacher"));
+        assertFalse(courseRepository.existsByIdAndSupervisorOrTeacher(course.getId(), "test.stranger"));
+    }
+
+    /**
+     * A course without teachers is still graded by its supervisor.
+     */
+    @Test
+    public void supervisorOfCourseWithoutTeachersIsAuthorized() {
+        Wis2User supervisor = User("test.supervisor");
+        Course course = courseRepository.save(Course.builder()
+                .name("Test course")
+                .price(0.0)
+                .shortcut("TEST_AUTH")
+                .completedBy(CourseEndType.EXAM)
+                .supervisor(supervisor)
+                .teachers(Set.of())
+                .capacity(10)
+                .autoregister(false)
+                .build());
+
+        assertTrue(courseRepository.existsByIdAndSupervisorOrTeacher(course.getId(), "test.supervisor"));
+    }
+
+    private Wis2User User(String username) {
+        return userRepository.save(Wis2User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .username(username)
+                .birthday(Date.valueOf("1990-01-01"))
+                .email(username + "@test.local")
+                .password("pwd")
+                .activated(true)
+                .build());
+    }
+}
@@ -0,0 +1,113 @@
+package IIS.wis2_backend.Repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Models.Course;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the conditional seat UPDATE from many connections at once against the
+ * database. Every attempt commits in its own transaction like a real
+ * enrollment, so the course is deleted afterwards.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+public class CourseSeatConcurrencyTest {
+    private static final int CAPACITY = 100;
+    private static final int ATTEMPTS = 2000;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long courseId;
+
+    @AfterEach
+    public void DeleteCourse() {
+        if (courseId != null) {
+            courseRepository.deleteById(courseId);
+        }
+    }
+
+    /**
+     * Many more attempts than seats, exactly CAPACITY of them succeed and the
+     * counter ends at the capacity.
+     */
+    @Test
+    public void concurrentSeatUpdatesNeverOverbook() throws Exception {
+        courseId = courseRepository.save(Course.builder()
+                .name("Seat test")
+                .price(0.0)
+                .shortcut("TEST_SEATS")
+                .completedBy(CourseEndType.EXAM)
+                .capacity(CAPACITY)
+                .autoregister(true)
+                .build()).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> courseRepository.takeSeat(courseId));
+            }));
+        }
+
+        start.countDown();
+        int taken = 0;
+        for (Future<Integer> result : results) {
+            taken += result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(CAPACITY, taken);
+        assertEquals(CAPACITY, courseRepository.findEnrolledCountById(courseId));
+    }
+
+    /**
+     * The seat counter has its own table, taking a seat leaves the course in
+     * the second-level cache.
+     */
+    @Test
+    public void seatUpdatesKeepTheCourseCached() {
+        courseId = courseRepository.save(Course.builder()
+                .name("Seat test")
+                .price(0.0)
+                .shortcut("TEST_SEATS")
+                .completedBy(CourseEndType.EXAM)
+                .capacity(CAPACITY)
+                .autoregister(true)
+                .build()).getId();
+        transactionTemplate.execute(status -> courseRepository.findById(courseId));
+        assertTrue(entityManagerFactory.getCache().contains(Course.class, courseId));
+
+        assertEquals(1, transactionTemplate.execute(status -> courseRepository.takeSeat(courseId)));
+        assertEquals(1, transactionTemplate.execute(status -> courseRepository.releaseSeat(courseId)));
+
+        assertTrue(entityManagerFactory.getCache().contains(Course.class, courseId));
+        assertEquals(0, courseRepository.findEnrolledCountById(courseId));
+    }
+}
@@ -0,0 +1,125 @@
+package IIS.wis2_backend.Repositories;
+
+import java.util.List;
+import java.util.Random;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.Room.StudyRoomRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark of the second-level cache on the typical lookup mix of our
+ * requests (every request resolves the user, most of them a course, some a
+ * room). Each simulated request runs in its own transaction like a real one.
+ * Needs the database with the mock data, run with RUN_BENCHMARKS=true. The
+ * benchmark profile turns on Hibernate statistics.
+ */
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+public class SecondLevelCacheBenchmarkTest {
+    private static final int REQUESTS = 2000;
+    private static final List<String> ROOMS = List.of("LAB_A", "LAB_B", "LEC_1", "LEC_2");
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Runs the same request mix without the cache (regions evicted before every
+     * request) and with a warm cache, and compares the number of SQL statements.
+     */
+    @Test
+    public void secondLevelCacheReducesQueries() {
+        List<String> courses = courseRepository.findAll().stream().map(Course::getShortcut).toList();
+        List<String> users = userRepository.findAll().stream().map(Wis2User::getUsername).toList();
+        assertFalse(courses.isEmpty(), "Mock data is missing");
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        long uncached = Run(courses, users, statistics, true);
+        sessionFactory.getCache().evictAllRegions();
+        Run(courses, users, statistics, false); // warm up
+        long cached = Run(courses, users, statistics, false);
+
+        System.out.printf("Second-level cache benchmark, %d requests:%n", REQUESTS);
+        System.out.printf("  without cache: %d statements (%.2f per request)%n", uncached,
+                (double) uncached / REQUESTS);
+        System.out.printf("  with cache:    %d statements (%.2f per request)%n", cached,
+                (double) cached / REQUESTS);
+        System.out.printf("  reduction:     %.1f %%%n", 100.0 * (uncached - cached) / uncached);
+
+        assertTrue(cached < uncached);
+    }
+
+    /**
+     * Runs the request mix and counts the prepared statements.
+     * 
+     * @param courses    Shortcuts of the courses.
+     * @param users      Usernames.
+     * @param statistics Hibernate statistics.
+     * @param evict      Evict the cache before every request.
+     * @return Number of statements.
+     */
+    private long Run(List<String> courses, List<String> users, Statistics statistics, boolean evict) {
+        Random random = new Random(42);
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        long before = statistics.getPrepareStatementCount();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            if (evict) {
+                sessionFactory.getCache().evictAllRegions();
+            }
+
+            int kind = random.nextInt(10);
+            String username = users.get(random.nextInt(users.size()));
+            String course = courses.get(random.nextInt(courses.size()));
+            String room = ROOMS.get(random.nextInt(ROOMS.size()));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                // Authentication
+                userRepository.findByUsername(username);
+
+                if (kind < 7) {
+                    // Course pages, enrollment, grading...
+                    courseRepository.findByShortcut(course);
+                } else if (kind < 9) {
+                    // Profile and notifications look the user up again
+                    userRepository.findByUsername(username);
+                } else {
+                    // Term creation
+                    courseRepository.findByShortcut(course);
+                    studyRoomRepository.findMaybeByShortcut(room);
+                }
+            });
+        }
+
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -0,0 +1,186 @@
+package IIS.wis2_backend.Services.Account;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.util.Pair;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
+import IIS.wis2_backend.Enum.Roles;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.UnauthorizedException;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.Tokens.RefreshTokenRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.UserService;
+import IIS.wis2_backend.Utils.JWTUtils;
+import IIS.wis2_backend.Utils.LinkTokenUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthServiceTest {
+    private static final long REUSE_GRACE_MS = 10_000;
+    private static final long REFRESH_EXPIRATION_MS = 7L * 24 * 60 * 60 * 1000;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private JWTUtils jwtUtils;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private AccountActivationService accountActivationService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private AuthService authService;
+
+    @BeforeEach
+    public void Setup() {
+        authService = new AuthService(userRepository, passwordEncoder, authenticationManager, jwtUtils, userService,
+                accountActivationService, refreshTokenRepository, jdbcTemplate, tokenRevocationService);
+        ReflectionTestUtils.setField(authService, "reuseGraceMs", REUSE_GRACE_MS);
+        ReflectionTestUtils.setField(authService, "refreshExpirationMs", REFRESH_EXPIRATION_MS);
+        ReflectionTestUtils.setField(authService, "jwtExpirationMs", 15L * 60 * 1000);
+    }
+
+    /**
+     * A valid token is rotated in one statement, only hashes reach the database
+     * and the new token is the one stored.
+     */
+    @Test
+    public void validTokenIsRotatedInPlace() {
+        Wis2User user = User(true);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        when(jdbcTemplate.queryForList(startsWith("UPDATE refresh_token"), params.capture(), eq(Long.class)))
+                .thenReturn(List.of(1L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(jwtUtils.generateToken(any(Wis2Principal.class))).thenReturn("jwt");
+
+        Pair<ResponseCookie, ResponseCookie> cookies = authService.RefreshJWTToken("old-token");
+
+        String newToken = cookies.getSecond().getValue();
+        assertEquals("jwt", cookies.getFirst().getValue());
+        assertNotEquals("old-token", newToken);
+        assertEquals(LinkTokenUtils.HashToken("old-token"), params.getValue().getValue("tokenHash"));
+        assertEquals(LinkTokenUtils.HashToken(newToken), params.getValue().getValue("newHash"));
+        verify(jdbcTemplate, never()).queryForList(startsWith("DELETE"), any(MapSqlParameterSource.class),
+                eq(Long.class));
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    /**
+     * A token rotated before the grace period is a leaked one, the family is
+     * deleted and the user's access tokens are revoked.
+     */
+    @Test
+    public void reusedTokenRevokesTheFamily() {
+        Wis2User user = User(true);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        when(jdbcTemplate.queryForList(startsWith("UPDATE refresh_token"), any(MapSqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("DELETE FROM refresh_token"), params.capture(), eq(Long.class)))
+                .thenReturn(List.of(1L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        Instant before = Instant.now();
+        assertThrows(UnauthorizedException.class, () -> authService.RefreshJWTToken("old-token"));
+        Instant after = Instant.now();
+
+        assertEquals(LinkTokenUtils.HashToken("old-token"), params.getValue().getValue("tokenHash"));
+        Instant graceLimit = ((Timestamp) params.getValue().getValue("graceLimit")).toInstant();
+        assertFalse(graceLimit.isBefore(before.minusMillis(REUSE_GRACE_MS)));
+        assertFalse(graceLimit.isAfter(after.minusMillis(REUSE_GRACE_MS)));
+        verify(tokenRevocationService).RevokeTokens(user);
+        verify(userRepository).save(user);
+        verifyNoInteractions(jwtUtils);
+    }
+
+    /**
+     * Unknown, expired or just rotated (two tabs at once) tokens are only
+     * rejected.
+     */
+    @Test
+    public void unknownTokenIsOnlyRejected() {
+        when(jdbcTemplate.queryForList(any(String.class), any(MapSqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+
+        assertThrows(NotFoundException.class, () -> authService.RefreshJWTToken("old-token"));
+
+        verifyNoInteractions(tokenRevocationService, jwtUtils);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void deactivatedUserGetsNoNewToken() {
+        when(jdbcTemplate.queryForList(startsWith("UPDATE refresh_token"), any(MapSqlParameterSource.class),
+                eq(Long.class))).thenReturn(List.of(1L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User(false)));
+
+        assertThrows(UnauthorizedException.class, () -> authService.RefreshJWTToken("old-token"));
+
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    public void missingTokenNeverReachesTheDatabase() {
+        assertThrows(NotFoundException.class, () -> authService.RefreshJWTToken(null));
+        assertThrows(NotFoundException.class, () -> authService.RefreshJWTToken(""));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Logout deletes by hash, the raw token is never stored.
+     */
+    @Test
+    public void logoutDeletesByHash() {
+        authService.Logout("old-token");
+
+        verify(refreshTokenRepository).deleteByTokenHash(LinkTokenUtils.HashToken("old-token"));
+    }
+
+    private static Wis2User User(boolean activated) {
+        return Wis2User.builder()
+                .id(1L)
+                .username("user")
+                .role(Roles.USER)
+                .activated(activated)
+                .build();
+    }
+}
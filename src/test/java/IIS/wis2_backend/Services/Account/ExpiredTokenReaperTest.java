@@ -0,0 +1,83 @@
+package IIS.wis2_backend.Services.Account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import IIS.wis2_backend.DTO.Response.Admin.TokenReaperStatsDTO;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpiredTokenReaperTest {
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_BATCHES = 3;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private ExpiredTokenReaper expiredTokenReaper;
+
+    @BeforeEach
+    public void Setup() {
+        expiredTokenReaper = new ExpiredTokenReaper(jdbcTemplate, BATCH_SIZE, MAX_BATCHES);
+        lenient().when(jdbcTemplate.queryForObject(any(String.class), any(MapSqlParameterSource.class),
+                eq(Long.class))).thenReturn(0L);
+    }
+
+    /**
+     * Batches run until one comes back short, every batch is limited.
+     */
+    @Test
+    public void shortBatchEndsThePurge() {
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        when(jdbcTemplate.update(startsWith("DELETE FROM refresh_token"), params.capture()))
+                .thenReturn(BATCH_SIZE, 30);
+        when(jdbcTemplate.update(startsWith("DELETE FROM link_token"), any(MapSqlParameterSource.class)))
+                .thenReturn(0);
+        when(jdbcTemplate.update(startsWith("DELETE FROM revoked_user"), any(MapSqlParameterSource.class)))
+                .thenReturn(5);
+
+        expiredTokenReaper.Reap();
+
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE FROM refresh_token"),
+                any(MapSqlParameterSource.class));
+        verify(jdbcTemplate, times(1)).update(startsWith("DELETE FROM link_token"), any(MapSqlParameterSource.class));
+        verify(jdbcTemplate, times(1)).update(startsWith("DELETE FROM revoked_user"),
+                any(MapSqlParameterSource.class));
+        assertEquals(BATCH_SIZE, params.getValue().getValue("batchSize"));
+
+        TokenReaperStatsDTO stats = expiredTokenReaper.Stats();
+        assertEquals(BATCH_SIZE + 30L, stats.getRefreshTokensPurged());
+        assertEquals(0L, stats.getLinkTokensPurged());
+        assertNotNull(stats.getLastRunAt());
+    }
+
+    /**
+     * A big backlog is worked off over several runs, the rest is reported.
+     */
+    @Test
+    public void runIsBoundedByMaxBatches() {
+        when(jdbcTemplate.update(any(String.class), any(MapSqlParameterSource.class))).thenReturn(BATCH_SIZE);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM refresh_token"),
+                any(MapSqlParameterSource.class), eq(Long.class))).thenReturn(5000L);
+
+        expiredTokenReaper.Reap();
+
+        verify(jdbcTemplate, times(MAX_BATCHES * 3)).update(any(String.class), any(MapSqlParameterSource.class));
+        TokenReaperStatsDTO stats = expiredTokenReaper.Stats();
+        assertEquals((long) MAX_BATCHES * BATCH_SIZE, stats.getRefreshTokensPurged());
+        assertEquals((long) MAX_BATCHES * BATCH_SIZE, stats.getLinkTokensPurged());
+        assertEquals(5000L, stats.getRefreshTokenBacklog());
+        assertEquals(0L, stats.getLinkTokenBacklog());
+    }
+}
@@ -0,0 +1,148 @@
+package IIS.wis2_backend.Services.Account;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IIS.wis2_backend.DTO.Response.Projections.TokenEpochProjection;
+import IIS.wis2_backend.Models.Tokens.RevokedUser;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.Tokens.RevokedUserRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+    private static final long JWT_EXPIRATION_MS = 15 * 60 * 1000;
+    private static final long RELOAD_MS = 30_000;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RevokedUserRepository revokedUserRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    public void Setup() {
+        tokenRevocationService = new TokenRevocationService(userRepository, revokedUserRepository,
+                JWT_EXPIRATION_MS, RELOAD_MS);
+    }
+
+    @Test
+    public void revokingBumpsTheEpoch() {
+        Wis2User user = Wis2User.builder().id(1L).tokenEpoch(3L).build();
+
+        tokenRevocationService.RevokeTokens(user);
+
+        assertEquals(4L, user.getTokenEpoch());
+        assertNotNull(user.getTokenEpochChangedAt());
+        assertFalse(tokenRevocationService.IsValid(1L, 3L));
+        assertTrue(tokenRevocationService.IsValid(1L, 4L));
+        assertTrue(tokenRevocationService.IsValid(2L, 0L));
+    }
+
+    /**
+     * The tombstone is stored with the delete, until the tokens expire anyway.
+     */
+    @Test
+    public void deletedUserGetsATombstone() {
+        Instant before = Instant.now();
+
+        tokenRevocationService.RevokeDeletedUser(1L);
+
+        ArgumentCaptor<RevokedUser> tombstone = ArgumentCaptor.forClass(RevokedUser.class);
+        verify(revokedUserRepository).save(tombstone.capture());
+        assertEquals(1L, tombstone.getValue().getUserId());
+        assertFalse(tombstone.getValue().getExpiresAt().isBefore(before.plusMillis(JWT_EXPIRATION_MS)));
+        assertFalse(tokenRevocationService.IsValid(1L, 0L));
+    }
+
+    /**
+     * Another instance learns of the deletion and the epochs on its reload.
+     */
+    @Test
+    public void reloadPicksUpRevocationsOfOtherInstances() {
+        when(userRepository.findByTokenEpochChangedAtAfter(any(Instant.class)))
+                .thenReturn(List.of(Epoch(2L, 5L, Instant.now())));
+        when(revokedUserRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(List.of(
+                new RevokedUser(1L, Instant.now().plusMillis(JWT_EXPIRATION_MS))));
+
+        assertTrue(tokenRevocationService.IsValid(1L, 0L));
+
+        tokenRevocationService.Reload();
+
+        assertFalse(tokenRevocationService.IsValid(1L, 0L));
+        assertFalse(tokenRevocationService.IsValid(2L, 4L));
+        assertTrue(tokenRevocationService.IsValid(2L, 5L));
+    }
+
+    /**
+     * Local bumps the reload didn't see yet aren't lost.
+     */
+    @Test
+    public void reloadKeepsNewerLocalEpochs() {
+        tokenRevocationService.RevokeTokens(Wis2User.builder().id(2L).tokenEpoch(5L).build());
+        when(userRepository.findByTokenEpochChangedAtAfter(any(Instant.class)))
+                .thenReturn(List.of(Epoch(2L, 5L, Instant.now())));
+
+        tokenRevocationService.Reload();
+
+        assertFalse(tokenRevocationService.IsValid(2L, 5L));
+    }
+
+    /**
+     * The first reload covers the token lifetime, the next ones only what
+     * changed since the previous reload (with one period of overlap).
+     */
+    @Test
+    public void reloadOnlyLoadsRecentBumps() {
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        when(userRepository.findByTokenEpochChangedAtAfter(since.capture())).thenReturn(List.of());
+
+        Instant before = Instant.now();
+        tokenRevocationService.Reload();
+        tokenRevocationService.Reload();
+        Instant after = Instant.now();
+
+        Instant first = since.getAllValues().get(0);
+        Instant second = since.getAllValues().get(1);
+        assertFalse(first.isBefore(before.minusMillis(JWT_EXPIRATION_MS)));
+        assertFalse(first.isAfter(after.minusMillis(JWT_EXPIRATION_MS)));
+        assertFalse(second.isBefore(before.minusMillis(RELOAD_MS)));
+        assertFalse(second.isAfter(after.minusMillis(RELOAD_MS)));
+    }
+
+    /**
+     * A bump older than the token lifetime can't match any valid token, it's
+     * forgotten.
+     */
+    @Test
+    public void expiredBumpsAreForgotten() {
+        Instant longAgo = Instant.now().minusMillis(JWT_EXPIRATION_MS + 1000);
+        when(userRepository.findByTokenEpochChangedAtAfter(any(Instant.class)))
+                .thenReturn(List.of(Epoch(2L, 5L, longAgo)));
+
+        tokenRevocationService.Reload();
+
+        assertTrue(tokenRevocationService.IsValid(2L, 4L));
+    }
+
+    private static TokenEpochProjection Epoch(Long id, long epoch, Instant changedAt) {
+        return new TokenEpochProjection() {
+            public Long getId() { return id; }
+            public long getTokenEpoch() { return epoch; }
+            public Instant getTokenEpochChangedAt() { return changedAt; }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package IIS.wis2_backend.Services.Cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IIS.wis2_backend.DTO.Response.Course.FullCourseDTO;
+import IIS.wis2_backend.Events.CourseChangedEvent;
+import IIS.wis2_backend.Repositories.CourseRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourseCatalogCacheTest {
+    @Mock
+    private CourseRepository courseRepository;
+
+    private CourseCatalogCache courseCatalogCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, FullCourseDTO> loader = shortcut -> {
+        loads.incrementAndGet();
+        return mock(FullCourseDTO.class);
+    };
+
+    @BeforeEach
+    public void Setup() {
+        courseCatalogCache = new CourseCatalogCache(courseRepository, 10, 300);
+    }
+
+    @Test
+    public void detailIsServedFromTheCache() {
+        CourseCatalogCache.CourseDetail first = courseCatalogCache.GetCourse("IIS", loader);
+        CourseCatalogCache.CourseDetail second = courseCatalogCache.GetCourse("IIS", loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void changedCourseIsReloaded() {
+        courseCatalogCache.GetCourse("IIS", loader);
+        courseCatalogCache.GetCourse("IPS", loader);
+
+        courseCatalogCache.OnCourseChanged(new CourseChangedEvent(1L, "IIS"));
+        courseCatalogCache.GetCourse("IIS", loader);
+        courseCatalogCache.GetCourse("IPS", loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    /**
+     * A renamed teacher shows up on any course page, all details are reloaded.
+     */
+    @Test
+    public void evictedDetailsAreReloaded() {
+        courseCatalogCache.GetCourse("IIS", loader);
+        courseCatalogCache.GetCourse("IPS", loader);
+
+        courseCatalogCache.EvictDetails();
+        courseCatalogCache.GetCourse("IIS", loader);
+        courseCatalogCache.GetCourse("IPS", loader);
+
+        assertEquals(4, loads.get());
+    }
+}
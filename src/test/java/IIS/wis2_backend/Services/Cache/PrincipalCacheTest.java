@@ -0,0 +1,101 @@
+package IIS.wis2_backend.Services.Cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
+import IIS.wis2_backend.DTO.Response.Admin.CacheStatsDTO;
+import IIS.wis2_backend.Enum.Roles;
+import IIS.wis2_backend.Services.Account.Wis2UserDetailsService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PrincipalCacheTest {
+    @Mock
+    private Wis2UserDetailsService wis2UserDetailsService;
+
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    public void Setup() {
+        principalCache = new PrincipalCache(wis2UserDetailsService, 2, 60);
+    }
+
+    /**
+     * The second request of a user doesn't touch the database, and the cached
+     * principal has no password hash.
+     */
+    @Test
+    public void knownUserIsServedFromTheCache() {
+        when(wis2UserDetailsService.loadUserByUsername("user")).thenReturn(Principal("user"));
+
+        UserDetails first = principalCache.Get("user");
+        UserDetails second = principalCache.Get("user");
+
+        assertSame(first, second);
+        assertEquals("", second.getPassword());
+        assertEquals(7L, ((Wis2Principal) second).getTokenEpoch());
+        verify(wis2UserDetailsService, times(1)).loadUserByUsername("user");
+        CacheStatsDTO stats = principalCache.Stats();
+        assertEquals(1L, stats.getHits());
+        assertEquals(1L, stats.getMisses());
+    }
+
+    /**
+     * A changed user is loaded again.
+     */
+    @Test
+    public void evictedUserIsReloaded() {
+        when(wis2UserDetailsService.loadUserByUsername("user")).thenReturn(Principal("user"));
+
+        principalCache.Get("user");
+        principalCache.Evict("user");
+        principalCache.Get("user");
+
+        verify(wis2UserDetailsService, times(2)).loadUserByUsername("user");
+    }
+
+    /**
+     * A load that raced with an eviction may have read the old row, so it's
+     * returned but not cached.
+     */
+    @Test
+    public void loadRacingWithEvictionIsNotCached() {
+        when(wis2UserDetailsService.loadUserByUsername("user")).thenAnswer(invocation -> {
+            principalCache.Evict("user");
+            return Principal("user");
+        });
+
+        principalCache.Get("user");
+        principalCache.Get("user");
+
+        verify(wis2UserDetailsService, times(2)).loadUserByUsername("user");
+    }
+
+    /**
+     * Over the limit principals are dropped, the cache stays bounded.
+     */
+    @Test
+    public void cacheStaysBounded() {
+        when(wis2UserDetailsService.loadUserByUsername(anyString()))
+                .thenAnswer(invocation -> Principal(invocation.getArgument(0)));
+
+        for (int i = 0; i < 10; i++) {
+            principalCache.Get("user" + i);
+        }
+
+        CacheStatsDTO stats = principalCache.Stats();
+        assertTrue(stats.getSize() <= 2, "size " + stats.getSize());
+        assertTrue(stats.getEvictions() >= 8, "evictions " + stats.getEvictions());
+    }
+
+    private static Wis2Principal Principal(String username) {
+        return new Wis2Principal(1L, username, "hash", Roles.USER, true, 7L);
+    }
+}
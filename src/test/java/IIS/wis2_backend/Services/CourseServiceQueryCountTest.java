@@ -0,0 +1,158 @@
+package IIS.wis2_backend.Services;
+
+import java.sql.Date;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Transactional;
+
+import IIS.wis2_backend.DTO.Response.Course.RegisteredCourseListItemDTO;
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.Relational.StudentCourse;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentCourseRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements of the registered course view with Hibernate
+ * statistics (enabled by the benchmark profile). Every test runs in a
+ * transaction which is rolled back.
+ */
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@Transactional
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+public class CourseServiceQueryCountTest {
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentCourseRepository studentCourseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Wis2User user;
+
+    private int courses;
+
+    @BeforeEach
+    public void Setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(Wis2User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .username("test.viewer")
+                .birthday(Date.valueOf("1990-01-01"))
+                .email("test.viewer@test.local")
+                .password("pwd")
+                .activated(true)
+                .build());
+    }
+
+    /**
+     * The view must issue the same number of statements no matter how many
+     * courses there are (it used to be 4 per course).
+     */
+    @Test
+    public void registeredViewQueryCountDoesNotGrowWithCourses() {
+        AddCourses(1);
+        long few = CountStatements(null);
+
+        AddCourses(50);
+        long many = CountStatements(null);
+
+        assertEquals(few, many);
+        assertTrue(many <= 2, "Expected the user check and the view query, got " + many);
+    }
+
+    /**
+     * Paged, the count query is the only extra statement.
+     */
+    @Test
+    public void pagedRegisteredViewQueryCountDoesNotGrowWithCourses() {
+        AddCourses(1);
+        long few = CountStatements(10);
+
+        AddCourses(50);
+        long many = CountStatements(10);
+
+        assertEquals(few, many);
+        assertTrue(many <= 3, "Expected the user check, the view and the count query, got " + many);
+    }
+
+    /**
+     * Runs the view with an empty persistence context and counts the prepared
+     * statements.
+     * 
+     * @param size Page size or null for all courses.
+     * @return Number of statements.
+     */
+    private long CountStatements(Integer size) {
+        entityManager.flush();
+        entityManager.clear();
+
+        long before = statistics.getPrepareStatementCount();
+        Page<RegisteredCourseListItemDTO> page = courseService.GetRegisteredCourseDTOs("test.viewer", 0, size);
+        long statements = statistics.getPrepareStatementCount() - before;
+
+        RegisteredCourseListItemDTO first = page.getContent().stream()
+                .filter(c -> c.getShortcut().startsWith("TEST_VIEW_"))
+                .findFirst()
+                .orElse(null);
+        if (first != null) {
+            assertTrue(first.isStudent());
+        }
+        return statements;
+    }
+
+    /**
+     * Adds courses the user has a pending request for.
+     * 
+     * @param count Number of courses.
+     */
+    private void AddCourses(int count) {
+        for (int i = 0; i < count; i++) {
+            Course course = courseRepository.save(Course.builder()
+                    .name("View test " + courses)
+                    .price(0.0)
+                    .shortcut("TEST_VIEW_" + courses++)
+                    .completedBy(CourseEndType.EXAM)
+                    .teachers(Set.of())
+                    .capacity(10)
+                    .autoregister(false)
+                    .build());
+            studentCourseRepository.save(StudentCourse.builder()
+                    .course(course)
+                    .student(user)
+                    .status(RequestStatus.PENDING)
+                    .build());
+        }
+    }
+}
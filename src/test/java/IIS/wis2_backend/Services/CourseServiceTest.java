@@ -0,0 +1,225 @@
+package IIS.wis2_backend.Services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import IIS.wis2_backend.DTO.Request.ModelAttributes.CourseFilter;
+import IIS.wis2_backend.DTO.Response.Course.GradebookEntryDTO;
+import IIS.wis2_backend.DTO.Response.Course.RegisteredCourseListItemDTO;
+import IIS.wis2_backend.DTO.Response.Projections.GradebookPointsProjection;
+import IIS.wis2_backend.DTO.Response.Projections.GradebookStudentProjection;
+import IIS.wis2_backend.DTO.Response.Projections.GradebookTermProjection;
+import IIS.wis2_backend.DTO.Response.Projections.RegisteredCourseProjection;
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.Relational.StudentCourse;
+import IIS.wis2_backend.Models.Relational.StudentTerm;
+import IIS.wis2_backend.Models.Term.Exam;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Education.Term.TermRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentCourseRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentTermRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Cache.CourseCatalogCache;
+import IIS.wis2_backend.Services.Education.EnrollmentService;
+import IIS.wis2_backend.Services.Search.CourseSearchService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourseServiceTest {
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StudentTermRepository studentTermRepository;
+
+    @Mock
+    private StudentCourseRepository studentCourseRepository;
+
+    @Mock
+    private TermRepository termRepository;
+
+    @Mock
+    private CourseSearchService courseSearchService;
+
+    @Mock
+    private CourseCatalogCache courseCatalogCache;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CourseService courseService;
+
+    /**
+     * Page sizes over the limit are rejected before anything is loaded.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 0, CourseFilter.MAX_SIZE + 1 })
+    public void catalogRejectsInvalidPageSize(int size) {
+        CourseFilter filter = new CourseFilter();
+        filter.setSize(size);
+
+        assertThrows(IllegalArgumentException.class, () -> courseService.GetAllCourses(filter));
+        verifyNoInteractions(courseRepository, courseCatalogCache, courseSearchService);
+    }
+
+    @Test
+    public void registeredViewMapsRoleFlags() {
+        when(userRepository.existsByUsername("student")).thenReturn(true);
+        when(courseRepository.findRegisteredCourseView(eq("student"), any(Pageable.class)))
+                .thenReturn(Courses(1));
+
+        RegisteredCourseListItemDTO dto = courseService.GetRegisteredCourseDTOs("student", 0, 10)
+                .getContent().get(0);
+
+        assertFalse(dto.isSupervisor());
+        assertTrue(dto.isTeacher());
+        assertFalse(dto.isStudent());
+        assertTrue(dto.getHasRequested());
+    }
+
+    /**
+     * The gradebook is built from three flat queries regardless of the number of
+     * students and terms.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 600 })
+    public void gradebookQueryCountDoesNotGrowWithStudents(int studentCount) {
+        List<GradebookStudentProjection> students = IntStream.range(0, studentCount)
+                .mapToObj(i -> Student((long) i))
+                .collect(Collectors.toList());
+        List<GradebookTermProjection> terms = IntStream.range(0, 15)
+                .mapToObj(i -> Term((long) i))
+                .collect(Collectors.toList());
+        // Every student is registered for term 0 (graded) and term 1 (not graded yet)
+        List<GradebookPointsProjection> cells = IntStream.range(0, studentCount)
+                .boxed()
+                .flatMap(i -> List.of(Cell((long) i, 0L, 10), Cell((long) i, 1L, null)).stream())
+                .collect(Collectors.toList());
+
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(studentCourseRepository.findGradebookRows(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(students));
+        when(termRepository.findGradebookTerms(1L)).thenReturn(terms);
+        when(studentTermRepository.findGradebookPointsByCourse(1L)).thenReturn(cells);
+
+        List<GradebookEntryDTO> gradebook = courseService.getCourseGradebook(1L);
+
+        assertEquals(studentCount, gradebook.size());
+        GradebookEntryDTO entry = gradebook.get(0);
+        assertEquals(15, entry.getTermGrades().size());
+        assertEquals(10, entry.getTotalPoints());
+        assertTrue(entry.getTermGrades().get(1).getEnrolled());
+        assertNull(entry.getTermGrades().get(1).getPoints());
+        assertFalse(entry.getTermGrades().get(2).getEnrolled());
+
+        verify(studentCourseRepository, times(1)).findGradebookRows(eq(1L), any(Pageable.class));
+        verify(termRepository, times(1)).findGradebookTerms(1L);
+        verify(studentTermRepository, times(1)).findGradebookPointsByCourse(1L);
+        verifyNoMoreInteractions(studentCourseRepository, termRepository, studentTermRepository);
+    }
+
+    /**
+     * Grading a term applies only the difference to the course total, without
+     * reloading the course or other terms.
+     */
+    @Test
+    public void gradingTermAppliesPointsDelta() {
+        Course course = Course.builder().id(1L).completedBy(CourseEndType.EXAM).build();
+        StudentTerm studentTerm = StudentTerm.builder()
+                .term(Exam.builder().id(2L).course(course).build())
+                .points(5)
+                .build();
+        StudentCourse studentCourse = StudentCourse.builder().course(course).points(30).build();
+
+        when(studentTermRepository.findByTermIdAndStudentId(2L, 3L)).thenReturn(Optional.of(studentTerm));
+        when(studentCourseRepository.findByCourseIdAndStudentId(1L, 3L)).thenReturn(Optional.of(studentCourse));
+
+        courseService.updateStudentTermPoints(1L, 2L, 3L, 8);
+        assertEquals(33, studentCourse.getPoints());
+
+        courseService.updateStudentTermPoints(1L, 2L, 3L, null);
+        assertEquals(25, studentCourse.getPoints());
+
+        verifyNoInteractions(courseRepository);
+    }
+
+    private GradebookStudentProjection Student(Long id) {
+        return new GradebookStudentProjection() {
+            public Long getStudentId() { return id; }
+            public String getUsername() { return "student" + id; }
+            public String getFirstName() { return "First"; }
+            public String getLastName() { return "Last" + id; }
+            public Integer getPoints() { return 0; }
+            public Boolean getUnitCredit() { return false; }
+            public Boolean getExamPassed() { return false; }
+            public Double getFinalGrade() { return null; }
+            public Boolean getCompleted() { return false; }
+        };
+    }
+
+    private GradebookTermProjection Term(Long id) {
+        return new GradebookTermProjection() {
+            public Long getId() { return id; }
+            public String getName() { return "Term " + id; }
+            public Integer getMaxPoints() { return 20; }
+        };
+    }
+
+    private GradebookPointsProjection Cell(Long studentId, Long termId, Integer points) {
+        return new GradebookPointsProjection() {
+            public Long getStudentId() { return studentId; }
+            public Long getTermId() { return termId; }
+            public Integer getPoints() { return points; }
+        };
+    }
+
+    /**
+     * Builds a page of fake projections.
+     */
+    private Page<RegisteredCourseProjection> Courses(int count) {
+        List<RegisteredCourseProjection> courses = IntStream.range(0, count)
+                .mapToObj(i -> Projection((long) i))
+                .collect(Collectors.toList());
+        return new PageImpl<>(courses);
+    }
+
+    private RegisteredCourseProjection Projection(Long id) {
+        return new RegisteredCourseProjection() {
+            public Long getId() { return id; }
+            public String getName() { return "Course " + id; }
+            public Double getPrice() { return 0.0; }
+            public String getShortcut() { return "C" + id; }
+            public CourseEndType getCompletedBy() { return CourseEndType.EXAM; }
+            public Boolean getIsSupervisor() { return false; }
+            public Boolean getIsTeacher() { return true; }
+            public Boolean getIsStudent() { return false; }
+            public Boolean getHasRequested() { return true; }
+        };
+    }
+}
@@ -0,0 +1,246 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IIS.wis2_backend.DTO.Response.Projections.SeatCountMismatchProjection;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.Relational.StudentCourse;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentCourseRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrollmentServiceTest {
+    private static final int CAPACITY = 100;
+    private static final int STUDENTS = 5000;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private StudentCourseRepository studentCourseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private EnrollmentService enrollmentService;
+
+    /**
+     * 5k students enroll at the same time into an autoregistered course, with
+     * the seat counter mocked as a compare-and-set. Checks that Enroll admits
+     * exactly the students the counter grants a seat and waitlists everyone
+     * else (the UPDATE itself is tested in CourseSeatConcurrencyTest).
+     */
+    @Test
+    public void enrollmentAdmitsOnlyWhatTheSeatCounterGrants() throws Exception {
+        Course course = Course.builder()
+                .id(1L)
+                .shortcut("IIS")
+                .capacity(CAPACITY)
+                .autoregister(true)
+                .build();
+
+        AtomicInteger seats = new AtomicInteger();
+        AtomicLong ids = new AtomicLong();
+        Queue<StudentCourse> saved = new ConcurrentLinkedQueue<>();
+
+        when(courseRepository.findByShortcut("IIS")).thenReturn(Optional.of(course));
+        when(courseRepository.lockSeats(1L)).thenReturn(Optional.of(1L));
+        when(userRepository.findByUsername(anyString())).thenAnswer(i -> Optional.of(new Wis2User()));
+        when(courseRepository.takeSeat(1L)).thenAnswer(i -> {
+            while (true) {
+                int taken = seats.get();
+                if (taken >= CAPACITY) {
+                    return 0;
+                }
+                if (seats.compareAndSet(taken, taken + 1)) {
+                    return 1;
+                }
+            }
+        });
+        when(studentCourseRepository.saveAndFlush(any(StudentCourse.class))).thenAnswer(i -> {
+            StudentCourse sc = i.getArgument(0);
+            sc.setId(ids.incrementAndGet());
+            saved.add(sc);
+            return sc;
+        });
+        when(studentCourseRepository.countQueuedBefore(eq(1L), eq(RequestStatus.WAITLISTED), any(), anyLong()))
+                .thenReturn(0L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            String username = "student" + i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return enrollmentService.Enroll("IIS", username);
+            }));
+        }
+
+        start.countDown();
+        for (Future<String> result : results) {
+            assertNotNull(result.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        long approved = saved.stream().filter(sc -> sc.getStatus() == RequestStatus.APPROVED).count();
+        long waitlisted = saved.stream().filter(sc -> sc.getStatus() == RequestStatus.WAITLISTED).count();
+
+        assertEquals(STUDENTS, saved.size());
+        assertEquals(CAPACITY, approved);
+        assertEquals(STUDENTS - CAPACITY, waitlisted);
+        assertEquals(CAPACITY, seats.get());
+    }
+
+    /**
+     * A newcomer doesn't take a freed seat while others are waiting for it.
+     */
+    @Test
+    public void newcomerDoesNotJumpTheWaitlistOfAutoregisteredCourse() {
+        Course course = Course.builder().id(1L).shortcut("IIS").capacity(10).autoregister(true).build();
+        StubEnrollment(course);
+        when(studentCourseRepository.existsByCourseIdAndStatus(1L, RequestStatus.WAITLISTED)).thenReturn(true);
+
+        String message = enrollmentService.Enroll("IIS", "newcomer");
+
+        assertTrue(message.contains("waitlist"));
+        verify(courseRepository, never()).takeSeat(anyLong());
+    }
+
+    /**
+     * Pending requests count against the capacity for newcomers the same way
+     * they do for the waitlist promotion.
+     */
+    @Test
+    public void pendingRequestsCountAgainstCapacity() {
+        Course course = Course.builder().id(1L).shortcut("IIS").capacity(10).autoregister(false).build();
+        StubEnrollment(course);
+        when(courseRepository.findEnrolledCountById(1L)).thenReturn(8);
+        when(studentCourseRepository.countByCourseIdAndStatus(1L, RequestStatus.PENDING)).thenReturn(2L);
+
+        String message = enrollmentService.Enroll("IIS", "newcomer");
+
+        assertTrue(message.contains("waitlist"));
+    }
+
+    /**
+     * The rule changed with the waitlist: no approved students, but pending
+     * requests filling the capacity already send a newcomer to the waitlist
+     * (it used to create another pending request while approved < capacity).
+     */
+    @Test
+    public void pendingRequestsAloneCanFillTheCourse() {
+        Course course = Course.builder().id(1L).shortcut("IIS").capacity(10).autoregister(false).build();
+        StubEnrollment(course);
+        when(courseRepository.findEnrolledCountById(1L)).thenReturn(0);
+        when(studentCourseRepository.countByCourseIdAndStatus(1L, RequestStatus.PENDING)).thenReturn(10L);
+
+        String message = enrollmentService.Enroll("IIS", "newcomer");
+
+        assertTrue(message.contains("waitlist"));
+        verify(studentCourseRepository).saveAndFlush(argThat(sc -> sc.getStatus() == RequestStatus.WAITLISTED));
+    }
+
+    /**
+     * Below the capacity a newcomer of a course without autoregistration
+     * creates a pending request.
+     */
+    @Test
+    public void newcomerCreatesPendingRequestWhenThereIsRoom() {
+        Course course = Course.builder().id(1L).shortcut("IIS").capacity(10).autoregister(false).build();
+        StubEnrollment(course);
+        when(courseRepository.findEnrolledCountById(1L)).thenReturn(8);
+        when(studentCourseRepository.countByCourseIdAndStatus(1L, RequestStatus.PENDING)).thenReturn(1L);
+
+        assertEquals("Enrollment request submitted successfully!", enrollmentService.Enroll("IIS", "newcomer"));
+    }
+
+    /**
+     * Promotion stops once approved and pending students fill the capacity.
+     */
+    @Test
+    public void promotionUsesTheSameRuleAsEnrollment() {
+        Course course = Course.builder().id(1L).shortcut("IIS").capacity(10).autoregister(false).build();
+        StudentCourse first = StudentCourse.builder().id(1L).course(course).status(RequestStatus.WAITLISTED).build();
+        StudentCourse second = StudentCourse.builder().id(2L).course(course).status(RequestStatus.WAITLISTED).build();
+
+        when(courseRepository.lockSeats(1L)).thenReturn(Optional.of(1L));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(studentCourseRepository.findFirstByCourseIdAndStatusOrderByRequestedAtAscIdAsc(1L,
+                RequestStatus.WAITLISTED)).thenReturn(Optional.of(first), Optional.of(second));
+        when(courseRepository.findEnrolledCountById(1L)).thenReturn(8);
+        when(studentCourseRepository.countByCourseIdAndStatus(1L, RequestStatus.PENDING)).thenReturn(1L, 2L);
+
+        enrollmentService.PromoteWaitlist(1L);
+
+        assertEquals(RequestStatus.PENDING, first.getStatus());
+        assertEquals(RequestStatus.WAITLISTED, second.getStatus());
+        verify(studentCourseRepository, times(1)).saveAndFlush(any(StudentCourse.class));
+    }
+
+    /**
+     * The counter is recounted under the seat lock instead of being set to
+     * the count read before, a seat taken meanwhile isn't lost.
+     */
+    @Test
+    public void seatCounterIsRecountedUnderTheLock() {
+        Course course = Course.builder().id(1L).shortcut("IIS").capacity(10).autoregister(true).build();
+        SeatCountMismatchProjection mismatch = mock(SeatCountMismatchProjection.class);
+        when(mismatch.getId()).thenReturn(1L);
+        when(courseRepository.findSeatCountMismatches()).thenReturn(List.of(mismatch));
+        when(courseRepository.lockSeats(1L)).thenReturn(Optional.of(1L));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findEnrolledCountById(1L)).thenReturn(6, 5);
+
+        enrollmentService.CheckSeatCounters();
+
+        InOrder inOrder = inOrder(courseRepository);
+        inOrder.verify(courseRepository).lockSeats(1L);
+        inOrder.verify(courseRepository).recountEnrolledStudents(1L);
+        verify(studentCourseRepository).findFirstByCourseIdAndStatusOrderByRequestedAtAscIdAsc(1L,
+                RequestStatus.WAITLISTED);
+    }
+
+    private void StubEnrollment(Course course) {
+        when(courseRepository.findByShortcut("IIS")).thenReturn(Optional.of(course));
+        when(userRepository.findByUsername(anyString())).thenAnswer(i -> Optional.of(new Wis2User()));
+        when(studentCourseRepository.saveAndFlush(any(StudentCourse.class))).thenAnswer(i -> {
+            StudentCourse sc = i.getArgument(0);
+            sc.setId(1L);
+            return sc;
+        });
+        lenient().when(courseRepository.lockSeats(1L)).thenReturn(Optional.of(1L));
+        lenient().when(studentCourseRepository.countQueuedBefore(eq(1L), eq(RequestStatus.WAITLISTED), any(),
+                anyLong())).thenReturn(0L);
+    }
+}
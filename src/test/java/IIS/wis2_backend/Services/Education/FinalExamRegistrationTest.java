@@ -0,0 +1,155 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import IIS.wis2_backend.DTO.Request.Term.TermCreationDTO;
+import IIS.wis2_backend.DTO.Response.Term.LightweightTermDTO;
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Enum.TermType;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.Relational.StudentCourse;
+import IIS.wis2_backend.Models.Room.StudyRoom;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentCourseRepository;
+import IIS.wis2_backend.Repositories.Room.StudyRoomRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests which students a final exam registers, against the database. Every
+ * test runs in a transaction which is rolled back.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+public class FinalExamRegistrationTest {
+    @Autowired
+    private TermService termService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentCourseRepository studentCourseRepository;
+
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Exam only courses register every approved student who hasn't completed
+     * the course.
+     */
+    @Test
+    public void examRegistersApprovedStudentsWhoHaveNotCompleted() {
+        Course course = Course(CourseEndType.EXAM);
+        Wis2User open = Enroll(course, "test.open", RequestStatus.APPROVED, false, false);
+        Enroll(course, "test.completed", RequestStatus.APPROVED, false, true);
+        Enroll(course, "test.pending", RequestStatus.PENDING, false, false);
+
+        Long examId = CreateFinalExam(course);
+
+        assertEquals(Set.of(open.getId()), RegisteredStudents(examId));
+    }
+
+    /**
+     * With unit credit, only students holding it are registered.
+     */
+    @Test
+    public void unitCreditExamRegistersOnlyStudentsWithUnitCredit() {
+        Course course = Course(CourseEndType.UNIT_CREDIT_EXAM);
+        Wis2User credited = Enroll(course, "test.credited", RequestStatus.APPROVED, true, false);
+        Enroll(course, "test.uncredited", RequestStatus.APPROVED, false, false);
+        Enroll(course, "test.completed", RequestStatus.APPROVED, true, true);
+
+        Long examId = CreateFinalExam(course);
+
+        assertEquals(Set.of(credited.getId()), RegisteredStudents(examId));
+    }
+
+    private Long CreateFinalExam(Course course) {
+        LightweightTermDTO exam = termService.CreateFinalExam(course.getShortcut(), TermCreationDTO.builder()
+                .name("Final exam")
+                .minPoints(0)
+                .maxPoints(20)
+                .startDate(LocalDateTime.of(2030, 1, 10, 9, 0))
+                .duration(120)
+                .roomShortcut(Room().getShortcut())
+                .autoregister(true)
+                .type(TermType.EXAM)
+                .build(), "test.supervisor");
+        return exam.id();
+    }
+
+    private Set<Long> RegisteredStudents(Long termId) {
+        return Set.copyOf(jdbcTemplate.queryForList("SELECT student_id FROM student_term WHERE term_id = :termId",
+                Map.of("termId", termId), Long.class));
+    }
+
+    private Course Course(CourseEndType endType) {
+        return courseRepository.save(Course.builder()
+                .name("Test course")
+                .price(0.0)
+                .shortcut("TEST_EXAM")
+                .completedBy(endType)
+                .supervisor(User("test.supervisor"))
+                .teachers(Set.of())
+                .capacity(10)
+                .autoregister(false)
+                .build());
+    }
+
+    private Wis2User Enroll(Course course, String username, RequestStatus status, boolean unitCredit,
+            boolean completed) {
+        Wis2User student = User(username);
+        studentCourseRepository.saveAndFlush(StudentCourse.builder()
+                .student(student)
+                .course(course)
+                .status(status)
+                .unitCredit(unitCredit)
+                .completed(completed)
+                .build());
+        return student;
+    }
+
+    private StudyRoom Room() {
+        return studyRoomRepository.findMaybeByShortcut("TEST_ROOM").orElseGet(() -> {
+            StudyRoom room = new StudyRoom();
+            room.setShortcut("TEST_ROOM");
+            room.setBuilding("T");
+            room.setFloor("1");
+            room.setCapacity(30);
+            return studyRoomRepository.save(room);
+        });
+    }
+
+    private Wis2User User(String username) {
+        return userRepository.save(Wis2User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .username(username)
+                .birthday(Date.valueOf("1990-01-01"))
+                .email(username + "@test.local")
+                .password("pwd")
+                .activated(true)
+                .build());
+    }
+}
@@ -0,0 +1,167 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IIS.wis2_backend.DTO.Response.Schedule.FeedTokenDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleFeedItemDTO;
+import IIS.wis2_backend.Enum.TermType;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Models.Tokens.FeedToken;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Tokens.FeedTokenRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+import IIS.wis2_backend.Utils.LinkTokenUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleFeedServiceTest {
+    @Mock
+    private FeedTokenRepository feedTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ScheduleService scheduleService;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    private ScheduleFeedService scheduleFeedService;
+
+    private final Wis2User student = Wis2User.builder().id(1L).username("student").activated(true).build();
+
+    @BeforeEach
+    public void Setup() {
+        scheduleFeedService = new ScheduleFeedService(feedTokenRepository, userRepository, courseRepository,
+                scheduleService, resourceVersions, "Europe/Prague", 30);
+    }
+
+    /**
+     * Only the hash of a new token is stored and the previous token is
+     * deleted.
+     */
+    @Test
+    public void generatingReplacesThePreviousToken() {
+        FeedToken old = FeedToken.builder().id(5L).tokenHash("old").user(student).build();
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(student));
+        when(feedTokenRepository.findByUser_Id(1L)).thenReturn(Optional.of(old));
+
+        FeedTokenDTO dto = scheduleFeedService.GenerateFeedToken("student");
+
+        verify(feedTokenRepository).delete(old);
+        ArgumentCaptor<FeedToken> saved = ArgumentCaptor.forClass(FeedToken.class);
+        verify(feedTokenRepository).save(saved.capture());
+        assertEquals(LinkTokenUtils.HashToken(dto.token()), saved.getValue().getTokenHash());
+        assertNotEquals(dto.token(), saved.getValue().getTokenHash());
+        assertEquals(student, saved.getValue().getUser());
+        assertEquals("/schedules/feed/" + dto.token() + ".ics", dto.path());
+    }
+
+    @Test
+    public void tokenResolvesToItsActivatedOwner() {
+        String token = "feed-token";
+        when(feedTokenRepository.findByTokenHash(LinkTokenUtils.HashToken(token)))
+                .thenReturn(Optional.of(FeedToken.builder().tokenHash(LinkTokenUtils.HashToken(token))
+                        .user(student).build()));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(student));
+
+        assertEquals("student", scheduleFeedService.ResolveFeedToken(token));
+    }
+
+    @Test
+    public void unknownTokenIsNotFound() {
+        when(feedTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> scheduleFeedService.ResolveFeedToken("unknown"));
+    }
+
+    /**
+     * A token can outlive its user in the cache, it must not resolve then, nor
+     * for a deactivated user.
+     */
+    @Test
+    public void tokenOfDeletedOrInactiveUserIsNotFound() {
+        when(feedTokenRepository.findByTokenHash(any()))
+                .thenReturn(Optional.of(FeedToken.builder().user(student).build()));
+        when(userRepository.findById(1L)).thenReturn(Optional.empty(),
+                Optional.of(Wis2User.builder().id(1L).username("student").activated(false).build()));
+
+        assertThrows(NotFoundException.class, () -> scheduleFeedService.ResolveFeedToken("token"));
+        assertThrows(NotFoundException.class, () -> scheduleFeedService.ResolveFeedToken("token"));
+    }
+
+    @Test
+    public void revokingDeletesTheToken() {
+        FeedToken token = FeedToken.builder().id(5L).user(student).build();
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(student));
+        when(feedTokenRepository.findByUser_Id(1L)).thenReturn(Optional.of(token));
+
+        scheduleFeedService.RevokeFeedToken("student");
+
+        verify(feedTokenRepository).delete(token);
+    }
+
+    @Test
+    public void revokingWithoutTokenDoesNothing() {
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(student));
+        when(feedTokenRepository.findByUser_Id(1L)).thenReturn(Optional.empty());
+
+        scheduleFeedService.RevokeFeedToken("student");
+
+        verify(feedTokenRepository, never()).delete(any());
+    }
+
+    /**
+     * Events keep their UID between feeds (clients update them instead of
+     * duplicating) and local times are converted to UTC.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void eventsHaveStableUidsAndUtcTimes() {
+        ScheduleFeedItemDTO item = new ScheduleFeedItemDTO(7L, LocalDateTime.of(2025, 9, 22, 8, 0),
+                LocalDateTime.of(2025, 9, 22, 9, 50), "IIS", "Information systems", TermType.LECTURE,
+                "Intro, part 1", "D105");
+        doAnswer(invocation -> {
+            ((Consumer<ScheduleFeedItemDTO>) invocation.getArgument(2)).accept(item);
+            return null;
+        }).when(scheduleService).ForEachUserItem(eq("student"), any(LocalDateTime.class), any(Consumer.class));
+
+        String first = WriteUserFeed();
+        String second = WriteUserFeed();
+
+        assertTrue(first.contains("\r\nUID:schedule-item-7@wis2\r\n"));
+        assertTrue(second.contains("\r\nUID:schedule-item-7@wis2\r\n"));
+        // Prague is UTC+2 in September
+        assertTrue(first.contains("\r\nDTSTART:20250922T060000Z\r\n"));
+        assertTrue(first.contains("\r\nDTEND:20250922T075000Z\r\n"));
+        assertTrue(first.contains("\r\nSUMMARY:IIS lecture: Intro\\, part 1\r\n"));
+        assertTrue(first.contains("\r\nLOCATION:D105\r\n"));
+    }
+
+    private String WriteUserFeed() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        scheduleFeedService.WriteUserFeed("student", out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
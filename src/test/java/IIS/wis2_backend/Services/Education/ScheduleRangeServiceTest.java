@@ -0,0 +1,100 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import IIS.wis2_backend.DTO.Request.Schedule.ScheduleRangeRequestDTO;
+import IIS.wis2_backend.Enum.TermType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleRangeServiceTest {
+    private static final LocalDate FROM = LocalDate.of(2025, 9, 22);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 21);
+
+    /**
+     * The order of the filters doesn't change the variant.
+     */
+    @Test
+    public void variantIgnoresFilterOrder() {
+        ScheduleRangeRequestDTO one = Request("student", FROM, TO,
+                Ordered(TermType.LAB, TermType.EXAM), Ordered("IIS", "IDS"), true);
+        ScheduleRangeRequestDTO other = Request("student", FROM, TO,
+                Ordered(TermType.EXAM, TermType.LAB), Ordered("IDS", "IIS"), true);
+
+        assertEquals(ScheduleRangeService.RangeVariant(one, true), ScheduleRangeService.RangeVariant(other, true));
+    }
+
+    /**
+     * Empty filters and all types mean the same data.
+     */
+    @Test
+    public void emptyFiltersMeanAll() {
+        ScheduleRangeRequestDTO empty = Request("student", FROM, TO, Set.of(), Set.of(), null);
+        ScheduleRangeRequestDTO none = Request("student", FROM, TO, null, null, false);
+        ScheduleRangeRequestDTO all = Request("student", FROM, TO, EnumSet.allOf(TermType.class), null, false);
+
+        assertEquals(ScheduleRangeService.RangeVariant(empty, true), ScheduleRangeService.RangeVariant(none, true));
+        assertEquals(ScheduleRangeService.RangeVariant(none, true), ScheduleRangeService.RangeVariant(all, true));
+    }
+
+    /**
+     * Everything the written range depends on changes the variant.
+     */
+    @Test
+    public void variantChangesWithTheRequest() {
+        ScheduleRangeRequestDTO base = Request("student", FROM, TO, Set.of(TermType.LAB), Set.of("IIS"), false);
+        List<ScheduleRangeRequestDTO> others = List.of(
+                Request("teacher", FROM, TO, Set.of(TermType.LAB), Set.of("IIS"), false),
+                Request("student", FROM.plusDays(1), TO, Set.of(TermType.LAB), Set.of("IIS"), false),
+                Request("student", FROM, TO.plusDays(1), Set.of(TermType.LAB), Set.of("IIS"), false),
+                Request("student", FROM, TO, Set.of(TermType.EXAM), Set.of("IIS"), false),
+                Request("student", FROM, TO, Set.of(TermType.LAB), Set.of("IDS"), false),
+                Request("student", FROM, TO, Set.of(TermType.LAB), Set.of("IIS", "IDS"), false),
+                Request("student", FROM, TO, Set.of(TermType.LAB), Set.of("IIS"), true));
+
+        String variant = ScheduleRangeService.RangeVariant(base, true);
+        for (ScheduleRangeRequestDTO other : others) {
+            assertNotEquals(variant, ScheduleRangeService.RangeVariant(other, true), other.toString());
+        }
+    }
+
+    /**
+     * Shortcuts with separators in them can't be confused with two courses.
+     */
+    @Test
+    public void courseListIsUnambiguous() {
+        ScheduleRangeRequestDTO joined = Request("student", FROM, TO, null, Set.of("A,B"), false);
+        ScheduleRangeRequestDTO split = Request("student", FROM, TO, null, Set.of("A", "B"), false);
+
+        assertNotEquals(ScheduleRangeService.RangeVariant(joined, true),
+                ScheduleRangeService.RangeVariant(split, true));
+    }
+
+    /**
+     * Course schedules have no course filter.
+     */
+    @Test
+    public void courseFilterIsIgnoredForCourseSchedules() {
+        ScheduleRangeRequestDTO filtered = Request("IIS", FROM, TO, null, Set.of("IDS"), false);
+        ScheduleRangeRequestDTO unfiltered = Request("IIS", FROM, TO, null, null, false);
+
+        assertEquals(ScheduleRangeService.RangeVariant(filtered, false),
+                ScheduleRangeService.RangeVariant(unfiltered, false));
+    }
+
+    private static ScheduleRangeRequestDTO Request(String subject, LocalDate from, LocalDate to, Set<TermType> types,
+            Set<String> courses, Boolean compact) {
+        return new ScheduleRangeRequestDTO(subject, from, to, types, courses, compact);
+    }
+
+    @SafeVarargs
+    private static <T> Set<T> Ordered(T... values) {
+        return new LinkedHashSet<>(List.of(values));
+    }
+}
@@ -0,0 +1,253 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleItemDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO;
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleWeekDTO;
+import IIS.wis2_backend.Enum.TermType;
+import IIS.wis2_backend.Exceptions.ExceptionTypes.NotFoundException;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.ScheduleItem;
+import IIS.wis2_backend.Models.Term.Lecture;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Education.Schedule.ScheduleEntryRepository;
+import IIS.wis2_backend.Repositories.Education.Schedule.ScheduleItemRepository;
+import IIS.wis2_backend.Repositories.Education.Schedule.ScheduleRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ScheduleItemRepository scheduleItemRepository;
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private ScheduleEntryRepository scheduleEntryRepository;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    /**
+     * A week is read with one range query on the stored schedule, from Monday
+     * midnight to the next one.
+     */
+    @Test
+    public void userWeekIsOneRangeQuery() {
+        LocalDate monday = LocalDate.of(2025, 9, 22);
+        List<ScheduleItemDTO> items = List.of(WeekItem(9, "IIS"));
+        when(scheduleRepository.findIdByUsername("user")).thenReturn(Optional.of(3L));
+        when(scheduleEntryRepository.findItemsInRange(3L, monday.atStartOfDay(), monday.plusDays(7).atStartOfDay()))
+                .thenReturn(items);
+
+        ScheduleWeekDTO week = Service("links").GetUserScheduleForGivenWeek("user", monday);
+
+        assertEquals(items, week.items());
+        verifyNoInteractions(scheduleItemRepository);
+    }
+
+    @Test
+    public void courseWeekIsOneRangeQuery() {
+        LocalDate monday = LocalDate.of(2025, 9, 22);
+        when(scheduleRepository.findIdByCourseShortcut("IIS")).thenReturn(Optional.of(4L));
+        when(scheduleEntryRepository.findItemsInRange(4L, monday.atStartOfDay(), monday.plusDays(7).atStartOfDay()))
+                .thenReturn(List.of());
+
+        assertTrue(Service("links").GetCourseScheduleForGivenWeek("IIS", monday).items().isEmpty());
+    }
+
+    @Test
+    public void weekHasToStartOnMonday() {
+        ScheduleService scheduleService = Service("links");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduleService.GetUserScheduleForGivenWeek("user", LocalDate.of(2025, 9, 23)));
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduleService.GetCourseScheduleForGivenWeek("IIS", LocalDate.of(2025, 9, 28)));
+        verifyNoInteractions(scheduleRepository, scheduleEntryRepository);
+    }
+
+    @Test
+    public void unknownUserHasNoWeek() {
+        when(scheduleRepository.findIdByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class,
+                () -> Service("links").GetUserScheduleForGivenWeek("nobody", LocalDate.of(2025, 9, 22)));
+    }
+
+    /**
+     * A derived week is the registered terms plus the taught courses, sorted,
+     * with a term that is both only once.
+     */
+    @Test
+    public void derivedWeekMergesRegisteredAndTaughtItems() {
+        LocalDate monday = LocalDate.of(2025, 9, 22);
+        LocalDateTime from = monday.atStartOfDay();
+        LocalDateTime to = monday.plusDays(7).atStartOfDay();
+        when(userRepository.findByUsername("teacher"))
+                .thenReturn(Optional.of(Wis2User.builder().id(2L).username("teacher").build()));
+        when(scheduleItemRepository.findRegisteredItemsInRange(2L, from, to))
+                .thenReturn(List.of(WeekItem(10, "IDS"), WeekItem(8, "IIS")));
+        when(scheduleEntryRepository.findTaughtItemsInRange(2L, from, to))
+                .thenReturn(List.of(WeekItem(8, "IIS"), WeekItem(12, "IIS")));
+
+        ScheduleWeekDTO week = Service("derived").GetUserScheduleForGivenWeek("teacher", monday);
+
+        assertEquals(List.of(WeekItem(8, "IIS"), WeekItem(10, "IDS"), WeekItem(12, "IIS")), week.items());
+        verifyNoInteractions(scheduleRepository);
+    }
+
+    /**
+     * Derived, a new term costs the same no matter how many students are
+     * registered: only the course schedule is written.
+     */
+    @Test
+    public void derivedTermIsNotLinkedToUsers() {
+        Course course = Course.builder().id(1L).shortcut("IIS").name("Information Systems").build();
+        Lecture lecture = Lecture.builder()
+                .id(5L)
+                .course(course)
+                .date(LocalDateTime.of(2025, 9, 22, 8, 0))
+                .duration(110)
+                .build();
+
+        Service("derived").CreateScheduleForTerm(lecture, TermType.LECTURE);
+
+        verify(scheduleItemRepository).saveAndFlush(any(ScheduleItem.class));
+        verify(resourceVersions).Bump(ResourceVersions.SCHEDULES);
+        verifyNoInteractions(userRepository, scheduleEntryRepository);
+    }
+
+    /**
+     * Derived, registering only changes the ETag of the user.
+     */
+    @Test
+    public void derivedRegistrationWritesNoLinks() {
+        Wis2User user = Wis2User.builder().id(2L).username("student").build();
+        Lecture lecture = Lecture.builder().id(5L).build();
+
+        ScheduleService scheduleService = Service("derived");
+        scheduleService.AddTermToUserSchedule(lecture, user);
+        scheduleService.RemoveTermFromUserSchedule(lecture, user);
+
+        verify(resourceVersions, times(2)).Bump(ResourceVersions.UserScheduleKey("student"));
+        verifyNoInteractions(scheduleItemRepository, scheduleEntryRepository);
+    }
+
+    /**
+     * Stored schedules are brought up to date on startup, stale items go first.
+     */
+    @Test
+    public void linksModeSyncsUserSchedules() {
+        when(scheduleEntryRepository.removeStaleUserItems()).thenReturn(2);
+        when(scheduleEntryRepository.addAllRegisteredItems()).thenReturn(5);
+        when(scheduleEntryRepository.addAllTaughtItems()).thenReturn(1);
+
+        Service("links").SyncUserSchedules();
+
+        InOrder order = inOrder(scheduleEntryRepository);
+        order.verify(scheduleEntryRepository).removeStaleUserItems();
+        order.verify(scheduleEntryRepository).addAllRegisteredItems();
+        order.verify(scheduleEntryRepository).addAllTaughtItems();
+        verify(resourceVersions).BumpAll();
+    }
+
+    /**
+     * Nothing changed, the ETags stay valid.
+     */
+    @Test
+    public void upToDateSchedulesKeepTheirETags() {
+        Service("links").SyncUserSchedules();
+
+        verify(resourceVersions, never()).BumpAll();
+    }
+
+    /**
+     * Derived schedules have nothing stored to sync.
+     */
+    @Test
+    public void derivedModeDoesNotTouchTheLinks() {
+        Service("derived").SyncUserSchedules();
+
+        verifyNoInteractions(scheduleEntryRepository, resourceVersions);
+    }
+
+    /**
+     * Two ordered sequences come out as one ordered sequence.
+     */
+    @Test
+    public void mergeKeepsStartOrder() {
+        List<Long> merged = Merge(
+                List.of(Item(1L, 8), Item(3L, 10), Item(5L, 12)),
+                List.of(Item(2L, 9), Item(4L, 11), Item(6L, 13)));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), merged);
+    }
+
+    /**
+     * An item in both sequences (a teacher registered for a term of their own
+     * course) is passed once, different items with the same start both are.
+     */
+    @Test
+    public void mergeDropsDuplicatesAtTheSameStart() {
+        List<Long> merged = Merge(
+                List.of(Item(1L, 8), Item(2L, 8), Item(3L, 10)),
+                List.of(Item(2L, 8), Item(4L, 8), Item(3L, 10)));
+
+        assertEquals(List.of(1L, 2L, 4L, 3L), merged);
+    }
+
+    /**
+     * Either sequence can be empty.
+     */
+    @Test
+    public void mergeWithEmptySequence() {
+        assertEquals(List.of(1L, 2L), Merge(List.of(Item(1L, 8), Item(2L, 9)), List.of()));
+        assertEquals(List.of(1L, 2L), Merge(List.of(), List.of(Item(1L, 8), Item(2L, 9))));
+        assertEquals(List.of(), Merge(List.of(), List.of()));
+    }
+
+    private ScheduleService Service(String materialization) {
+        return new ScheduleService(userRepository, courseRepository, scheduleItemRepository, scheduleRepository,
+                scheduleEntryRepository, resourceVersions, materialization);
+    }
+
+    private static List<Long> Merge(List<ScheduleRangeItemDTO> first, List<ScheduleRangeItemDTO> second) {
+        List<Long> ids = new ArrayList<>();
+        ScheduleService.ForEachMerged(first.iterator(), second.iterator(), item -> ids.add(item.id()));
+        return ids;
+    }
+
+    private static ScheduleItemDTO WeekItem(int hour, String course) {
+        LocalDateTime start = LocalDateTime.of(2025, 9, 22, hour, 0);
+        return new ScheduleItemDTO(start, start.plusHours(1), course, TermType.LECTURE);
+    }
+
+    private static ScheduleRangeItemDTO Item(Long id, int hour) {
+        LocalDateTime start = LocalDateTime.of(2025, 9, 22, hour, 0);
+        return new ScheduleRangeItemDTO(id, start, start.plusHours(1), "IIS", TermType.LECTURE);
+    }
+}
@@ -0,0 +1,196 @@
+package IIS.wis2_backend.Services.Education;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import IIS.wis2_backend.DTO.Request.Term.TermCreationDTO;
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Enum.TermType;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Models.Room.StudyRoom;
+import IIS.wis2_backend.Models.Term.Exam;
+import IIS.wis2_backend.Models.Term.Lecture;
+import IIS.wis2_backend.Models.User.Wis2User;
+import IIS.wis2_backend.Repositories.CourseRepository;
+import IIS.wis2_backend.Repositories.Education.Term.ExamRepository;
+import IIS.wis2_backend.Repositories.Education.Term.LabRepository;
+import IIS.wis2_backend.Repositories.Education.Term.LectureRepository;
+import IIS.wis2_backend.Repositories.Education.Term.MidtermExamRepository;
+import IIS.wis2_backend.Repositories.Education.Term.TermRepository;
+import IIS.wis2_backend.Repositories.Relational.StudentTermRepository;
+import IIS.wis2_backend.Repositories.Room.StudyRoomRepository;
+import IIS.wis2_backend.Repositories.User.UserRepository;
+import IIS.wis2_backend.Services.Cache.ResourceVersions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TermServiceTest {
+    @Mock
+    private TermRepository termRepository;
+
+    @Mock
+    private ExamRepository examRepository;
+
+    @Mock
+    private MidtermExamRepository midtermExamRepository;
+
+    @Mock
+    private ScheduleService scheduleService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StudyRoomRepository studyRoomRepository;
+
+    @Mock
+    private LabRepository labRepository;
+
+    @Mock
+    private LectureRepository lectureRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private StudentTermRepository studentTermRepository;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private TermService termService;
+
+    @BeforeEach
+    public void Setup() {
+        termService = new TermService(termRepository, examRepository, midtermExamRepository, scheduleService,
+                userRepository, studyRoomRepository, labRepository, lectureRepository, courseRepository,
+                studentTermRepository, resourceVersions, jdbcTemplate);
+    }
+
+    /**
+     * All approved students are registered with one statement, the term is
+     * saved once. Which students the statement picks is tested against the
+     * database in FinalExamRegistrationTest.
+     */
+    @Test
+    public void lectureRegistersAllApprovedStudents() {
+        Course course = Course(CourseEndType.EXAM);
+        Given(course, 30);
+        when(studyRoomRepository.isAvaliableBetween(anyString(), any(), any())).thenReturn(true);
+        when(lectureRepository.save(any(Lecture.class))).thenAnswer(invocation -> {
+            Lecture lecture = invocation.getArgument(0);
+            lecture.setId(5L);
+            return lecture;
+        });
+
+        termService.CreateNonExamTerm("IIS", Dto(TermType.LECTURE, true), "supervisor");
+
+        verify(jdbcTemplate).update(anyString(), eq(Map.of("termId", 5L, "courseId", 1L)));
+        verify(lectureRepository, times(1)).save(any(Lecture.class));
+        verify(scheduleService).CreateScheduleForTerm(any(Lecture.class), eq(TermType.LECTURE));
+    }
+
+    /**
+     * A course without an exam has nobody to register for one.
+     */
+    @Test
+    public void finalExamOfCourseWithoutExamIsRefused() {
+        Course course = Course(CourseEndType.UNIT_CREDIT);
+        Given(course, 30);
+        SaveExamAs(5L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> termService.CreateFinalExam("IIS", Dto(TermType.EXAM, true), "supervisor"));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * More enrolled students than seats in the room, nobody is registered.
+     */
+    @Test
+    public void autoregisterOverRoomCapacityIsRefused() {
+        Course course = Course(CourseEndType.EXAM);
+        Given(course, 30);
+        when(courseRepository.getEnrolledCountByCourseShortcut("IIS")).thenReturn(31L);
+        SaveExamAs(5L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> termService.CreateFinalExam("IIS", Dto(TermType.EXAM, true), "supervisor"));
+
+        verifyNoInteractions(jdbcTemplate, scheduleService);
+    }
+
+    @Test
+    public void withoutAutoregisterNobodyIsRegistered() {
+        when(courseRepository.findByShortcut("IIS")).thenReturn(Optional.of(Course(CourseEndType.EXAM)));
+        when(studyRoomRepository.findMaybeByShortcut("D105")).thenReturn(Optional.of(Room()));
+        SaveExamAs(5L);
+
+        termService.CreateFinalExam("IIS", Dto(TermType.EXAM, false), "supervisor");
+
+        verifyNoInteractions(jdbcTemplate);
+        verify(scheduleService).CreateScheduleForTerm(any(Exam.class), eq(TermType.EXAM));
+    }
+
+    private void Given(Course course, int roomCapacity) {
+        when(courseRepository.findByShortcut("IIS")).thenReturn(Optional.of(course));
+        when(studyRoomRepository.findMaybeByShortcut("D105")).thenReturn(Optional.of(Room()));
+        lenient().when(courseRepository.getEnrolledCountByCourseShortcut("IIS")).thenReturn(20L);
+        when(termRepository.getTermCapacityById(5L)).thenReturn(roomCapacity);
+    }
+
+    private void SaveExamAs(Long id) {
+        when(examRepository.save(any(Exam.class))).thenAnswer(invocation -> {
+            Exam exam = invocation.getArgument(0);
+            exam.setId(id);
+            return exam;
+        });
+    }
+
+    private static Course Course(CourseEndType endType) {
+        return Course.builder()
+                .id(1L)
+                .shortcut("IIS")
+                .name("Information Systems")
+                .price(0.0)
+                .completedBy(endType)
+                .supervisor(Wis2User.builder().username("supervisor").build())
+                .build();
+    }
+
+    private static StudyRoom Room() {
+        StudyRoom room = new StudyRoom();
+        room.setShortcut("D105");
+        room.setCapacity(30);
+        return room;
+    }
+
+    private static TermCreationDTO Dto(TermType type, boolean autoregister) {
+        return TermCreationDTO.builder()
+                .name("Term")
+                .minPoints(0)
+                .maxPoints(type == TermType.LECTURE ? null : 20)
+                .startDate(LocalDateTime.of(2030, 1, 10, 9, 0))
+                .duration(120)
+                .roomShortcut("D105")
+                .autoregister(autoregister)
+                .type(type)
+                .build();
+    }
+}
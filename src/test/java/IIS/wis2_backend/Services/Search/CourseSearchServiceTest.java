@@ -0,0 +1,136 @@
+package IIS.wis2_backend.Services.Search;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IIS.wis2_backend.Enum.CourseEndType;
+import IIS.wis2_backend.Enum.RequestStatus;
+import IIS.wis2_backend.Events.CourseChangedEvent;
+import IIS.wis2_backend.Models.Course;
+import IIS.wis2_backend.Repositories.CourseRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourseSearchServiceTest {
+    @Mock
+    private CourseRepository courseRepository;
+
+    private CourseSearchService courseSearchService;
+
+    @BeforeEach
+    public void Setup() {
+        courseSearchService = new CourseSearchService(courseRepository);
+    }
+
+    /**
+     * A committed change re-reads the course, so the index shows what's in the
+     * database and not what the transaction had in memory.
+     */
+    @Test
+    public void committedChangeReindexesTheStoredCourse() {
+        Course course = Course(1L, "IIS", "Information Systems", RequestStatus.APPROVED);
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+
+        courseSearchService.OnCourseChanged(new CourseChangedEvent(1L, "IIS"));
+
+        assertEquals(List.of(1L), courseSearchService.SearchIds("information"));
+    }
+
+    /**
+     * Rejected and deleted courses drop out of the index.
+     */
+    @Test
+    public void committedChangeRemovesRejectedAndDeletedCourses() {
+        courseSearchService.Index(Course(1L, "IIS", "Information Systems", RequestStatus.APPROVED));
+        courseSearchService.Index(Course(2L, "IPS", "Information Security", RequestStatus.APPROVED));
+        when(courseRepository.findById(1L))
+                .thenReturn(Optional.of(Course(1L, "IIS", "Information Systems", RequestStatus.REJECTED)));
+        when(courseRepository.findById(2L)).thenReturn(Optional.empty());
+
+        courseSearchService.OnCourseChanged(new CourseChangedEvent(1L, "IIS"));
+        courseSearchService.OnCourseChanged(new CourseChangedEvent(2L, "IPS"));
+
+        assertTrue(courseSearchService.SearchIds("information").isEmpty());
+    }
+
+    /**
+     * Every course the old case-insensitive substring filter found is still
+     * found, even when the query is in the middle of a word.
+     */
+    @Test
+    public void substringOfNameOrShortcutAlwaysMatches() {
+        courseSearchService.Index(Course(1L, "IIS", "Informační systémy", RequestStatus.APPROVED));
+        courseSearchService.Index(Course(2L, "IDS", "Databázové systémy", RequestStatus.APPROVED));
+        courseSearchService.Index(Course(3L, "IMA", "Matematická analýza", RequestStatus.APPROVED));
+
+        assertEquals(List.of(2L, 1L), courseSearchService.SearchIds("STÉM"));
+        // Prefix hits first, "informacni" contains "ma" as well
+        assertEquals(List.of(3L, 1L), courseSearchService.SearchIds("ma"));
+        assertEquals(1L, courseSearchService.SearchIds("is").get(0));
+    }
+
+    /**
+     * Small typos still match thanks to the trigrams, exact hits rank first.
+     */
+    @Test
+    public void typosMatchBelowExactHits() {
+        courseSearchService.Index(Course(1L, "IDS", "Databazove systemy", RequestStatus.APPROVED));
+        courseSearchService.Index(Course(2L, "IDB", "Databases", RequestStatus.APPROVED));
+
+        assertEquals(1L, courseSearchService.SearchIds("databazvoe").get(0));
+        assertEquals(2L, courseSearchService.SearchIds("databases").get(0));
+    }
+
+    /**
+     * Courses that aren't approved are never returned.
+     */
+    @Test
+    public void pendingCoursesAreNotIndexed() {
+        courseSearchService.Index(Course(1L, "IIS", "Information Systems", RequestStatus.PENDING));
+
+        assertTrue(courseSearchService.SearchIds("IIS").isEmpty());
+    }
+
+    /**
+     * Both the search endpoint and the IDs for the catalog filter are capped.
+     */
+    @Test
+    public void resultsAreCapped() {
+        for (long id = 1; id <= CourseSearchService.MAX_RESULTS + 5; id++) {
+            courseSearchService.Index(Course(id, "C" + id, "Course " + id, RequestStatus.APPROVED));
+        }
+
+        assertEquals(CourseSearchService.MAX_RESULTS, courseSearchService.Search("course", Integer.MAX_VALUE).size());
+        assertEquals(3, courseSearchService.Search("course", 3).size());
+        assertEquals(CourseSearchService.MAX_RESULTS, courseSearchService.SearchIds("course").size());
+    }
+
+    /**
+     * A blank query matches nothing.
+     */
+    @Test
+    public void blankQueryMatchesNothing() {
+        courseSearchService.Index(Course(1L, "IIS", "Information Systems", RequestStatus.APPROVED));
+
+        assertTrue(courseSearchService.SearchIds("   ").isEmpty());
+    }
+
+    private static Course Course(Long id, String shortcut, String name, RequestStatus status) {
+        return Course.builder()
+                .id(id)
+                .shortcut(shortcut)
+                .name(name)
+                .price(0.0)
+                .completedBy(CourseEndType.EXAM)
+                .status(status)
+                .build();
+    }
+}
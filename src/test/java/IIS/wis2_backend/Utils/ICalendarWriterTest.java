@@ -0,0 +1,100 @@
+package IIS.wis2_backend.Utils;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ICalendarWriterTest {
+    private static final Instant START = Instant.parse("2025-09-22T06:00:00Z");
+    private static final Instant END = Instant.parse("2025-09-22T07:50:00Z");
+    private static final Instant STAMP = Instant.parse("2025-09-01T12:34:56Z");
+
+    @Test
+    public void textIsEscaped() {
+        assertEquals("a\\,b\\;c\\\\d", ICalendarWriter.Escape("a,b;c\\d"));
+        assertEquals("one\\ntwo\\nthree", ICalendarWriter.Escape("one\r\ntwo\nthree"));
+        assertEquals("line", ICalendarWriter.Escape("line\r"));
+    }
+
+    /**
+     * Every line ends with CRLF, there are no bare LFs.
+     */
+    @Test
+    public void linesEndWithCrlf() {
+        String ics = Write("IIS lecture", "D105", "Information systems\nsecond line");
+
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+        assertFalse(ics.replace("\r\n", "").contains("\n"));
+        assertFalse(ics.replace("\r\n", "").contains("\r"));
+        assertTrue(ics.contains("\r\nDESCRIPTION:Information systems\\nsecond line\r\n"));
+    }
+
+    /**
+     * Times are written in UTC with the Z suffix.
+     */
+    @Test
+    public void timesAreUtc() {
+        String ics = Write("IIS lecture", null, null);
+
+        assertTrue(ics.contains("\r\nDTSTART:20250922T060000Z\r\n"));
+        assertTrue(ics.contains("\r\nDTEND:20250922T075000Z\r\n"));
+        assertTrue(ics.contains("\r\nDTSTAMP:20250901T123456Z\r\n"));
+        assertFalse(ics.contains("LOCATION"));
+        assertFalse(ics.contains("DESCRIPTION"));
+    }
+
+    /**
+     * Long lines are folded to at most 75 octets, continuation lines start with
+     * a space and unfolding gives back the original line.
+     */
+    @Test
+    public void longLinesAreFoldedTo75Octets() {
+        String summary = "x".repeat(200);
+        String ics = Write(summary, null, null);
+
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        assertTrue(Unfold(ics).contains("\r\nSUMMARY:" + summary + "\r\n"));
+    }
+
+    /**
+     * Folding never splits a multi-byte character.
+     */
+    @Test
+    public void foldingKeepsMultiByteCharactersWhole() {
+        String summary = "Základy číslicových systémů ".repeat(10) + "😀".repeat(30);
+        String ics = Write(summary, null, null);
+
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+            assertFalse(Character.isHighSurrogate(line.charAt(line.length() - 1)), line);
+        }
+        assertTrue(Unfold(ics).contains("\r\nSUMMARY:" + summary + "\r\n"));
+    }
+
+    @Test
+    public void uidIsWrittenAsGiven() {
+        String ics = Write("IIS lecture", null, null);
+
+        assertTrue(ics.contains("\r\nUID:schedule-item-7@wis2\r\n"));
+    }
+
+    private static String Write(String summary, String location, String description) {
+        StringWriter out = new StringWriter();
+        ICalendarWriter ics = new ICalendarWriter(out);
+        ics.BeginCalendar("WIS2 - student");
+        ics.Event("schedule-item-7@wis2", START, END, STAMP, summary, location, description);
+        ics.EndCalendar();
+        return out.toString();
+    }
+
+    private static String Unfold(String ics) {
+        return ics.replace("\r\n ", "");
+    }
+}
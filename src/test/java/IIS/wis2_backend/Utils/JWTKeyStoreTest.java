@@ -0,0 +1,160 @@
+package IIS.wis2_backend.Utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
+import IIS.wis2_backend.Enum.Roles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JWTKeyStoreTest {
+    private static final String ISSUER = "wis2";
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Without an active kid the greatest one signs, and the kid is in the
+     * header so the verifier can pick the key.
+     */
+    @Test
+    public void greatestKidSignsByDefault() throws IOException {
+        Path jwks = Jwks("2025-01", "2025-02");
+        JWTUtils jwtUtils = new JWTUtils(new JWTKeyStore("", jwks.toString(), ""), 3_600_000, ISSUER, 100);
+
+        String token = Token(jwtUtils);
+
+        assertEquals("2025-02", Kid(token));
+        assertNotNull(jwtUtils.ValidClaims(token));
+    }
+
+    /**
+     * Rotating: the new key signs while tokens of the old one still verify.
+     */
+    @Test
+    public void oldKeyVerifiesAfterRotation() throws IOException {
+        Path jwks = Jwks("2025-01");
+        String oldToken = Token(new JWTUtils(new JWTKeyStore("", jwks.toString(), ""), 3_600_000, ISSUER, 0));
+
+        Jwks("2025-01", "2025-02");
+        JWTUtils rotated = new JWTUtils(new JWTKeyStore("", jwks.toString(), "2025-02"), 3_600_000, ISSUER, 0);
+
+        assertEquals("2025-02", Kid(Token(rotated)));
+        assertNotNull(rotated.ValidClaims(oldToken));
+    }
+
+    /**
+     * A removed key is picked up on reload, its tokens are rejected even if
+     * they were verified (and remembered) before.
+     */
+    @Test
+    public void removedKeyIsRejectedAfterReload() throws IOException {
+        Path jwks = Jwks("2025-01");
+        JWTKeyStore keyStore = new JWTKeyStore("", jwks.toString(), "");
+        JWTUtils jwtUtils = new JWTUtils(keyStore, 3_600_000, ISSUER, 100);
+        String oldToken = Token(jwtUtils);
+        assertNotNull(jwtUtils.ValidClaims(oldToken));
+
+        Jwks("2025-02");
+        Touch(jwks);
+        keyStore.ReloadIfChanged();
+
+        assertEquals("2025-02", keyStore.Current().signingKid());
+        assertNull(jwtUtils.ValidClaims(oldToken));
+        assertNotNull(jwtUtils.ValidClaims(Token(jwtUtils)));
+    }
+
+    /**
+     * A file without the configured active key is refused, the node keeps
+     * signing with the loaded one.
+     */
+    @Test
+    public void reloadWithoutTheActiveKeyIsRefused() throws IOException {
+        Path jwks = Jwks("2025-01", "2025-02");
+        JWTKeyStore keyStore = new JWTKeyStore("", jwks.toString(), "2025-01");
+
+        Jwks("2025-02");
+        Touch(jwks);
+        keyStore.ReloadIfChanged();
+
+        assertEquals("2025-01", keyStore.Current().signingKid());
+        assertNotNull(keyStore.VerificationKey("2025-01"));
+    }
+
+    /**
+     * A broken file keeps the keys that were loaded before.
+     */
+    @Test
+    public void brokenFileKeepsTheLoadedKeys() throws IOException {
+        Path jwks = Jwks("2025-01");
+        JWTKeyStore keyStore = new JWTKeyStore("", jwks.toString(), "");
+        JWTUtils jwtUtils = new JWTUtils(keyStore, 3_600_000, ISSUER, 100);
+        String token = Token(jwtUtils);
+
+        Files.writeString(jwks, "{ not json");
+        Touch(jwks);
+        keyStore.ReloadIfChanged();
+
+        assertEquals("2025-01", keyStore.Current().signingKid());
+        assertNotNull(jwtUtils.ValidClaims(token));
+    }
+
+    @Test
+    public void unknownActiveKidIsRefused() throws IOException {
+        Path jwks = Jwks("2025-01");
+
+        assertThrows(IllegalArgumentException.class, () -> new JWTKeyStore("", jwks.toString(), "2025-02"));
+    }
+
+    @Test
+    public void someKeyHasToBeConfigured() {
+        assertThrows(IllegalStateException.class, () -> new JWTKeyStore("", "", ""));
+    }
+
+    /**
+     * Writes a JWKS file with one HS256 key per kid.
+     */
+    private Path Jwks(String... kids) throws IOException {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (int i = 0; i < kids.length; i++) {
+            byte[] secret = new byte[32];
+            Arrays.fill(secret, (byte) kids[i].hashCode());
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"kty\":\"oct\",\"kid\":\"").append(kids[i]).append("\",\"k\":\"")
+                    .append(Base64.getUrlEncoder().withoutPadding().encodeToString(secret)).append("\"}");
+        }
+        json.append("]}");
+
+        Path jwks = dir.resolve("jwks.json");
+        Files.writeString(jwks, json);
+        return jwks;
+    }
+
+    /**
+     * Moves the modification time forward, the file may be rewritten within the
+     * timestamp resolution.
+     */
+    private static void Touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+    }
+
+    private static String Token(JWTUtils jwtUtils) {
+        return jwtUtils.generateToken(new Wis2Principal(1L, "xuser00", "", Roles.USER, true, 0L));
+    }
+
+    private static String Kid(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        return header.replaceAll(".*\"kid\":\"([^\"]+)\".*", "$1");
+    }
+}
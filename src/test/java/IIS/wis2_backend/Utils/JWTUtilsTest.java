@@ -0,0 +1,119 @@
+package IIS.wis2_backend.Utils;
+
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import IIS.wis2_backend.Config.Auth.Wis2Principal;
+import IIS.wis2_backend.Enum.Roles;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JWTUtilsTest {
+    private static final String ISSUER = "wis2";
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private JWTKeyStore keyStore;
+
+    private JWTUtils jwtUtils;
+
+    @BeforeEach
+    public void Setup() {
+        keyStore = new JWTKeyStore(SECRET, "", "");
+        jwtUtils = new JWTUtils(keyStore, 3_600_000, ISSUER, 100);
+    }
+
+    /**
+     * The filter builds the principal from the claims alone, so everything it
+     * needs has to survive the round trip.
+     */
+    @Test
+    public void principalSurvivesTheToken() {
+        String token = jwtUtils.generateToken(new Wis2Principal(5L, "xadmin00", "hash", Roles.ADMIN, true, 3L));
+
+        Wis2Principal principal = jwtUtils.Principal(jwtUtils.ValidClaims(token));
+
+        assertEquals(5L, principal.getId());
+        assertEquals("xadmin00", principal.getUsername());
+        assertEquals("", principal.getPassword());
+        assertEquals(Roles.ADMIN, principal.getRole());
+        assertTrue(principal.isEnabled());
+        assertEquals(3L, principal.getTokenEpoch());
+        assertEquals(2, principal.getAuthorities().size());
+    }
+
+    @Test
+    public void deactivationIsCarried() {
+        String token = jwtUtils.generateToken(new Wis2Principal(5L, "xuser00", "", Roles.USER, false, 0L));
+
+        assertFalse(jwtUtils.Principal(jwtUtils.ValidClaims(token)).isEnabled());
+    }
+
+    /**
+     * Tokens issued before the claims were added only have a subject, the
+     * filter falls back to loading the user.
+     */
+    @Test
+    public void tokenWithoutUserClaimsHasNoPrincipal() {
+        String token = Jwts.builder()
+                .subject("xuser00")
+                .issuer(ISSUER)
+                .signWith(keyStore.Current().signingKey())
+                .compact();
+
+        Claims claims = jwtUtils.ValidClaims(token);
+
+        assertEquals("xuser00", claims.getSubject());
+        assertNull(jwtUtils.Principal(claims));
+    }
+
+    /**
+     * A token sent again is answered from the verified tokens, with the same
+     * claims.
+     */
+    @Test
+    public void verifiedTokenIsRemembered() {
+        String token = Token(jwtUtils);
+
+        assertSame(jwtUtils.ValidClaims(token), jwtUtils.ValidClaims(token));
+    }
+
+    /**
+     * With the cache off every call verifies the token again.
+     */
+    @Test
+    public void verifiesWithoutTheCache() {
+        JWTUtils uncached = new JWTUtils(keyStore, 3_600_000, ISSUER, 0);
+        String token = Token(uncached);
+
+        Claims first = uncached.ValidClaims(token);
+        Claims second = uncached.ValidClaims(token);
+
+        assertNotSame(first, second);
+        assertEquals("xuser00", second.getSubject());
+    }
+
+    /**
+     * Tampered, foreign and expired tokens are rejected, and rejecting them
+     * twice doesn't make them remembered.
+     */
+    @Test
+    public void invalidTokensAreRejected() {
+        String token = Token(jwtUtils);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String otherIssuer = Token(new JWTUtils(keyStore, 3_600_000, "other", 100));
+        String expired = Token(new JWTUtils(keyStore, -1000, ISSUER, 100));
+
+        for (String invalid : new String[] { tampered, otherIssuer, expired, "not a token", "" }) {
+            assertNull(jwtUtils.ValidClaims(invalid), invalid);
+            assertNull(jwtUtils.ValidClaims(invalid), invalid);
+        }
+    }
+
+    private static String Token(JWTUtils jwtUtils) {
+        return jwtUtils.generateToken(new Wis2Principal(1L, "xuser00", "", Roles.USER, true, 0L));
+    }
+}
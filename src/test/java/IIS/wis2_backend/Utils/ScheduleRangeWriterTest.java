@@ -0,0 +1,104 @@
+package IIS.wis2_backend.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import IIS.wis2_backend.DTO.Response.Schedule.ScheduleRangeItemDTO;
+import IIS.wis2_backend.Enum.TermType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleRangeWriterTest {
+    private static final LocalDate FROM = LocalDate.of(2025, 9, 22);
+    private static final LocalDate TO = LocalDate.of(2025, 9, 28);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Items are grouped by the day they start on, in order.
+     */
+    @Test
+    public void itemsAreGroupedByStartDay() throws Exception {
+        JsonNode range = Write(false, List.of(
+                Item(1L, "2025-09-22T08:00", 120, "IIS", TermType.LECTURE),
+                Item(2L, "2025-09-22T10:00", 60, "IDS", TermType.LAB),
+                Item(3L, "2025-09-24T09:00", 90, "IIS", TermType.EXAM)));
+
+        assertEquals("2025-09-22", range.get("from").asText());
+        assertEquals("2025-09-28", range.get("to").asText());
+
+        JsonNode days = range.get("days");
+        assertEquals(2, days.size());
+        assertEquals("2025-09-22", days.get(0).get("date").asText());
+        assertEquals(2, days.get(0).get("items").size());
+        assertEquals(1L, days.get(0).get("items").get(0).get("id").asLong());
+        assertEquals("IDS", days.get(0).get("items").get(1).get("course").asText());
+        assertEquals("2025-09-24", days.get(1).get("date").asText());
+        assertEquals("EXAM", days.get(1).get("items").get(0).get("termType").asText());
+    }
+
+    /**
+     * Days without items aren't written, an empty range has no days at all.
+     */
+    @Test
+    public void emptyDaysAreLeftOut() throws Exception {
+        JsonNode days = Write(false, List.of(
+                Item(1L, "2025-09-22T08:00", 60, "IIS", TermType.LECTURE),
+                Item(2L, "2025-09-28T08:00", 60, "IIS", TermType.LECTURE))).get("days");
+        assertEquals(2, days.size());
+        assertEquals("2025-09-28", days.get(1).get("date").asText());
+
+        assertEquals(0, Write(false, List.of()).get("days").size());
+        assertEquals(0, Write(true, List.of()).get("days").size());
+    }
+
+    /**
+     * Compact days are column-oriented, start in minutes from midnight and
+     * duration in minutes.
+     */
+    @Test
+    public void compactDaysAreColumns() throws Exception {
+        JsonNode days = Write(true, List.of(
+                Item(1L, "2025-09-22T08:00", 120, "IIS", TermType.LECTURE),
+                Item(2L, "2025-09-22T10:30", 50, "IDS", TermType.LAB),
+                Item(3L, "2025-09-23T09:00", 90, "IIS", TermType.EXAM))).get("days");
+
+        assertEquals(2, days.size());
+        JsonNode day = days.get(0);
+        assertEquals("2025-09-22", day.get("date").asText());
+        assertFalse(day.has("items"));
+        assertEquals("[1,2]", day.get("id").toString());
+        assertEquals("[480,630]", day.get("start").toString());
+        assertEquals("[120,50]", day.get("duration").toString());
+        assertEquals("[\"IIS\",\"IDS\"]", day.get("course").toString());
+        assertEquals("[\"LECTURE\",\"LAB\"]", day.get("type").toString());
+        assertEquals("[3]", days.get(1).get("id").toString());
+    }
+
+    private JsonNode Write(boolean compact, List<ScheduleRangeItemDTO> items) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScheduleRangeWriter writer = new ScheduleRangeWriter(objectMapper.createGenerator(out, JsonEncoding.UTF8),
+                compact);
+        writer.Begin(FROM, TO);
+        items.forEach(writer::Item);
+        writer.End();
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static ScheduleRangeItemDTO Item(Long id, String start, int minutes, String course, TermType type) {
+        LocalDateTime startDate = LocalDateTime.parse(start);
+        return new ScheduleRangeItemDTO(id, startDate, startDate.plusMinutes(minutes), course, type);
+    }
+}
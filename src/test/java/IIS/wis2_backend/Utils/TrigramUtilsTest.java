@@ -0,0 +1,42 @@
+package IIS.wis2_backend.Utils;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrigramUtilsTest {
+    @Test
+    public void wordsArePaddedLikePgTrgm() {
+        assertEquals(Set.of("  d", " db", "db "), TrigramUtils.Trigrams("db"));
+        assertEquals(Set.of("  a", " a "), TrigramUtils.Trigrams("a"));
+    }
+
+    @Test
+    public void textIsSplitIntoLowercaseWords() {
+        assertEquals(Set.of("  i", " is", "is ", "  d", " db", "db "), TrigramUtils.Trigrams("IS, DB!"));
+    }
+
+    @Test
+    public void lastQueryWordIsAPrefix() {
+        assertEquals(Set.of("  d", " da", "dat"), TrigramUtils.QueryTrigrams("dat"));
+        assertTrue(TrigramUtils.Trigrams("database").containsAll(TrigramUtils.QueryTrigrams("data")));
+        // Only the last word, the others are whole words
+        assertTrue(TrigramUtils.QueryTrigrams("db dat").contains("db "));
+    }
+
+    @Test
+    public void diacriticsAreStripped() {
+        assertEquals("zaklady programovani", TrigramUtils.Normalize("Základy Programování"));
+        assertEquals(TrigramUtils.Trigrams("zaklady"), TrigramUtils.Trigrams("ZÁKLADY"));
+    }
+
+    @Test
+    public void emptyAndNullTextHaveNoTrigrams() {
+        assertTrue(TrigramUtils.Trigrams(null).isEmpty());
+        assertTrue(TrigramUtils.Trigrams("").isEmpty());
+        assertTrue(TrigramUtils.Trigrams(" - ").isEmpty());
+        assertTrue(TrigramUtils.QueryTrigrams(null).isEmpty());
+    }
+}